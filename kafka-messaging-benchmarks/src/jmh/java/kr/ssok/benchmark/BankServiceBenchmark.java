@@ -0,0 +1,103 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.kafka.messaging.server.dispatch.CommandDispatcher;
+import kr.ssok.kafka.messaging.server.idempotency.IdempotencyStore;
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.ssok.kafka.messaging.server.ledger.LedgerEngine;
+import kr.ssok.kafka.messaging.server.retry.RetryRouter;
+import kr.ssok.kafka.messaging.server.service.BankService;
+import kr.ssok.kafka.messaging.server.snapshot.SnapshotManager;
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.JsonUtil;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BankService 요청 처리 경로 비용 (CMD 디스패치 + 역직렬화 + 원장 반영 + 멱등성 저장소 + 저널 기록)
+ * 저널은 fsync=none으로 기록 비용만 포함합니다. (fsync 비용은 JournalBenchmark)
+ * 카프카 없이 리스너 메서드(handleTransferRequest)를 직접 호출합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BankServiceBenchmark {
+
+    private static final int DISTINCT_REQUESTS = 1 << 16;
+
+    private Path journalDirectory;
+    private Journal journal;
+    private BankService bankService;
+    private ConsumerRecord<String, byte[]>[] newRequests;
+    private ConsumerRecord<String, byte[]> duplicateRequest;
+    private ConsumerRecord<String, byte[]> unsupportedRequest;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        // 저장소 용량보다 많은 요청을 순환시켜 매번 신규 요청으로 처리되도록 함
+        IdempotencyStore idempotencyStore = new IdempotencyStore(new SimpleMeterRegistry(), 1024, 600);
+        LedgerEngine ledgerEngine = new LedgerEngine(1024, 3, new String[]{"3333-01-1234567:0"});
+        journalDirectory = Files.createTempDirectory("bank-service-journal");
+        journal = Fixtures.journal(journalDirectory, "none");
+        // 스냅샷은 사용하지 않고 처리 완료 오프셋 기록만 포함
+        SnapshotManager snapshotManager = new SnapshotManager(ledgerEngine, journal, new SimpleMeterRegistry(),
+                false, journalDirectory.toString(), 60, 2, 600, Fixtures.REQUEST_TOPIC);
+        // 재시도 토픽 없이 실패는 FAILED 응답으로 처리
+        RetryRouter retryRouter = new RetryRouter(null, new SimpleMeterRegistry(), Fixtures.REQUEST_TOPIC, false, new long[0]);
+        bankService = new BankService(null, idempotencyStore, dispatcher, null, null, ledgerEngine, journal, snapshotManager, null,
+                retryRouter, null);
+        Fixtures.setField(bankService, "currency", "KRW");
+        dispatcher.postProcessAfterInitialization(bankService, "bankService");
+
+        newRequests = new ConsumerRecord[DISTINCT_REQUESTS];
+        for (int i = 0; i < DISTINCT_REQUESTS; i++) {
+            newRequests[i] = record(CommunicationProtocol.REQUEST_DEPOSIT, JsonUtil.toJsonBytes(Fixtures.transferRequest()));
+        }
+
+        duplicateRequest = record(CommunicationProtocol.REQUEST_DEPOSIT,
+                JsonUtil.toJsonBytes(Fixtures.transferRequest(UUID.randomUUID().toString())));
+        unsupportedRequest = record("kr.ssok.kafka.messaging.unknown", new byte[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        journal.destroy();
+        FileSystemUtils.deleteRecursively(journalDirectory);
+    }
+
+    @Benchmark
+    public Object newRequest() {
+        ConsumerRecord<String, byte[]> record = newRequests[next];
+        next = (next + 1) & (DISTINCT_REQUESTS - 1);
+        return bankService.handleTransferRequest(record);
+    }
+
+    @Benchmark
+    public Object duplicateRequest() {
+        return bankService.handleTransferRequest(duplicateRequest);
+    }
+
+    @Benchmark
+    public Object unsupportedRequest() {
+        return bankService.handleTransferRequest(unsupportedRequest);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String cmd, byte[] value) {
+        ConsumerRecord<String, byte[]> record =
+                new ConsumerRecord<>(Fixtures.REQUEST_TOPIC, 0, 0L, UUID.randomUUID().toString(), value);
+        record.headers().add(CommandDispatcher.CMD_HEADER, cmd.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+}
@@ -0,0 +1,90 @@
+package kr.ssok.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.ssok.kafka.messaging.client.comm.KafkaCommModuleImpl;
+import kr.ssok.kafka.messaging.client.comm.Message;
+import kr.ssok.kafka.messaging.client.comm.ReplyAddress;
+import kr.ssok.kafka.messaging.client.comm.correlation.CorrelationEngine;
+import kr.ssok.kafka.messaging.client.comm.metrics.CommMetrics;
+import kr.ssok.kafka.messaging.client.comm.priority.CommandPriorities;
+import kr.ssok.kafka.messaging.client.comm.producer.ProducerPath;
+import kr.ssok.kafka.messaging.client.comm.promise.CommQueryPromise;
+import kr.ssok.kafka.messaging.client.comm.routing.AccountRoutingKeyStrategy;
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.JsonUtil;
+import kr.ssok.model.ProducerProfile;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KafkaCommModuleImpl 전송 경로 비용
+ * 레코드/헤더 생성, 직렬화, 상관 엔진 등록과 응답 수신 후 DTO 변환까지를 브로커 없이 측정합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ClientSendBenchmark {
+
+    private LastRecordProducer producer;
+    private CorrelationEngine correlationEngine;
+    private KafkaCommModuleImpl commModule;
+
+    private TransferRequest request;
+    private byte[] replyBytes;
+    private String key;
+
+    @Setup
+    public void setup() {
+        producer = new LastRecordProducer();
+        KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(producer.factory());
+        correlationEngine = new CorrelationEngine(Fixtures.REPLY_TOPIC, 1_000_000, 10, 1024);
+
+        CommMetrics commMetrics = new CommMetrics(new SimpleMeterRegistry(), correlationEngine);
+        ReplyAddress replyAddress = new ReplyAddress(Fixtures.REPLY_TOPIC, new int[]{0});
+        ProducerPath producer = new ProducerPath("benchmark", ProducerProfile.LOW_LATENCY, profile -> kafkaTemplate);
+        commModule = new KafkaCommModuleImpl(null, producer, producer, producer, correlationEngine, commMetrics, replyAddress,
+                new AccountRoutingKeyStrategy(), CommandPriorities.DISABLED);
+        Fixtures.setField(commModule, "requestTopic", Fixtures.REQUEST_TOPIC);
+        Fixtures.setField(commModule, "pushTopic", Fixtures.PUSH_TOPIC);
+        Fixtures.setField(commModule, "replyCorrelation", "engine");
+        commModule.init();
+
+        request = Fixtures.transferRequest();
+        replyBytes = JsonUtil.toJsonBytes(Fixtures.transferResponse());
+        key = UUID.randomUUID().toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        correlationEngine.destroy();
+    }
+
+    /**
+     * sendPromiseQuery → 응답 수신(CorrelationEngine.onMessage) → getAsync(TransferResponse)
+     */
+    @Benchmark
+    public TransferResponse promiseQueryRoundTrip() {
+        CommQueryPromise promise = commModule.sendPromiseQuery(key, CommunicationProtocol.REQUEST_DEPOSIT, request, 30);
+
+        ProducerRecord<String, Object> sent = producer.last();
+        ConsumerRecord<String, Object> reply = new ConsumerRecord<>(Fixtures.REPLY_TOPIC, 0, 0L, sent.key(), replyBytes);
+        reply.headers().add(KafkaHeaders.CORRELATION_ID, sent.headers().lastHeader(KafkaHeaders.CORRELATION_ID).value());
+        correlationEngine.onMessage(reply);
+
+        return promise.getAsync(TransferResponse.class).join();
+    }
+
+    @Benchmark
+    public Message sendMessage() {
+        return commModule.sendMessage(CommunicationProtocol.SEND_TEST_MESSAGE, request);
+    }
+
+}
@@ -0,0 +1,84 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.kafka.messaging.client.comm.correlation.CorrelationEngine;
+import kr.ssok.kafka.messaging.client.comm.correlation.PendingReply;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * 응답 상관 비용
+ * CorrelationEngine(long 상관 ID, 타이밍 휠)과
+ * ReplyingKafkaTemplate 방식(UUID 상관 ID, ConcurrentHashMap, 요청마다 스케줄러 타임아웃 등록)을 비교합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CorrelationBenchmark {
+
+    private static final byte[] VALUE = new byte[0];
+
+    private CorrelationEngine correlationEngine;
+
+    private ConcurrentHashMap<String, CompletableFuture<ConsumerRecord<String, Object>>> futures;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Setup
+    public void setup() {
+        correlationEngine = new CorrelationEngine(Fixtures.REPLY_TOPIC, 1_000_000, 10, 1024);
+        futures = new ConcurrentHashMap<>();
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        correlationEngine.destroy();
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ConsumerRecord<String, Object> engine() throws Exception {
+        PendingReply pending = correlationEngine.register(30, TimeUnit.SECONDS);
+
+        ConsumerRecord<String, Object> reply = new ConsumerRecord<>(Fixtures.REPLY_TOPIC, 0, 0L, null, VALUE);
+        reply.headers().add(KafkaHeaders.CORRELATION_ID, pending.getCorrelationIdBytes());
+        correlationEngine.onMessage(reply);
+
+        return pending.getFuture().getNow(null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ConsumerRecord<String, Object> template() {
+        UUID uuid = UUID.randomUUID();
+        byte[] correlationId = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+        String key = uuid.toString();
+
+        CompletableFuture<ConsumerRecord<String, Object>> future = new CompletableFuture<>();
+        futures.put(key, future);
+        ScheduledFuture<?> timeout = scheduler.schedule(() -> {
+            CompletableFuture<ConsumerRecord<String, Object>> removed = futures.remove(key);
+            if (removed != null) removed.completeExceptionally(new TimeoutException());
+        }, 30, TimeUnit.SECONDS);
+
+        ConsumerRecord<String, Object> reply = new ConsumerRecord<>(Fixtures.REPLY_TOPIC, 0, 0L, null, VALUE);
+        reply.headers().add(KafkaHeaders.CORRELATION_ID, correlationId);
+
+        // 응답 수신: 헤더 바이트로 UUID 복원 후 조회
+        ByteBuffer buffer = ByteBuffer.wrap(reply.headers().lastHeader(KafkaHeaders.CORRELATION_ID).value());
+        CompletableFuture<ConsumerRecord<String, Object>> matched =
+                futures.remove(new UUID(buffer.getLong(), buffer.getLong()).toString());
+        timeout.cancel(false);
+        matched.complete(reply);
+
+        return future.getNow(null);
+    }
+
+}
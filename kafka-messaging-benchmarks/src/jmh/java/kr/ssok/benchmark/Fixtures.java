@@ -0,0 +1,73 @@
+package kr.ssok.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 벤치마크 공통 데이터
+ */
+final class Fixtures {
+
+    static final String REQUEST_TOPIC = "request-topic";
+    static final String PUSH_TOPIC = "push-topic";
+    static final String REPLY_TOPIC = "reply-topic-bench";
+
+    private Fixtures() {
+    }
+
+    static TransferRequest transferRequest() {
+        return transferRequest(UUID.randomUUID().toString());
+    }
+
+    static TransferRequest transferRequest(String requestId) {
+        return TransferRequest.builder()
+                .requestId(requestId)
+                .fromAccount("110-234-567890")
+                .toAccount("3333-01-1234567")
+                .amount(new BigDecimal("150000.00"))
+                .currency("KRW")
+                .description("benchmark transfer")
+                .requestTime(LocalDateTime.now())
+                .build();
+    }
+
+    static TransferResponse transferResponse() {
+        return TransferResponse.builder()
+                .requestId(UUID.randomUUID().toString())
+                .transactionId(UUID.randomUUID().toString())
+                .status(TransferStatus.SUCCESS)
+                .message("Transfer completed successfully")
+                .processedTime(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 디렉토리에 저널을 만들고 복구(빈 저널)까지 수행합니다.
+     */
+    static Journal journal(Path directory, String fsync) {
+        Journal journal = new Journal(new SimpleMeterRegistry(), true, directory.toString(), 64 << 20, fsync, 5);
+        journal.recover((position, entry) -> { }, 0, 0);
+        return journal;
+    }
+
+    /**
+     * 스프링 컨텍스트 없이 생성한 빈의 @Value 필드를 설정합니다.
+     */
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) throw new IllegalArgumentException("No field: " + name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+}
@@ -0,0 +1,66 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import kr.ssok.kafka.messaging.server.journal.JournalEntry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal 기록 비용
+ * - append : 매핑된 버퍼에 기록만 (fsync 대기 없음)
+ * - appendDurable : 16 스레드가 기록 후 내구화까지 대기 (그룹 커밋, 송금 1건당 fsync 비용 = fsync 시간 / 배치 크기)
+ *
+ * 저널 파일이 계속 커지므로 반복(iteration)마다 새 디렉토리를 사용하고 측정 시간을 짧게 둡니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(time = 2)
+@Measurement(time = 2)
+public class JournalBenchmark {
+
+    @Param({"always", "interval", "none"})
+    private String fsync;
+
+    private Path directory;
+    private Journal journal;
+    private JournalEntry entry;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = Fixtures.journal(directory, fsync);
+
+        UUID transactionId = UUID.randomUUID();
+        entry = new JournalEntry(System.currentTimeMillis(), 0, 0L, 1L << 58 | 1234567L, 150_000_00L, 150_000_00L,
+                transactionId.getMostSignificantBits(), transactionId.getLeastSignificantBits(), UUID.randomUUID().toString());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        System.out.printf("%n[JournalBenchmark] fsync=%s, appends/commit=%.1f%n", fsync,
+                journal.getCommitCount() == 0 ? 0.0 : (double) journal.getAppendCount() / journal.getCommitCount());
+        journal.destroy();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(entry);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long appendDurable() {
+        long position = journal.append(entry);
+        journal.awaitDurable(position);
+        return position;
+    }
+
+}
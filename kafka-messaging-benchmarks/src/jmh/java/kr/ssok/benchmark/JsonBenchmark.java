@@ -0,0 +1,63 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.model.JsonBytesSerializer;
+import kr.ssok.model.JsonUtil;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonUtil 직렬화/역직렬화 비용
+ * String 경로(toJson/fromJson)와 바이트 경로(toJsonBytes/fromJsonBytes)를 비교합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonBenchmark {
+
+    private TransferRequest request;
+    private String requestJson;
+    private byte[] requestBytes;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setup() {
+        request = Fixtures.transferRequest();
+        requestJson = JsonUtil.toJson(request);
+        requestBytes = JsonUtil.toJsonBytes(request);
+        responseBytes = JsonUtil.toJsonBytes(Fixtures.transferResponse());
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtil.toJson(request);
+    }
+
+    @Benchmark
+    public byte[] toJsonBytes() {
+        return JsonUtil.toJsonBytes(request);
+    }
+
+    @Benchmark
+    public byte[] serializer() {
+        return JsonBytesSerializer.toBytes(request);
+    }
+
+    @Benchmark
+    public TransferRequest fromJson() {
+        return JsonUtil.fromJson(requestJson, TransferRequest.class);
+    }
+
+    @Benchmark
+    public TransferRequest fromJsonBytes() {
+        return JsonUtil.fromJsonBytes(requestBytes, TransferRequest.class);
+    }
+
+    @Benchmark
+    public TransferResponse responseFromJsonBytes() {
+        return JsonUtil.fromJsonBytes(responseBytes, TransferResponse.class);
+    }
+
+}
@@ -0,0 +1,63 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.model.JsonBytesSerializer;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * 브로커 없이 직렬화까지만 수행하고 즉시 완료하는 프로듀서
+ * MockProducer와 달리 전송 이력을 쌓지 않고 마지막 레코드만 보관합니다.
+ */
+final class LastRecordProducer extends MockProducer<String, Object> {
+
+    private final StringSerializer keySerializer = new StringSerializer();
+    private final JsonBytesSerializer valueSerializer = new JsonBytesSerializer();
+
+    private ProducerRecord<String, Object> last;
+
+    LastRecordProducer() {
+        super(true, new StringSerializer(), new JsonBytesSerializer());
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<String, Object> record, Callback callback) {
+        byte[] key = keySerializer.serialize(record.topic(), record.key());
+        byte[] value = valueSerializer.serialize(record.topic(), record.value());
+        last = record;
+
+        int partition = record.partition() == null ? 0 : record.partition();
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), partition), 0L, 0,
+                System.currentTimeMillis(), key == null ? -1 : key.length, value == null ? -1 : value.length);
+        if (callback != null) callback.onCompletion(metadata, null);
+        return CompletableFuture.completedFuture(metadata);
+    }
+
+    ProducerRecord<String, Object> last() {
+        return last;
+    }
+
+    /**
+     * 이 프로듀서를 반환하는 ProducerFactory (KafkaTemplate 생성용)
+     */
+    ProducerFactory<String, Object> factory() {
+        LastRecordProducer producer = this;
+        return new DefaultKafkaProducerFactory<>(Map.of()) {
+            @Override
+            protected Producer<String, Object> createRawProducer(Map<String, Object> rawConfigs) {
+                return producer;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,95 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.kafka.messaging.server.ledger.LedgerEngine;
+import kr.ssok.model.RoutingKeys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LedgerEngine 잔액 반영 비용
+ * 계좌 100만개에 무작위로 입금/출금하며, 단일 스레드와 4 스레드(스트라이프 락 경합)를 비교합니다.
+ * depositPartitioned는 파티션을 하나씩 소유한 3 스레드가 자기 파티션의 계좌에만 입금합니다. (요청 컨슈머 스레드 배치)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LedgerBenchmark {
+
+    private static final int ACCOUNTS = 1 << 20;
+    private static final int PARTITIONS = 3;
+
+    private LedgerEngine ledgerEngine;
+    private long[] accounts;
+
+    @Setup
+    public void setup() {
+        ledgerEngine = new LedgerEngine(ACCOUNTS, PARTITIONS, new String[0]);
+        accounts = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = LedgerEngine.accountKey(String.format("110-%03d-%06d", i / 1_000_000, i % 1_000_000));
+            ledgerEngine.open(accounts[i], 1_000_000_00L);
+        }
+    }
+
+    @Benchmark
+    public long deposit() {
+        return ledgerEngine.deposit(randomAccount(), 100_00L);
+    }
+
+    @Benchmark
+    public long withdraw() {
+        // 잔액 부족을 피하기 위해 입금 후 같은 금액을 출금
+        long account = randomAccount();
+        ledgerEngine.deposit(account, 100_00L);
+        return ledgerEngine.withdraw(account, 100_00L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long depositContended() {
+        return ledgerEngine.deposit(randomAccount(), 100_00L);
+    }
+
+    @Benchmark
+    @Threads(PARTITIONS)
+    public long depositPartitioned(PartitionOwner owner) {
+        return ledgerEngine.deposit(owner.randomAccount(), 100_00L);
+    }
+
+    @Benchmark
+    public long accountKey() {
+        return LedgerEngine.accountKey("3333-01-1234567");
+    }
+
+    private long randomAccount() {
+        return accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+    }
+
+    /**
+     * 파티션 소유 스레드 (스레드마다 파티션 하나의 계좌만 사용)
+     */
+    @State(Scope.Thread)
+    public static class PartitionOwner {
+
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        private long[] accounts;
+
+        @Setup
+        public void setup(LedgerBenchmark benchmark) {
+            int partition = NEXT.getAndIncrement() % PARTITIONS;
+            accounts = Arrays.stream(benchmark.accounts)
+                    .filter(account -> RoutingKeys.partition(account, PARTITIONS) == partition)
+                    .toArray();
+        }
+
+        long randomAccount() {
+            return accounts[ThreadLocalRandom.current().nextInt(accounts.length)];
+        }
+    }
+
+}
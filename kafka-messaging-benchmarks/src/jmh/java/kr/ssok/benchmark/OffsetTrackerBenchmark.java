@@ -0,0 +1,60 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.kafka.messaging.server.execution.OffsetTracker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OffsetTracker 등록/완료 비용 (레코드 1건당)
+ * - inOrder : 등록 순서대로 완료 (커밋 가능 오프셋이 매번 이동)
+ * - outOfOrder : 처리중 window 개를 임의 순서로 완료 (앞선 레코드를 기다리는 완료 레코드가 쌓였다가 한번에 커밋)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OffsetTrackerBenchmark {
+
+    @Param({"256", "4096"})
+    private int window;
+
+    private OffsetTracker<Object> tracker;
+    private long[] order;
+    private long offset;
+    private long commits;
+
+    @Setup
+    public void setup() {
+        tracker = new OffsetTracker<>(0, window);
+        // window 안의 완료 순서 (매 window마다 같은 순열 사용)
+        Random random = new Random(42);
+        order = new long[window];
+        for (int i = 0; i < window; i++) order[i] = i;
+        for (int i = window - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    @Benchmark
+    public long inOrder() {
+        tracker.track(offset, this);
+        tracker.complete(offset++, (handle, committable) -> commits++);
+        return commits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4096)
+    public long outOfOrder() {
+        for (int round = 0; round < 4096 / window; round++) {
+            long start = offset;
+            for (int i = 0; i < window; i++) tracker.track(offset++, this);
+            for (int i = 0; i < window; i++) tracker.complete(start + order[i], (handle, committable) -> commits++);
+        }
+        return commits;
+    }
+
+}
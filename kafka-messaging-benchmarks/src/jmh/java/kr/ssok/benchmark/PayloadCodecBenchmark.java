@@ -0,0 +1,60 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.model.PayloadCodec;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 페이로드 형식별 메세지 크기와 직렬화/역직렬화 비용 (JSON: JsonUtil, binary: BinaryCodec)
+ * 메세지 크기(bytes)는 설정 단계에서 출력합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PayloadCodecBenchmark {
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    private boolean binary;
+    private TransferRequest request;
+    private TransferResponse response;
+    private byte[] requestBytes;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setup() {
+        binary = "binary".equals(codec);
+        request = Fixtures.transferRequest();
+        response = Fixtures.transferResponse();
+        requestBytes = PayloadCodec.encode(request, binary);
+        responseBytes = PayloadCodec.encode(response, binary);
+
+        System.out.printf("%n[PayloadCodecBenchmark] codec=%s, request=%d bytes, response=%d bytes%n",
+                codec, requestBytes.length, responseBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeRequest() {
+        return PayloadCodec.encode(request, binary);
+    }
+
+    @Benchmark
+    public TransferRequest decodeRequest() {
+        return PayloadCodec.decode(requestBytes, TransferRequest.class, binary);
+    }
+
+    @Benchmark
+    public byte[] encodeResponse() {
+        return PayloadCodec.encode(response, binary);
+    }
+
+    @Benchmark
+    public TransferResponse decodeResponse() {
+        return PayloadCodec.decode(responseBytes, TransferResponse.class, binary);
+    }
+
+}
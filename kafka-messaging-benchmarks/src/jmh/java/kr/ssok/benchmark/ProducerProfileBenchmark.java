@@ -0,0 +1,85 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.model.JsonBytesSerializer;
+import kr.ssok.model.ProducerProfile;
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.Record;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프로듀서 프로필별 배치 생성 비용
+ * 프로듀서가 브로커로 보내기 전에 수행하는 레코드 배치 생성(압축 포함)을 프로필의 batch.size / compression.type으로 측정합니다.
+ *
+ * - LOW_LATENCY는 linger 0이므로 배치당 한 건, 나머지는 batch.size가 찰 때까지 모인다고 가정 (전송률이 충분히 높은 경우)
+ * - 보조 지표 records, wireBytes : 초당 레코드 수 / 전송 바이트 (압축률 비교)
+ * 브로커 왕복까지 포함한 비교는 loadTest의 --request-profile / --push-profile 옵션을 사용합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProducerProfileBenchmark {
+
+    @Param({"LOW_LATENCY", "HIGH_THROUGHPUT", "BULK"})
+    public String profile;
+
+    private Compression compression;
+    private ByteBuffer buffer;
+    private byte[][] keys;
+    private byte[] value;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long records;
+        public long wireBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+            wireBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        ProducerProfile producerProfile = ProducerProfile.valueOf(profile);
+        compression = Compression.of(CompressionType.forName(producerProfile.getCompressionType())).build();
+        buffer = ByteBuffer.allocate(producerProfile.getBatchSize());
+        value = JsonBytesSerializer.toBytes(Fixtures.transferRequest());
+
+        int recordsPerBatch = producerProfile.getLingerMs() == 0 ? 1 : producerProfile.getBatchSize() / value.length + 1;
+        keys = new byte[recordsPerBatch][];
+        for (int i = 0; i < recordsPerBatch; i++) {
+            keys[i] = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public int batch(Counters counters) {
+        buffer.clear();
+        MemoryRecordsBuilder builder = MemoryRecords.builder(buffer, compression, TimestampType.CREATE_TIME, 0L);
+
+        long timestamp = System.currentTimeMillis();
+        int appended = 0;
+        for (byte[] key : keys) {
+            if (appended > 0 && !builder.hasRoomFor(timestamp, key, value, Record.EMPTY_HEADERS)) break;
+            builder.append(timestamp, key, value);
+            appended++;
+        }
+
+        MemoryRecords records = builder.build();
+        counters.records += appended;
+        counters.wireBytes += records.sizeInBytes();
+        return records.sizeInBytes();
+    }
+
+}
@@ -0,0 +1,41 @@
+package kr.ssok.benchmark;
+
+import kr.ssok.kafka.messaging.client.comm.promise.PromiseMessage;
+import kr.ssok.model.JsonUtil;
+import kr.ssok.model.TransferResponse;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PromiseMessage.getDataObject 비용
+ * byte[] 응답(ByteArrayDeserializer)과 이전 방식의 이중 인코딩된 String 응답을 비교합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PromiseMessageBenchmark {
+
+    private ConsumerRecord<String, Object> bytesRecord;
+    private ConsumerRecord<String, Object> legacyRecord;
+
+    @Setup
+    public void setup() {
+        TransferResponse response = Fixtures.transferResponse();
+        bytesRecord = new ConsumerRecord<>(Fixtures.REPLY_TOPIC, 0, 0L, "key", JsonUtil.toJsonBytes(response));
+        // 이전 방식: JsonDeserializer가 이중 인코딩을 풀어서 넘겨준 JSON 문자열
+        legacyRecord = new ConsumerRecord<>(Fixtures.REPLY_TOPIC, 0, 0L, "key", JsonUtil.toJson(response));
+    }
+
+    @Benchmark
+    public TransferResponse bytes() {
+        return new PromiseMessage(bytesRecord).getDataObject(TransferResponse.class);
+    }
+
+    @Benchmark
+    public TransferResponse legacyString() {
+        return new PromiseMessage(legacyRecord).getDataObject(TransferResponse.class);
+    }
+
+}
@@ -0,0 +1,66 @@
+package kr.ssok.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import kr.ssok.kafka.messaging.server.ledger.LedgerEngine;
+import kr.ssok.kafka.messaging.server.snapshot.SnapshotManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스냅샷 저장/복원 시간 (계좌 100만개)
+ * 재기동 시간 = restore + 스냅샷 이후 저널 재생 시간이므로 누적 거래량과 관계없이 계좌 수에 비례합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SnapshotBenchmark {
+
+    private static final int ACCOUNTS = 1 << 20;
+
+    private Path directory;
+    private Journal journal;
+    private SnapshotManager snapshotManager;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        journal = Fixtures.journal(directory.resolve("journal"), "none");
+
+        LedgerEngine ledgerEngine = new LedgerEngine(ACCOUNTS, 3, new String[0]);
+        for (int i = 0; i < ACCOUNTS; i++) ledgerEngine.open(LedgerEngine.accountKey("110-" + i), 1_000_000_00L);
+
+        snapshotManager = snapshotManager(ledgerEngine);
+        snapshotManager.take();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        journal.destroy();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void take() throws IOException {
+        snapshotManager.take();
+    }
+
+    @Benchmark
+    public Object restore() {
+        // 새 원장에 최신 스냅샷을 복원 (기동시와 같은 경로)
+        return snapshotManager(new LedgerEngine(ACCOUNTS, 3, new String[0])).load();
+    }
+
+    private SnapshotManager snapshotManager(LedgerEngine ledgerEngine) {
+        return new SnapshotManager(ledgerEngine, journal, new SimpleMeterRegistry(),
+                true, directory.resolve("snapshot").toString(), 60, 2, 600, Fixtures.REQUEST_TOPIC);
+    }
+
+}
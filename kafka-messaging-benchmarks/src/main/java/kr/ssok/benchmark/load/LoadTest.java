@@ -0,0 +1,316 @@
+package kr.ssok.benchmark.load;
+
+import kr.ssok.kafka.messaging.client.KafkaMessagingClientApplication;
+import kr.ssok.kafka.messaging.client.comm.KafkaCommModule;
+import kr.ssok.kafka.messaging.client.service.OpenBankingService;
+import kr.ssok.kafka.messaging.server.KafkaMessagingServerApplication;
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.util.FileSystemUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 종단간 부하 테스트
+ * 임베디드 카프카 위에 서버/클라이언트 애플리케이션을 함께 띄우고 OpenBankingService와 같은 방식으로 KafkaCommModule을 고정 속도로 호출합니다.
+ * 타임아웃은 프로미스 Future의 KafkaReplyTimeoutException으로 세므로 reply-correlation(engine, template)과 관계없이 집계됩니다.
+ *
+ * gradlew.bat :kafka-messaging-benchmarks:loadTest -PloadArgs="--scenario=transfer --rates=500,1000,2000 --duration=30"
+ *
+ * 옵션
+ * --scenario          transfer (processTransfer_1처럼 get()으로 대기) | transfer-async (processTransferAsync처럼 getAsync)
+ *                     | push (sendUnidirectionalMessage)
+ *                     | withdraw (KafkaCommModule REQUEST_WITHDRAW, 비동기)
+ * --rates             초당 요청 수 목록 (쉼표 구분, 순서대로 실행)
+ * --duration          속도별 측정 시간 (초)
+ * --warmup            측정 전 예열 시간 (초, 첫번째 속도로 실행)
+ * --threads           transfer 시나리오의 호출 스레드 수
+ * --reply-mode        서버 spring.kafka.reply-mode
+ * --reply-correlation 클라이언트 spring.kafka.reply-correlation
+ * --request-profile   클라이언트 프로미스 요청 프로듀서 프로필 (low-latency | high-throughput | bulk)
+ * --push-profile      클라이언트 단방향 메세지 프로듀서 프로필
+ * --reply-profile     서버 응답 프로듀서 프로필
+ * --adaptive-producer 클라이언트 적응형 프로듀서 프로필 (true | false)
+ * --journal-fsync     서버 저널 fsync 정책 (always | interval | none, 저널/스냅샷은 임시 디렉토리에 기록)
+ * --snapshot-interval 서버 스냅샷 주기 (초)
+ * --accounts          입금 계좌 수 (요청마다 임의로 선택)
+ * --routing           클라이언트 라우팅 키 전략 (account | random)
+ * --partitioner       클라이언트 파티셔너 (consistent-hash | default)
+ * --payload-codec     클라이언트 요청 페이로드 형식 (json | binary)
+ * --request-concurrency 서버 요청 컨슈머 스레드 수
+ * --parallel-max-in-flight parallel 모드 파티션별 최대 동시 처리 수
+ * --priority-lanes    우선순위 레인 사용 (true | false, 출금 HIGH / 테스트 메세지 LOW)
+ * --background-rate   측정 중에 함께 보내는 초당 배경 부하 수 (입금 요청과 테스트 메세지를 반씩, 측정 대상 아님)
+ */
+public class LoadTest {
+
+    private static final long DRAIN_TIMEOUT_MILLIS = 35_000;
+
+    // 계좌 초기 잔액 (withdraw 시나리오가 잔액 부족으로 실패하지 않도록)
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String scenario = options.getOrDefault("scenario", "transfer");
+        int[] rates = Arrays.stream(options.getOrDefault("rates", "500,1000,2000").split(","))
+                .mapToInt(r -> Integer.parseInt(r.trim())).toArray();
+        long duration = Long.parseLong(options.getOrDefault("duration", "30"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "512"));
+        String[] accounts = accounts(Integer.parseInt(options.getOrDefault("accounts", "64")));
+        boolean priorityLanes = Boolean.parseBoolean(options.getOrDefault("priority-lanes", "false"));
+        int backgroundRate = Integer.parseInt(options.getOrDefault("background-rate", "0"));
+
+        String[] topics = priorityLanes
+                ? new String[]{"request-topic", "request-topic-high", "request-topic-low", "push-topic", "push-topic-high", "push-topic-low"}
+                : new String[]{"request-topic", "push-topic"};
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 3, topics);
+        broker.afterPropertiesSet();
+
+        Path dataDirectory = Files.createTempDirectory("load-test-data");
+        ConfigurableApplicationContext server = null;
+        ConfigurableApplicationContext client = null;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicBoolean backgroundRunning = new AtomicBoolean();
+        Thread background = null;
+        try {
+            List<String> common = commonArgs(broker.getBrokersAsString());
+
+            List<String> serverArgs = new ArrayList<>(common);
+            serverArgs.add("--spring.kafka.reply-mode=" + options.getOrDefault("reply-mode", "record"));
+            serverArgs.add("--spring.kafka.producer-profile.reply=" + options.getOrDefault("reply-profile", "low-latency"));
+            // transferRequest()의 입금 계좌 (withdraw 시나리오의 출금 계좌)
+            serverArgs.add("--bank.ledger.accounts=" + String.join(",", Arrays.stream(accounts).map(a -> a + ":" + INITIAL_BALANCE).toList()));
+            serverArgs.add("--bank.ledger.partitions=3");
+            serverArgs.add("--spring.kafka.request-concurrency=" + options.getOrDefault("request-concurrency", "3"));
+            serverArgs.add("--bank.parallel.max-in-flight=" + options.getOrDefault("parallel-max-in-flight", "1000"));
+            serverArgs.add("--bank.journal.dir=" + dataDirectory.resolve("journal"));
+            serverArgs.add("--bank.snapshot.dir=" + dataDirectory.resolve("snapshot"));
+            serverArgs.add("--bank.snapshot.interval-seconds=" + options.getOrDefault("snapshot-interval", "60"));
+            serverArgs.add("--bank.journal.fsync=" + options.getOrDefault("journal-fsync", "interval"));
+            serverArgs.add("--bank.priority.enabled=" + priorityLanes);
+            server = new SpringApplicationBuilder(KafkaMessagingServerApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(serverArgs.toArray(String[]::new));
+
+            List<String> clientArgs = new ArrayList<>(common);
+            clientArgs.add("--spring.kafka.reply-correlation=" + options.getOrDefault("reply-correlation", "engine"));
+            clientArgs.add("--spring.kafka.producer-profile.request=" + options.getOrDefault("request-profile", "low-latency"));
+            clientArgs.add("--spring.kafka.producer-profile.push=" + options.getOrDefault("push-profile", "high-throughput"));
+            clientArgs.add("--spring.kafka.producer-profile.adaptive.enabled=" + options.getOrDefault("adaptive-producer", "false"));
+            clientArgs.add("--spring.kafka.request-topic-partitions=3");
+            clientArgs.add("--spring.kafka.routing.strategy=" + options.getOrDefault("routing", "account"));
+            clientArgs.add("--spring.kafka.routing.partitioner=" + options.getOrDefault("partitioner", "consistent-hash"));
+            clientArgs.add("--spring.kafka.payload-codec=" + options.getOrDefault("payload-codec", "json"));
+            clientArgs.add("--spring.kafka.priority.enabled=" + priorityLanes);
+            clientArgs.add("--spring.kafka.priority.high=" + CommunicationProtocol.REQUEST_WITHDRAW);
+            clientArgs.add("--spring.kafka.priority.low=" + CommunicationProtocol.SEND_TEST_MESSAGE);
+            client = new SpringApplicationBuilder(KafkaMessagingClientApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(clientArgs.toArray(String[]::new));
+
+            OpenBankingService service = client.getBean(OpenBankingService.class);
+            KafkaCommModule commModule = client.getBean(KafkaCommModule.class);
+
+            Supplier<CompletableFuture<OpenLoopDriver.Outcome>> call = scenario(scenario, service, commModule, accounts);
+            OpenLoopDriver driver = new OpenLoopDriver("transfer".equals(scenario) ? executor : null);
+
+            if (backgroundRate > 0) {
+                backgroundRunning.set(true);
+                background = startBackground(backgroundRate, service, accounts, backgroundRunning);
+            }
+
+            System.out.printf("[LoadTest] scenario=%s, warmup=%ds at %d req/s, priority lanes=%s, background=%d/s%n",
+                    scenario, warmup, rates[0], priorityLanes, backgroundRate);
+            if (warmup > 0) driver.run(rates[0], warmup, TimeUnit.SECONDS, call, DRAIN_TIMEOUT_MILLIS);
+
+            List<OpenLoopDriver.Result> results = new ArrayList<>();
+            for (int rate : rates) {
+                OpenLoopDriver.Result result = driver.run(rate, duration, TimeUnit.SECONDS, call, DRAIN_TIMEOUT_MILLIS);
+                results.add(result);
+                print(result);
+            }
+
+            printSummary(scenario, results);
+        } finally {
+            backgroundRunning.set(false);
+            if (background != null) background.join();
+            executor.shutdownNow();
+            if (client != null) client.close();
+            if (server != null) server.close();
+            broker.destroy();
+            FileSystemUtils.deleteRecursively(dataDirectory);
+        }
+    }
+
+    private static Supplier<CompletableFuture<OpenLoopDriver.Outcome>> scenario(String scenario, OpenBankingService service,
+                                                                               KafkaCommModule commModule, String[] accounts) {
+        switch (scenario) {
+            // OpenBankingService는 실패를 FAILED 응답으로 바꾸므로 타임아웃을 구분할 수 있도록 KafkaCommModule을 직접 호출
+            case "transfer":
+                return () -> {
+                    try {
+                        return CompletableFuture.completedFuture(outcome(commModule
+                                .sendPromiseQuery(CommunicationProtocol.REQUEST_DEPOSIT, transferRequest(accounts), 30)
+                                .get().getDataObject(TransferResponse.class)));
+                    } catch (Exception e) {
+                        return CompletableFuture.completedFuture(outcome(e));
+                    }
+                };
+            case "transfer-async":
+                return () -> commModule.sendPromiseQuery(CommunicationProtocol.REQUEST_DEPOSIT, transferRequest(accounts), 30)
+                        .getAsync(TransferResponse.class)
+                        .handle(LoadTest::outcome);
+            case "push":
+                // 단방향 메세지는 전송 요청(send) 호출까지의 지연시간을 측정
+                return () -> {
+                    service.sendUnidirectionalMessage("load-test");
+                    return CompletableFuture.completedFuture(OpenLoopDriver.Outcome.SUCCESS);
+                };
+            case "withdraw":
+                return () -> commModule.sendPromiseQuery(CommunicationProtocol.REQUEST_WITHDRAW, withdrawRequest(accounts), 30)
+                        .getAsync(TransferResponse.class)
+                        .handle(LoadTest::outcome);
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    /**
+     * 배경 부하 (입금 요청과 테스트 메세지를 반씩)
+     * 측정과 별도로 1초 단위로 발생시키며, 응답은 기다리지 않고 지연시간도 기록하지 않습니다.
+     */
+    private static Thread startBackground(int rate, OpenBankingService service, String[] accounts, AtomicBoolean running) {
+        Supplier<CompletableFuture<OpenLoopDriver.Outcome>> call = () -> {
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                service.sendUnidirectionalMessage("load-test background");
+                return CompletableFuture.completedFuture(OpenLoopDriver.Outcome.SUCCESS);
+            }
+            return service.processTransferAsync(transferRequest(accounts)).thenApply(LoadTest::outcome);
+        };
+
+        Thread thread = new Thread(() -> {
+            OpenLoopDriver driver = new OpenLoopDriver(null);
+            while (running.get()) driver.run(rate, 1, TimeUnit.SECONDS, call, 0);
+        }, "load-test-background");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static OpenLoopDriver.Outcome outcome(TransferResponse response) {
+        return response != null && response.getStatus() == TransferStatus.SUCCESS
+                ? OpenLoopDriver.Outcome.SUCCESS : OpenLoopDriver.Outcome.FAILED;
+    }
+
+    private static OpenLoopDriver.Outcome outcome(TransferResponse response, Throwable throwable) {
+        return throwable == null ? outcome(response) : outcome(throwable);
+    }
+
+    // 응답 타임아웃(KafkaReplyTimeoutException, 호출자 타임아웃)과 그 외 실패를 구분
+    private static OpenLoopDriver.Outcome outcome(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null)
+            cause = cause.getCause();
+        return cause instanceof KafkaReplyTimeoutException || cause instanceof TimeoutException
+                ? OpenLoopDriver.Outcome.TIMEOUT : OpenLoopDriver.Outcome.FAILED;
+    }
+
+    // 입금 계좌 (계좌별로 파티션이 나뉘도록 여러 계좌에 분산)
+    private static String[] accounts(int count) {
+        String[] accounts = new String[count];
+        for (int i = 0; i < count; i++) accounts[i] = String.format("3333-01-%07d", 1234567 + i);
+        return accounts;
+    }
+
+    private static TransferRequest withdrawRequest(String[] accounts) {
+        return TransferRequest.builder()
+                .fromAccount(accounts[ThreadLocalRandom.current().nextInt(accounts.length)])
+                .toAccount("110-234-567890")
+                .amount(new BigDecimal("10000"))
+                .currency("KRW")
+                .description("load test")
+                .build();
+    }
+
+    // OpenBankingService처럼 요청 ID와 요청 시간을 채움
+    private static TransferRequest transferRequest(String[] accounts) {
+        return TransferRequest.builder()
+                .requestId(UUID.randomUUID().toString())
+                .requestTime(LocalDateTime.now())
+                .fromAccount("110-234-567890")
+                .toAccount(accounts[ThreadLocalRandom.current().nextInt(accounts.length)])
+                .amount(new BigDecimal("10000"))
+                .currency("KRW")
+                .description("load test")
+                .build();
+    }
+
+    // 각 모듈의 application.yml 대신 부하 테스트용 설정만 사용
+    private static List<String> commonArgs(String bootstrapServers) {
+        return new ArrayList<>(List.of(
+                "--spring.config.name=loadtest",
+                "--spring.kafka.bootstrap-servers=" + bootstrapServers,
+                "--spring.kafka.request-topic=request-topic",
+                "--spring.kafka.reply-topic=reply-topic",
+                "--spring.kafka.push-topic=push-topic",
+                "--spring.cloud.config.enabled=false",
+                "--spring.cloud.config.import-check.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        ));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) continue;
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static void print(OpenLoopDriver.Result result) {
+        System.out.printf("[LoadTest] rate=%d req/s: sent=%d, ok=%d, failed=%d (timeouts=%d), unfinished=%d, "
+                        + "throughput=%.1f/s, p50=%.2fms, p99=%.2fms, p99.9=%.2fms, max=%.2fms%n",
+                result.targetRate(), result.sent(), result.succeeded(), result.failed(), result.timedOut(), result.unfinished(),
+                result.throughput(), result.percentileMillis(50), result.percentileMillis(99),
+                result.percentileMillis(99.9), result.maxMillis());
+    }
+
+    private static void printSummary(String scenario, List<OpenLoopDriver.Result> results) {
+        System.out.println();
+        System.out.println("[LoadTest] " + scenario);
+        System.out.printf("%10s %10s %12s %10s %10s %10s %10s %10s%n",
+                "rate", "achieved", "throughput", "p50(ms)", "p99(ms)", "p99.9(ms)", "timeouts", "failed");
+        for (int i = 0; i < results.size(); i++) {
+            OpenLoopDriver.Result r = results.get(i);
+            System.out.printf("%10d %10.1f %12.1f %10.2f %10.2f %10.2f %10d %10d%n",
+                    r.targetRate(), r.achievedRate(), r.throughput(), r.percentileMillis(50),
+                    r.percentileMillis(99), r.percentileMillis(99.9), r.timedOut(), r.failed());
+        }
+    }
+
+}
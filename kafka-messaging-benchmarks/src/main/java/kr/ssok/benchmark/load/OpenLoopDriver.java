@@ -0,0 +1,131 @@
+package kr.ssok.benchmark.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 고정 속도(open-loop) 부하 발생기
+ * 응답 여부와 관계없이 예정된 시각마다 요청을 발생시키고, 지연시간은 예정 시각부터 완료 시각까지로 기록합니다.
+ * (처리가 밀리면 대기 시간까지 지연시간에 포함되므로 coordinated omission이 생기지 않음)
+ */
+public class OpenLoopDriver {
+
+    /**
+     * 요청 하나의 처리 결과
+     */
+    public enum Outcome {
+        SUCCESS,
+        FAILED,
+        // 응답을 기다리다 타임아웃 (실패 수에도 포함)
+        TIMEOUT
+    }
+
+    private final ExecutorService executor;
+
+    /**
+     * @param executor 블로킹 호출을 실행할 스레드 풀, null이면 발생 스레드에서 직접 호출 (비동기 호출용)
+     */
+    public OpenLoopDriver(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param rate     초당 요청 수
+     * @param duration 측정 시간
+     * @param unit     측정 시간 단위
+     * @param call     요청 (완료시 Outcome을 반환하는 Future)
+     * @param drainTimeoutMillis 측정 종료 후 남은 응답을 기다릴 최대 시간
+     * @return 측정 결과
+     */
+    public Result run(int rate, long duration, TimeUnit unit, Supplier<CompletableFuture<Outcome>> call,
+                      long drainTimeoutMillis) {
+        Recorder recorder = new Recorder(3);
+        LongAdder succeeded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder timedOut = new LongAdder();
+        AtomicLong outstanding = new AtomicLong();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long count = unit.toSeconds(duration) * rate;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < count; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            outstanding.incrementAndGet();
+            Runnable request = () -> {
+                CompletableFuture<Outcome> future;
+                try {
+                    future = call.get();
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.completedFuture(Outcome.FAILED);
+                }
+                future.whenComplete((outcome, throwable) -> {
+                    recorder.recordValue(Math.max(0, System.nanoTime() - intended));
+                    if (throwable == null && outcome == Outcome.SUCCESS) succeeded.increment();
+                    else failed.increment();
+                    if (outcome == Outcome.TIMEOUT) timedOut.increment();
+                    outstanding.decrementAndGet();
+                });
+            };
+
+            if (executor == null) request.run();
+            else executor.execute(request);
+        }
+        long sendEnd = System.nanoTime();
+
+        // 남은 응답 대기
+        long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        long end = System.nanoTime();
+
+        return new Result(rate, count, succeeded.sum(), failed.sum(), timedOut.sum(), outstanding.get(),
+                sendEnd - start, end - start, recorder.getIntervalHistogram());
+    }
+
+    /**
+     * 측정 결과
+     *
+     * @param targetRate    목표 초당 요청 수
+     * @param sent          발생시킨 요청 수
+     * @param succeeded     성공 응답 수
+     * @param failed        실패 응답 수 (타임아웃 포함)
+     * @param timedOut      타임아웃 수
+     * @param unfinished    대기 시간 내에 끝나지 않은 요청 수
+     * @param sendNanos     요청 발생에 걸린 시간
+     * @param elapsedNanos  마지막 응답까지 걸린 시간
+     * @param latency       지연시간 히스토그램 (ns)
+     */
+    public record Result(int targetRate, long sent, long succeeded, long failed, long timedOut, long unfinished,
+                         long sendNanos, long elapsedNanos, Histogram latency) {
+
+        public double achievedRate() {
+            return sent / (sendNanos / 1e9);
+        }
+
+        public double throughput() {
+            return (succeeded + failed) / (elapsedNanos / 1e9);
+        }
+
+        public double percentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        public double maxMillis() {
+            return latency.getMaxValue() / 1e6;
+        }
+    }
+
+}
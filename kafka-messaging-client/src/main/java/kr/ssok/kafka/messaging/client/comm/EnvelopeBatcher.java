@@ -0,0 +1,200 @@
+package kr.ssok.kafka.messaging.client.comm;
+
+import kr.ssok.kafka.messaging.client.comm.correlation.CorrelationEngine;
+import kr.ssok.kafka.messaging.client.comm.correlation.PendingReply;
+import kr.ssok.kafka.messaging.client.comm.metrics.CommandMeters;
+import kr.ssok.kafka.messaging.client.comm.metrics.CommMetrics;
+import kr.ssok.kafka.messaging.client.comm.producer.ProducerPath;
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.EnvelopeCodec;
+import kr.ssok.model.EnvelopeEntry;
+import kr.ssok.model.MessageHeaders;
+import kr.ssok.model.PayloadCodec;
+import kr.ssok.model.RoutingKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프로미스 쿼리 봉투 배처
+ * 같은 파티션으로 가는 프로미스 쿼리를 짧은 시간창(window) 동안 모아 하나의 봉투 레코드로 전송합니다.
+ *
+ * - 파티션은 프로듀서 파티셔너와 같은 방식으로 결정 (일관 해시 또는 기본 파티셔너의 murmur2, 키 단위 순서가 유지됨)
+ * - 항목 수 / 바이트 상한에 도달하면 시간창과 관계없이 즉시 전송
+ * - 각 항목은 CorrelationEngine에 개별 등록되며, 응답도 봉투로 받아 항목별로 완료됩니다.
+ * - 봉투의 처리 기한(DEADLINE)은 항목 중 가장 늦은 기한 (항목별 타임아웃은 CorrelationEngine이 관리)
+ * - binaryPayload이면 항목을 바이너리 코덱으로 직렬화하고 봉투에 CONTENT_TYPE 헤더를 붙임
+ */
+@Slf4j
+public class EnvelopeBatcher {
+
+    private static final byte[] ENVELOPE_CMD = CommunicationProtocol.ENVELOPE.getBytes(StandardCharsets.UTF_8);
+
+    private final ProducerPath producer;
+    private final CorrelationEngine correlationEngine;
+    private final CommandMeters envelopeMeters;
+    private final String requestTopic;
+    private final ReplyAddress replyAddress;
+    private final int maxEntries;
+    private final int maxBytes;
+    private final boolean consistentHash;
+    private final boolean binaryPayload;
+
+    private final ScheduledExecutorService flusher;
+    private volatile Batch[] batches;
+
+    public EnvelopeBatcher(ProducerPath producer, CorrelationEngine correlationEngine,
+                           CommMetrics commMetrics, ReplyAddress replyAddress, String requestTopic, long windowMillis, int maxEntries, int maxBytes,
+                           boolean consistentHash, boolean binaryPayload) {
+        this.producer = producer;
+        this.correlationEngine = correlationEngine;
+        this.envelopeMeters = commMetrics.promise(CommunicationProtocol.ENVELOPE);
+        this.requestTopic = requestTopic;
+        this.replyAddress = replyAddress;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.consistentHash = consistentHash;
+        this.binaryPayload = binaryPayload;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "comm-envelope-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushAll, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 프로미스 쿼리를 봉투에 추가합니다.
+     *
+     * @param key     메세지 키 (파티션 결정)
+     * @param cmd     CMD
+     * @param request 요청 객체
+     * @param pending  CorrelationEngine에 등록된 대기 요청
+     * @param deadline 처리 기한 (epoch millis)
+     */
+    public void add(String key, String cmd, Object request, PendingReply pending, long deadline) {
+        EnvelopeEntry entry = new EnvelopeEntry(pending.getCorrelationId(),
+                cmd.getBytes(StandardCharsets.UTF_8), PayloadCodec.encode(request, binaryPayload));
+
+        Batch batch = batchOf(key);
+        List<EnvelopeEntry> entries = null;
+        List<PendingReply> pendings = null;
+        long envelopeDeadline = 0;
+
+        synchronized (batch) {
+            batch.entries.add(entry);
+            batch.pendings.add(pending);
+            batch.bytes += EnvelopeCodec.sizeOf(entry);
+            batch.deadline = Math.max(batch.deadline, deadline);
+
+            if (batch.entries.size() >= maxEntries || batch.bytes >= maxBytes) {
+                entries = batch.entries;
+                pendings = batch.pendings;
+                envelopeDeadline = batch.deadline;
+                batch.reset();
+            }
+        }
+
+        if (entries != null) send(batch.partition, entries, pendings, envelopeDeadline);
+    }
+
+    /**
+     * 모아둔 봉투를 모두 전송하고 배처를 종료합니다.
+     */
+    public void close() {
+        flusher.shutdown();
+        flushAll();
+    }
+
+    private void flushAll() {
+        Batch[] current = batches;
+        if (current == null) return;
+
+        for (Batch batch : current) {
+            List<EnvelopeEntry> entries;
+            List<PendingReply> pendings;
+            long deadline;
+            synchronized (batch) {
+                if (batch.entries.isEmpty()) continue;
+                entries = batch.entries;
+                pendings = batch.pendings;
+                deadline = batch.deadline;
+                batch.reset();
+            }
+            send(batch.partition, entries, pendings, deadline);
+        }
+    }
+
+    private void send(int partition, List<EnvelopeEntry> entries, List<PendingReply> pendings, long deadline) {
+        try {
+            ProducerRecord<String, Object> record =
+                    new ProducerRecord<>(requestTopic, partition, null, EnvelopeCodec.encode(entries));
+            record.headers().add("CMD", ENVELOPE_CMD);
+            replyAddress.addHeaders(record.headers(), true);
+            record.headers().add(MessageHeaders.DEADLINE, MessageHeaders.toBytes(deadline));
+            if (binaryPayload) PayloadCodec.markBinary(record.headers());
+
+            long start = System.nanoTime();
+            this.producer.send(record).whenComplete((result, throwable) -> {
+                envelopeMeters.onSent(start, result, throwable);
+                if (throwable != null) failAll(pendings, throwable);
+            });
+        } catch (RuntimeException e) {
+            failAll(pendings, e);
+        }
+    }
+
+    private void failAll(List<PendingReply> pendings, Throwable cause) {
+        log.error("[EnvelopeBatcher] 봉투 전송 실패 ({}건)", pendings.size(), cause);
+        for (PendingReply pending : pendings) correlationEngine.fail(pending, cause);
+    }
+
+    private Batch batchOf(String key) {
+        Batch[] current = batches;
+        if (current == null) current = initBatches();
+
+        if (key == null) return current[(int) (Thread.currentThread().getId() % current.length)];
+        if (consistentHash) return current[RoutingKeys.partition(key, current.length)];
+        return current[Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % current.length];
+    }
+
+    // 최초 전송시 요청 토픽의 파티션 수를 조회하여 파티션별 배치를 만듦
+    private synchronized Batch[] initBatches() {
+        if (batches == null) {
+            int partitions = producer.partitionsFor(requestTopic).size();
+            Batch[] created = new Batch[partitions];
+            for (int i = 0; i < partitions; i++) created[i] = new Batch(i);
+            batches = created;
+            log.info("[EnvelopeBatcher] {} partitions of {}", partitions, requestTopic);
+        }
+        return batches;
+    }
+
+    private static final class Batch {
+        private final int partition;
+        private List<EnvelopeEntry> entries = new ArrayList<>();
+        private List<PendingReply> pendings = new ArrayList<>();
+        private int bytes;
+        private long deadline;
+
+        Batch(int partition) {
+            this.partition = partition;
+        }
+
+        void reset() {
+            entries = new ArrayList<>();
+            pendings = new ArrayList<>();
+            bytes = 0;
+            deadline = 0;
+        }
+    }
+
+}
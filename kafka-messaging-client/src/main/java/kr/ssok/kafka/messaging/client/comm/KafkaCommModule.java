@@ -80,6 +80,7 @@ public interface KafkaCommModule {
 
     /**
      * ReplyingKafkaTemplate을 반환합니다.
+     * engine 모드에서는 처음 호출할 때 응답 컨테이너를 시작합니다. (CorrelationEngine과 별도로 응답 파티션을 읽음)
      *
      * @return ReplyingKafkaTemplate
      */
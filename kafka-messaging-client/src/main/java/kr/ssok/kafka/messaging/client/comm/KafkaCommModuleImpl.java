@@ -1,15 +1,24 @@
 package kr.ssok.kafka.messaging.client.comm;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kr.ssok.kafka.messaging.client.comm.correlation.CorrelationEngine;
+import kr.ssok.kafka.messaging.client.comm.correlation.PendingReply;
+import kr.ssok.kafka.messaging.client.comm.metrics.CommandMeters;
+import kr.ssok.kafka.messaging.client.comm.metrics.CommMetrics;
+import kr.ssok.kafka.messaging.client.comm.priority.CommandPriorities;
+import kr.ssok.kafka.messaging.client.comm.producer.ProducerPath;
 import kr.ssok.kafka.messaging.client.comm.promise.CommQueryPromise;
-import kr.ssok.model.JsonUtil;
+import kr.ssok.kafka.messaging.client.comm.routing.RoutingKeyStrategy;
+import kr.ssok.model.MessageHeaders;
+import kr.ssok.model.PriorityLane;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
 import org.springframework.kafka.requestreply.RequestReplyFuture;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +26,8 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 @Slf4j
@@ -25,7 +36,24 @@ import java.util.function.BiConsumer;
 public class KafkaCommModuleImpl implements KafkaCommModule {
     private final ReplyingKafkaTemplate<String, Object, Object> replyingKafkaTemplate;
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    // 전송 경로별 프로듀서 (spring.kafka.producer-profile.*)
+    private final ProducerPath requestProducer;
+
+    private final ProducerPath envelopeProducer;
+
+    private final ProducerPath pushProducer;
+
+    private final CorrelationEngine correlationEngine;
+
+    private final CommMetrics commMetrics;
+
+    private final ReplyAddress replyAddress;
+
+    // 키를 지정하지 않은 전송의 메세지 키 (spring.kafka.routing.strategy)
+    private final RoutingKeyStrategy routingKeyStrategy;
+
+    // 명령별 우선순위 레인 토픽 (spring.kafka.priority.*)
+    private final CommandPriorities commandPriorities;
 
     @Value("${spring.kafka.request-topic}")
     private String requestTopic;
@@ -33,9 +61,48 @@ public class KafkaCommModuleImpl implements KafkaCommModule {
     @Value("${spring.kafka.push-topic}")
     private String pushTopic;
 
+    @Value("${spring.kafka.reply-correlation:engine}")
+    private String replyCorrelation;
+
+    // 봉투 전송 (engine 모드에서만 사용)
+    @Value("${spring.kafka.envelope.enabled:false}")
+    private boolean envelopeEnabled;
+
+    @Value("${spring.kafka.envelope.window-ms:2}")
+    private long envelopeWindowMs;
+
+    @Value("${spring.kafka.envelope.max-entries:100}")
+    private int envelopeMaxEntries;
+
+    @Value("${spring.kafka.envelope.max-bytes:524288}")
+    private int envelopeMaxBytes;
+
+    // 봉투의 파티션을 프로듀서 파티셔너와 같은 방식으로 계산
+    @Value("${spring.kafka.routing.partitioner:consistent-hash}")
+    private String routingPartitioner;
+
+    // 봉투 항목의 페이로드 형식 (프로듀서의 PayloadSerializer와 같은 설정)
+    @Value("${spring.kafka.payload-codec:json}")
+    private String payloadCodec;
+
+    private EnvelopeBatcher envelopeBatcher;
+
     @PostConstruct
     public void init() {
-        replyingKafkaTemplate.start();
+        if (isEngineMode()) {
+            if (envelopeEnabled) {
+                envelopeBatcher = new EnvelopeBatcher(envelopeProducer, correlationEngine, commMetrics, replyAddress, requestTopic,
+                        envelopeWindowMs, envelopeMaxEntries, envelopeMaxBytes, "consistent-hash".equals(routingPartitioner),
+                        "binary".equals(payloadCodec));
+            }
+        } else {
+            replyingKafkaTemplate.start();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (envelopeBatcher != null) envelopeBatcher.close();
     }
 
     @Override
@@ -45,22 +112,83 @@ public class KafkaCommModuleImpl implements KafkaCommModule {
 
     @Override
     public CommQueryPromise sendPromiseQuery(String cmd, Object request, int timeout) {
-        String msgKey = UUID.randomUUID().toString();
-        return this.sendPromiseQuery(msgKey, cmd, request, timeout);
+        return this.sendPromiseQuery(keyOf(cmd, request), cmd, request, timeout);
     }
 
     @Override
     public CommQueryPromise sendPromiseQuery(String key, String cmd, Object request, int timeout) {
+        // 봉투는 기존 요청 토픽(NORMAL 레인)으로만 전송, 다른 레인의 요청은 시간창을 기다리지 않고 레인 토픽으로 바로 전송
+        PriorityLane lane = commandPriorities.laneOf(cmd);
+        if (envelopeBatcher != null && lane == PriorityLane.NORMAL) return this.sendEnvelopeQuery(key, cmd, request, timeout);
+
         ProducerRecord<String, Object> record =
-                new ProducerRecord<>(requestTopic, key , request instanceof String ? request : JsonUtil.toJson(request));
+                new ProducerRecord<>(lane.topic(requestTopic), key, request);
         record.headers().add("CMD", cmd.getBytes(StandardCharsets.UTF_8));
+        // 타임아웃이 지난 요청은 서버에서 처리하지 않도록 처리 기한을 전달
+        record.headers().add(MessageHeaders.DEADLINE, MessageHeaders.toBytes(deadlineOf(timeout)));
 
         log.info("Sending Promise Request: {}", request);
 
-        RequestReplyFuture<String, Object, Object> future =
-                this.replyingKafkaTemplate.sendAndReceive(record, Duration.ofSeconds(timeout));
+        CommandMeters meters = this.commMetrics.promise(cmd);
+        long start = System.nanoTime();
+
+        if (!isEngineMode()) {
+            // REPLY_TOPIC 헤더는 ReplyingKafkaTemplate이 추가함
+            replyAddress.addHeaders(record.headers(), false);
+            RequestReplyFuture<String, Object, Object> future =
+                    this.replyingKafkaTemplate.sendAndReceive(record, Duration.ofSeconds(timeout));
+            meters.onQuery();
+            future.getSendFuture().whenComplete((result, throwable) -> meters.onSent(start, result, throwable));
+            future.whenComplete((result, throwable) -> meters.onReply(start, throwable));
+            return new CommQueryPromise(future);
+        }
+
+        PendingReply pending;
+        try {
+            pending = this.correlationEngine.register(timeout, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            // 동시 대기 요청 상한 초과시 전송하지 않고 즉시 실패
+            meters.onRejected();
+            return new CommQueryPromise(CompletableFuture.failedFuture(e));
+        }
+
+        replyAddress.addHeaders(record.headers(), true);
+        record.headers().add(KafkaHeaders.CORRELATION_ID, pending.getCorrelationIdBytes());
+
+        meters.onQuery();
+        pending.getFuture().whenComplete((result, throwable) -> meters.onReply(start, throwable));
+
+        this.requestProducer.send(record).whenComplete((result, throwable) -> {
+            meters.onSent(start, result, throwable);
+            if (throwable != null) this.correlationEngine.fail(pending, throwable);
+        });
+
+        return new CommQueryPromise(pending.getFuture());
+    }
 
-        return new CommQueryPromise(future);
+    /**
+     * 프로미스 쿼리를 봉투에 담아 전송합니다. (spring.kafka.envelope.enabled=true)
+     * 응답 대기/타임아웃은 개별 요청 단위로 CorrelationEngine이 관리합니다.
+     */
+    private CommQueryPromise sendEnvelopeQuery(String key, String cmd, Object request, int timeout) {
+        CommandMeters meters = this.commMetrics.promise(cmd);
+        long start = System.nanoTime();
+
+        PendingReply pending;
+        try {
+            pending = this.correlationEngine.register(timeout, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            meters.onRejected();
+            return new CommQueryPromise(CompletableFuture.failedFuture(e));
+        }
+
+        meters.onQuery();
+        pending.getFuture().whenComplete((result, throwable) -> meters.onReply(start, throwable));
+
+        log.debug("Adding Promise Request to envelope: {}", request);
+        this.envelopeBatcher.add(key, cmd, request, pending, deadlineOf(timeout));
+
+        return new CommQueryPromise(pending.getFuture());
     }
 
     @Override
@@ -70,24 +198,56 @@ public class KafkaCommModuleImpl implements KafkaCommModule {
 
     @Override
     public Message sendMessage(String cmd, Object request, BiConsumer<? super SendResult<String, Object>, ? super Throwable> callback) {
-        String msgKey = UUID.randomUUID().toString();
-        return this.sendMessage(msgKey, cmd, request, callback);
+        return this.sendMessage(keyOf(cmd, request), cmd, request, callback);
     }
 
     @Override
     public Message sendMessage(String key, String cmd, Object request, BiConsumer<? super SendResult<String, Object>, ? super Throwable> callback) {
         ProducerRecord<String, Object> record =
-                new ProducerRecord<>(pushTopic, key, request instanceof String ? request : JsonUtil.toJson(request));
+                new ProducerRecord<>(commandPriorities.topicOf(pushTopic, cmd), key, request);
         record.headers().add("CMD", cmd.getBytes(StandardCharsets.UTF_8));
 
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(record);
+        CommandMeters meters = this.commMetrics.message(cmd);
+        long start = System.nanoTime();
+
+        CompletableFuture<SendResult<String, Object>> future = pushProducer.send(record);
+        future.whenComplete((result, throwable) -> meters.onSent(start, result, throwable));
 
         return new Message(future, callback);
     }
 
     @Override
     public ReplyingKafkaTemplate<String, Object, Object> getReplyingKafkaTemplate() {
+        // engine 모드에서는 처음 사용할 때 시작 (CorrelationEngine과 같은 응답 파티션을 별도 컨슈머로 읽음)
+        if (!replyingKafkaTemplate.isRunning()) startReplyingKafkaTemplate();
         return replyingKafkaTemplate;
     }
 
+    private synchronized void startReplyingKafkaTemplate() {
+        if (replyingKafkaTemplate.isRunning()) return;
+
+        replyingKafkaTemplate.start();
+        try {
+            // 응답 컨테이너는 마지막 오프셋부터 읽으므로 파티션 할당 전에 도착한 응답을 놓치지 않도록 대기
+            if (!replyingKafkaTemplate.waitForAssignment(Duration.ofSeconds(10)))
+                log.warn("[KafkaCommModule] ReplyingKafkaTemplate 응답 파티션 할당을 기다리지 못했습니다.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 라우팅 키 (없으면 무작위 UUID)
+    private String keyOf(String cmd, Object request) {
+        String key = routingKeyStrategy.routingKey(cmd, request);
+        return key != null ? key : UUID.randomUUID().toString();
+    }
+
+    private static long deadlineOf(int timeout) {
+        return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeout);
+    }
+
+    private boolean isEngineMode() {
+        return "engine".equals(replyCorrelation);
+    }
+
 }
@@ -0,0 +1,72 @@
+package kr.ssok.kafka.messaging.client.comm;
+
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 프로미스 쿼리 응답 주소
+ * 응답 토픽과, 공유 응답 토픽인 경우 이 인스턴스에 할당된 파티션을 가집니다.
+ * 요청마다 할당된 파티션을 순서대로 REPLY_PARTITION 헤더에 지정하여 응답 수신을 파티션 수만큼 분산합니다.
+ */
+public class ReplyAddress {
+
+    private final String topic;
+    private final int[] partitions;
+    private final byte[] topicBytes;
+    private final byte[][] partitionBytes;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param topic      응답 토픽
+     * @param partitions 할당된 파티션, 비어있으면 인스턴스 전용 토픽 (REPLY_PARTITION 헤더 없음)
+     */
+    public ReplyAddress(String topic, int[] partitions) {
+        this.topic = topic;
+        this.partitions = partitions.clone();
+        this.topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        this.partitionBytes = new byte[partitions.length][];
+        for (int i = 0; i < partitions.length; i++) {
+            partitionBytes[i] = ByteBuffer.allocate(Integer.BYTES).putInt(partitions[i]).array();
+        }
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public int[] getPartitions() {
+        return partitions.clone();
+    }
+
+    /**
+     * 공유 응답 토픽 여부 (파티션 수동 할당)
+     */
+    public boolean isShared() {
+        return partitions.length > 0;
+    }
+
+    /**
+     * 요청 헤더에 응답 주소를 추가합니다.
+     *
+     * @param headers      요청 헤더
+     * @param includeTopic REPLY_TOPIC 헤더 추가 여부 (ReplyingKafkaTemplate은 직접 추가함)
+     */
+    public void addHeaders(Headers headers, boolean includeTopic) {
+        if (includeTopic) headers.add(KafkaHeaders.REPLY_TOPIC, topicBytes);
+        if (partitionBytes.length == 0) return;
+
+        int index = partitionBytes.length == 1 ? 0 : (next.getAndIncrement() & Integer.MAX_VALUE) % partitionBytes.length;
+        headers.add(KafkaHeaders.REPLY_PARTITION, partitionBytes[index]);
+    }
+
+    @Override
+    public String toString() {
+        return isShared() ? topic + Arrays.toString(partitions) : topic;
+    }
+
+}
@@ -0,0 +1,234 @@
+package kr.ssok.kafka.messaging.client.comm.correlation;
+
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.EnvelopeCodec;
+import kr.ssok.model.EnvelopeEntry;
+import kr.ssok.model.MessageHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 프로미스 쿼리 응답 상관 엔진
+ * ReplyingKafkaTemplate 대신 응답 대기 요청을 관리합니다.
+ *
+ * - 상관 ID는 8바이트 long (인스턴스별 임의 시작값 + 순번)
+ * - 대기 요청은 스트라이프 해시 테이블(PendingTable)에, 만료는 해시 타이밍 휠(HashedTimingWheel)로 관리
+ * - 동시 대기 요청 수가 상한을 넘으면 즉시 거절 (RejectedExecutionException)
+ *
+ * 응답 토픽 리스너 컨테이너의 MessageListener로 등록하여 사용합니다.
+ * 봉투 응답(CMD=ENVELOPE)은 항목별 상관 ID로 각각의 대기 요청을 완료합니다.
+ * 처리 기한(DEADLINE 헤더)이 지난 뒤 도착한 응답은 타임아웃으로 처리합니다. (타이밍 휠 tick 오차 보정)
+ */
+@Slf4j
+public class CorrelationEngine implements MessageListener<String, Object>, DisposableBean {
+
+    private static final byte[] ENVELOPE_CMD = CommunicationProtocol.ENVELOPE.getBytes(StandardCharsets.UTF_8);
+
+    private final String replyTopic;
+    private final PendingTable pending = new PendingTable();
+    private final HashedTimingWheel wheel;
+    private final int maxInFlight;
+
+    private final AtomicLong sequence = new AtomicLong(ThreadLocalRandom.current().nextLong());
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final LongAdder late = new LongAdder();
+
+    // 응답 파티션 중복 경고는 한번만
+    private final AtomicBoolean overlapWarned = new AtomicBoolean();
+
+    public CorrelationEngine(String replyTopic, int maxInFlight, long tickMillis, int wheelSize) {
+        this.replyTopic = replyTopic;
+        this.maxInFlight = maxInFlight;
+        this.wheel = new HashedTimingWheel(tickMillis, wheelSize, this::expire);
+    }
+
+    /**
+     * 응답을 기다릴 요청을 등록합니다.
+     *
+     * @param timeout 타임아웃
+     * @param unit    타임아웃 단위
+     * @return PendingReply (상관 ID, 응답 Future)
+     * @throws RejectedExecutionException 동시 대기 요청 수 상한 초과
+     */
+    public PendingReply register(long timeout, TimeUnit unit) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("[CorrelationEngine] 대기중인 요청이 너무 많습니다. (max: " + maxInFlight + ")");
+        }
+
+        PendingReply reply = new PendingReply(sequence.incrementAndGet());
+        pending.put(reply);
+        wheel.schedule(reply, unit.toNanos(timeout));
+        return reply;
+    }
+
+    /**
+     * 요청 전송 실패 등으로 대기를 취소하고 예외로 완료합니다.
+     */
+    public void fail(PendingReply reply, Throwable cause) {
+        if (pending.remove(reply.getCorrelationId()) != reply) return;
+        wheel.cancel(reply);
+        inFlight.decrementAndGet();
+        reply.getFuture().completeExceptionally(cause);
+    }
+
+    /**
+     * 응답 레코드 수신
+     * CORRELATION_ID 헤더로 대기중인 요청을 찾아 완료합니다.
+     */
+    @Override
+    public void onMessage(ConsumerRecord<String, Object> record) {
+        long deadline = deadlineOf(record);
+
+        Header cmd = record.headers().lastHeader("CMD");
+        if (cmd != null && Arrays.equals(cmd.value(), ENVELOPE_CMD)) {
+            onEnvelope(record, deadline);
+            return;
+        }
+
+        Header header = record.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+        if (header == null || header.value().length != Long.BYTES) {
+            unmatched.increment();
+            return;
+        }
+
+        complete(ByteBuffer.wrap(header.value()).getLong(), record, deadline);
+    }
+
+    // 봉투 응답의 각 항목을 개별 응답 레코드로 풀어서 완료
+    private void onEnvelope(ConsumerRecord<String, Object> record, long deadline) {
+        if (!(record.value() instanceof byte[] value) || !EnvelopeCodec.isEnvelope(value)) {
+            unmatched.increment();
+            return;
+        }
+
+        for (EnvelopeEntry entry : EnvelopeCodec.decode(value)) {
+            // 항목의 페이로드 형식(CONTENT_TYPE)은 봉투 헤더를 따름
+            ConsumerRecord<String, Object> reply = new ConsumerRecord<>(record.topic(), record.partition(),
+                    record.offset(), record.timestamp(), record.timestampType(), -1, -1,
+                    record.key(), entry.getPayload(), record.headers(), Optional.empty());
+            complete(entry.getCorrelationId(), reply, deadline);
+        }
+    }
+
+    private void complete(long correlationId, ConsumerRecord<String, Object> record, long deadline) {
+        PendingReply reply = pending.remove(correlationId);
+        if (reply == null) {
+            // 타임아웃 이후 도착했거나 다른 인스턴스의 응답
+            if (deadline > 0 && System.currentTimeMillis() > deadline) {
+                late.increment();
+            } else {
+                unmatched.increment();
+                if (overlapWarned.compareAndSet(false, true))
+                    log.warn("[CorrelationEngine] 대기중인 요청이 없는 응답을 받았습니다. 다른 인스턴스가 같은 응답 파티션을 읽고 있을 수 있습니다. "
+                            + "(spring.kafka.reply-instance-count/index 확인): {}-{}", record.topic(), record.partition());
+            }
+            log.debug("No pending reply for record: {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return;
+        }
+
+        wheel.cancel(reply);
+        inFlight.decrementAndGet();
+
+        // 처리 기한이 지난 응답은 호출자가 이미 포기한 것으로 보고 타임아웃으로 완료
+        if (deadline > 0 && System.currentTimeMillis() > deadline) {
+            late.increment();
+            timedOut.increment();
+            reply.getFuture().completeExceptionally(new KafkaReplyTimeoutException("Reply arrived after deadline"));
+            return;
+        }
+
+        completed.increment();
+        reply.getFuture().complete(record);
+    }
+
+    private static long deadlineOf(ConsumerRecord<String, Object> record) {
+        Header header = record.headers().lastHeader(MessageHeaders.DEADLINE);
+        return header == null ? -1 : MessageHeaders.toLong(header.value());
+    }
+
+    private void expire(PendingReply reply) {
+        if (pending.remove(reply.getCorrelationId()) != reply) return;
+        inFlight.decrementAndGet();
+        timedOut.increment();
+        reply.getFuture().completeExceptionally(new KafkaReplyTimeoutException("Reply timed out"));
+    }
+
+    /**
+     * 응답을 받을 토픽 (REPLY_TOPIC 헤더)
+     */
+    public String getReplyTopic() {
+        return replyTopic;
+    }
+
+    /**
+     * 응답 대기중인 요청 수
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timedOut.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 대기 요청이 없는 응답 수 (타임아웃 이후 도착, 공유 응답 토픽의 다른 인스턴스 응답 등)
+     */
+    public long getUnmatchedCount() {
+        return unmatched.sum();
+    }
+
+    /**
+     * 처리 기한이 지난 뒤 도착한 응답 수
+     */
+    public long getLateCount() {
+        return late.sum();
+    }
+
+    /**
+     * 종료된 요청 중 타임아웃 비율 (0.0 ~ 1.0)
+     */
+    public double getTimeoutRate() {
+        long timeouts = timedOut.sum();
+        long total = timeouts + completed.sum();
+        return total == 0 ? 0.0 : (double) timeouts / total;
+    }
+
+    @Override
+    public void destroy() {
+        wheel.stop();
+    }
+
+}
@@ -0,0 +1,136 @@
+package kr.ssok.kafka.messaging.client.comm.correlation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 해시 타이밍 휠
+ * 요청마다 스케줄 작업을 만들지 않고, tick 단위 버킷에 PendingReply를 연결해 두었다가 만료시킵니다.
+ * 등록/취소는 O(1)이며, 하나의 워커 스레드가 tick마다 버킷 하나만 확인합니다.
+ */
+@Slf4j
+final class HashedTimingWheel {
+
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final long startNanos;
+    private final Consumer<PendingReply> expiryHandler;
+
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    HashedTimingWheel(long tickMillis, int wheelSize, Consumer<PendingReply> expiryHandler) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) buckets[i] = new Bucket();
+        this.mask = size - 1;
+        this.expiryHandler = expiryHandler;
+        this.startNanos = System.nanoTime();
+
+        this.worker = new Thread(this::run, "comm-timing-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 만료 시간을 등록합니다.
+     * 이미 만료 시점이 지났으면 호출 스레드에서 바로 만료 처리합니다.
+     */
+    void schedule(PendingReply reply, long timeoutNanos) {
+        long elapsed = System.nanoTime() - startNanos + timeoutNanos;
+        long tick = (elapsed + tickNanos - 1) / tickNanos;
+        Bucket bucket = buckets[(int) (tick & mask)];
+
+        boolean expired;
+        synchronized (bucket) {
+            // 워커가 이미 해당 tick을 처리했다면 만료 시점도 지난 것
+            expired = tick <= bucket.processedTick;
+            if (!expired) {
+                reply.deadlineTick = tick;
+                bucket.link(reply);
+            }
+        }
+        if (expired) expiryHandler.accept(reply);
+    }
+
+    /**
+     * 등록된 만료 시간을 취소합니다.
+     */
+    void cancel(PendingReply reply) {
+        Bucket bucket = reply.bucket;
+        if (bucket == null) return;
+        synchronized (bucket) {
+            if (reply.bucket == bucket) bucket.unlink(reply);
+        }
+    }
+
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        List<PendingReply> expired = new ArrayList<>();
+
+        while (running) {
+            tick++;
+            long wakeup = startNanos + tick * tickNanos;
+            long sleep;
+            while (running && (sleep = wakeup - System.nanoTime()) > 0) LockSupport.parkNanos(sleep);
+
+            Bucket bucket = buckets[(int) (tick & mask)];
+            synchronized (bucket) {
+                bucket.processedTick = tick;
+                PendingReply reply = bucket.head;
+                while (reply != null) {
+                    PendingReply next = reply.next;
+                    if (reply.deadlineTick <= tick) {
+                        bucket.unlink(reply);
+                        expired.add(reply);
+                    }
+                    reply = next;
+                }
+            }
+
+            for (PendingReply reply : expired) {
+                try {
+                    expiryHandler.accept(reply);
+                } catch (Throwable t) {
+                    log.error("Error expiring reply {}", reply.getCorrelationId(), t);
+                }
+            }
+            expired.clear();
+        }
+    }
+
+    static final class Bucket {
+        private PendingReply head;
+        private long processedTick;
+
+        private void link(PendingReply reply) {
+            reply.bucket = this;
+            reply.prev = null;
+            reply.next = head;
+            if (head != null) head.prev = reply;
+            head = reply;
+        }
+
+        private void unlink(PendingReply reply) {
+            if (reply.prev != null) reply.prev.next = reply.next;
+            else head = reply.next;
+            if (reply.next != null) reply.next.prev = reply.prev;
+            reply.prev = null;
+            reply.next = null;
+            reply.bucket = null;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package kr.ssok.kafka.messaging.client.comm.correlation;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 응답 대기중인 프로미스 쿼리
+ * 상관 ID와 응답 Future를 가지며, 타이밍 휠 버킷의 연결 리스트 노드로도 사용됩니다.
+ */
+public final class PendingReply {
+
+    private final long correlationId;
+    private final CompletableFuture<ConsumerRecord<String, Object>> future = new CompletableFuture<>();
+
+    // HashedTimingWheel에서 버킷 락을 잡은 상태로만 접근
+    long deadlineTick;
+    HashedTimingWheel.Bucket bucket;
+    PendingReply prev;
+    PendingReply next;
+
+    PendingReply(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * CORRELATION_ID 헤더 값 (8 bytes, big-endian)
+     */
+    public byte[] getCorrelationIdBytes() {
+        return ByteBuffer.allocate(Long.BYTES).putLong(correlationId).array();
+    }
+
+    public CompletableFuture<ConsumerRecord<String, Object>> getFuture() {
+        return future;
+    }
+
+}
@@ -0,0 +1,112 @@
+package kr.ssok.kafka.messaging.client.comm.correlation;
+
+/**
+ * 상관 ID(long) → PendingReply 테이블
+ * 스트라이프별 오픈 어드레싱(선형 탐사) 해시 테이블로 키를 박싱하지 않습니다.
+ */
+final class PendingTable {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    PendingTable() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    void put(PendingReply reply) {
+        long id = reply.getCorrelationId();
+        stripeOf(id).put(id, reply);
+    }
+
+    PendingReply remove(long id) {
+        return stripeOf(id).remove(id);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) size += stripe.size();
+        return size;
+    }
+
+    private Stripe stripeOf(long id) {
+        return stripes[(int) (mix(id) >>> 40) & (STRIPES - 1)];
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stripe {
+        private long[] keys = new long[64];
+        private PendingReply[] values = new PendingReply[64];
+        private int mask = 63;
+        private int size;
+
+        synchronized void put(long id, PendingReply reply) {
+            if ((size + 1) * 2 > values.length) resize();
+            insert(id, reply);
+            size++;
+        }
+
+        synchronized PendingReply remove(long id) {
+            int slot = (int) mix(id) & mask;
+            while (values[slot] != null) {
+                if (keys[slot] == id) {
+                    PendingReply reply = values[slot];
+                    delete(slot);
+                    size--;
+                    return reply;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void insert(long id, PendingReply reply) {
+            int slot = (int) mix(id) & mask;
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = id;
+            values[slot] = reply;
+        }
+
+        // 선형 탐사 테이블의 역방향 이동 삭제
+        private void delete(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (values[next] != null) {
+                int home = (int) mix(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            values[hole] = null;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            PendingReply[] oldValues = values;
+
+            keys = new long[oldKeys.length * 2];
+            values = new PendingReply[oldValues.length * 2];
+            mask = values.length - 1;
+
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package kr.ssok.kafka.messaging.client.comm.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.ssok.kafka.messaging.client.comm.correlation.CorrelationEngine;
+import kr.ssok.model.CommunicationProtocol;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * KafkaCommModule 메트릭
+ * CommunicationProtocol에 정의된 CMD는 시작시 미리 등록하고, 그 외 CMD는 처음 사용될 때 한번만 등록합니다.
+ *
+ * - kafka.comm.send / send.errors / payload : 전송 시간, 전송 실패, value 크기 (channel, cmd)
+ * - kafka.comm.promise / timeouts / failures / rejected / in-flight : 프로미스 쿼리 응답 시간과 결과 (cmd)
+ * - kafka.comm.correlation.* : CorrelationEngine 전체 대기 요청 수, 타임아웃, 거절, 미매칭 응답, 기한이 지난 응답
+ */
+@Slf4j
+@Component
+public class CommMetrics {
+
+    private static final String REQUEST = "request";
+    private static final String PUSH = "push";
+
+    private final MeterRegistry registry;
+    private final Map<String, CommandMeters> promiseMeters = new ConcurrentHashMap<>();
+    private final Map<String, CommandMeters> messageMeters = new ConcurrentHashMap<>();
+
+    public CommMetrics(MeterRegistry registry, CorrelationEngine correlationEngine) {
+        this.registry = registry;
+
+        for (Field field : CommunicationProtocol.class.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class) continue;
+            try {
+                String cmd = (String) field.get(null);
+                promise(cmd);
+                message(cmd);
+            } catch (IllegalAccessException e) {
+                log.warn("Failed to read CommunicationProtocol.{}", field.getName(), e);
+            }
+        }
+
+        Gauge.builder("kafka.comm.correlation.in-flight", correlationEngine, CorrelationEngine::getInFlightCount)
+                .register(registry);
+        FunctionCounter.builder("kafka.comm.correlation.timeouts", correlationEngine, CorrelationEngine::getTimeoutCount)
+                .register(registry);
+        FunctionCounter.builder("kafka.comm.correlation.rejected", correlationEngine, CorrelationEngine::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("kafka.comm.correlation.unmatched", correlationEngine, CorrelationEngine::getUnmatchedCount)
+                .register(registry);
+        FunctionCounter.builder("kafka.comm.correlation.late", correlationEngine, CorrelationEngine::getLateCount)
+                .register(registry);
+    }
+
+    /**
+     * 프로미스 쿼리 CMD의 미터
+     */
+    public CommandMeters promise(String cmd) {
+        CommandMeters meters = promiseMeters.get(cmd);
+        return meters != null ? meters : promiseMeters.computeIfAbsent(cmd, c -> new CommandMeters(registry, REQUEST, c, true));
+    }
+
+    /**
+     * 단방향 메세지 CMD의 미터
+     */
+    public CommandMeters message(String cmd) {
+        CommandMeters meters = messageMeters.get(cmd);
+        return meters != null ? meters : messageMeters.computeIfAbsent(cmd, c -> new CommandMeters(registry, PUSH, c, false));
+    }
+
+}
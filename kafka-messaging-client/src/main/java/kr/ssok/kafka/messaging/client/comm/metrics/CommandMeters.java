@@ -0,0 +1,114 @@
+package kr.ssok.kafka.messaging.client.comm.metrics;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CMD 하나에 대한 미터 묶음
+ * CommMetrics에서 CMD별로 한번만 생성하여 재사용하므로 기록시 미터 조회/태그 생성이 없습니다.
+ */
+public final class CommandMeters {
+
+    private final Timer send;
+    private final Counter sendErrors;
+    private final DistributionSummary payloadBytes;
+
+    private final Timer roundTrip;
+    private final Counter timeouts;
+    private final Counter failures;
+    private final Counter rejected;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param promise 프로미스 쿼리 미터(응답 시간, 타임아웃 등) 등록 여부
+     */
+    CommandMeters(MeterRegistry registry, String channel, String cmd, boolean promise) {
+        Tags tags = Tags.of("channel", channel, "cmd", cmd);
+
+        this.send = Timer.builder("kafka.comm.send")
+                .description("send() 호출부터 브로커 응답(ack)까지의 시간")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.sendErrors = Counter.builder("kafka.comm.send.errors").tags(tags).register(registry);
+        this.payloadBytes = DistributionSummary.builder("kafka.comm.payload")
+                .description("직렬화된 value 크기")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry);
+
+        if (!promise) {
+            this.roundTrip = null;
+            this.timeouts = null;
+            this.failures = null;
+            this.rejected = null;
+            return;
+        }
+
+        this.roundTrip = Timer.builder("kafka.comm.promise")
+                .description("프로미스 쿼리 전송부터 응답 수신까지의 시간")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.timeouts = Counter.builder("kafka.comm.promise.timeouts").tags(tags).register(registry);
+        this.failures = Counter.builder("kafka.comm.promise.failures").tags(tags).register(registry);
+        this.rejected = Counter.builder("kafka.comm.promise.rejected").tags(tags).register(registry);
+        Gauge.builder("kafka.comm.promise.in-flight", inFlight, AtomicInteger::get).tags(tags).register(registry);
+    }
+
+    /**
+     * 전송 완료 (KafkaTemplate.send의 Future 완료시)
+     *
+     * @param startNanos 전송 시작 시각 (System.nanoTime)
+     */
+    public void onSent(long startNanos, SendResult<?, ?> result, Throwable throwable) {
+        send.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (throwable != null) {
+            sendErrors.increment();
+            return;
+        }
+        if (result != null && result.getRecordMetadata() != null)
+            payloadBytes.record(result.getRecordMetadata().serializedValueSize());
+    }
+
+    /**
+     * 프로미스 쿼리 응답 대기 시작
+     */
+    public void onQuery() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * 프로미스 쿼리 종료 (응답 수신, 타임아웃, 전송 실패)
+     *
+     * @param startNanos 전송 시작 시각 (System.nanoTime)
+     */
+    public void onReply(long startNanos, Throwable throwable) {
+        inFlight.decrementAndGet();
+        if (throwable == null) {
+            roundTrip.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null)
+            cause = cause.getCause();
+
+        if (cause instanceof KafkaReplyTimeoutException) timeouts.increment();
+        else failures.increment();
+    }
+
+    /**
+     * 동시 대기 요청 상한 초과로 전송하지 않은 프로미스 쿼리
+     */
+    public void onRejected() {
+        rejected.increment();
+    }
+
+}
@@ -0,0 +1,71 @@
+package kr.ssok.kafka.messaging.client.comm.priority;
+
+import kr.ssok.model.PriorityLane;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 명령별 우선순위 레인
+ * 요청/단방향 메세지를 보낼 토픽을 CMD의 레인(PriorityLane)에 따라 정합니다.
+ * 서버는 높은 레인에 처리 대기가 있으면 낮은 레인을 pause 하므로, 대량의 낮은 우선순위 메세지가 높은 레인의 지연시간을 늘리지 않습니다.
+ *
+ * spring.kafka.priority.enabled : false면 모든 명령을 기존 토픽으로 전송 (서버의 bank.priority.enabled를 먼저 켠 뒤 사용)
+ * spring.kafka.priority.high / low : 레인별 CMD 목록 (쉼표 구분, 그 외 명령은 NORMAL)
+ */
+public class CommandPriorities {
+
+    /**
+     * 레인을 사용하지 않음 (모든 명령이 NORMAL)
+     */
+    public static final CommandPriorities DISABLED = new CommandPriorities(false, Map.of());
+
+    private final boolean enabled;
+    private final Map<String, PriorityLane> lanes;
+
+    public CommandPriorities(boolean enabled, Map<String, PriorityLane> lanes) {
+        this.enabled = enabled;
+        this.lanes = Map.copyOf(lanes);
+    }
+
+    /**
+     * @param enabled 레인 사용 여부
+     * @param high    HIGH 레인 CMD 목록
+     * @param low     LOW 레인 CMD 목록
+     */
+    public static CommandPriorities of(boolean enabled, String[] high, String[] low) {
+        Map<String, PriorityLane> lanes = new HashMap<>();
+        for (String cmd : high) {
+            if (!cmd.isBlank()) lanes.put(cmd.trim(), PriorityLane.HIGH);
+        }
+        for (String cmd : low) {
+            if (cmd.isBlank()) continue;
+            if (lanes.put(cmd.trim(), PriorityLane.LOW) != null)
+                throw new IllegalArgumentException("[CommandPriorities] HIGH와 LOW 레인에 모두 지정된 명령입니다: " + cmd);
+        }
+        return new CommandPriorities(enabled, lanes);
+    }
+
+    /**
+     * @param cmd CMD
+     * @return 레인 (레인을 사용하지 않거나 지정되지 않은 명령은 NORMAL)
+     */
+    public PriorityLane laneOf(String cmd) {
+        if (!enabled) return PriorityLane.NORMAL;
+        return lanes.getOrDefault(cmd, PriorityLane.NORMAL);
+    }
+
+    /**
+     * @param baseTopic 기존 토픽 (spring.kafka.request-topic, spring.kafka.push-topic)
+     * @param cmd       CMD
+     * @return 전송할 레인 토픽
+     */
+    public String topicOf(String baseTopic, String cmd) {
+        return laneOf(cmd).topic(baseTopic);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+}
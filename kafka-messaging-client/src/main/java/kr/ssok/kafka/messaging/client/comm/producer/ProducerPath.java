@@ -0,0 +1,165 @@
+package kr.ssok.kafka.messaging.client.comm.producer;
+
+import kr.ssok.model.ProducerProfile;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 전송 경로 (프로미스 요청 / 봉투 / 단방향 메세지)
+ * 경로마다 프로듀서 프로필을 지정하여 해당 프로필의 KafkaTemplate으로 전송합니다.
+ *
+ * 적응형(adaptive) 모드에서는 경로의 전송률(records/s)을 측정 구간마다 타이머로 측정하여 프로필을 올리거나 내립니다.
+ * - 전송률이 high-throughput-rate 이상이면 HIGH_THROUGHPUT, bulk-rate 이상이면 BULK
+ * - 내릴 때는 임계치의 절반 아래로 떨어져야 함 (hysteresis, 전송이 없는 구간은 0으로 측정되어 내려감)
+ * - 지정한 프로필보다 낮은 프로필로는 내려가지 않음
+ * 프로듀서 설정은 실행중에 바꿀 수 없으므로 프로필별 프로듀서 사이에서 전환합니다.
+ * 전환할 때는 새 전송을 잠시 막고 이전 프로듀서를 flush 한 뒤에 바꾸므로 같은 키의 레코드 순서가 유지됩니다.
+ */
+@Slf4j
+public class ProducerPath implements DisposableBean {
+
+    @Getter
+    private final String name;
+    private final ProducerProfile baseProfile;
+    private final Function<ProducerProfile, KafkaTemplate<String, Object>> templates;
+    private final Adaptive adaptive;
+
+    private volatile ProducerProfile profile;
+    private volatile KafkaTemplate<String, Object> template;
+
+    // 적응형 모드 전송률 측정 (타이머 스레드에서만 갱신)
+    private final LongAdder sent = new LongAdder();
+    private long windowStart = System.nanoTime();
+    @Getter
+    private volatile double rate;
+
+    // 적응형 모드 전환 (전송은 read lock, 전환은 write lock 안에서 이전 프로듀서를 flush)
+    private final ReadWriteLock switchLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService timer;
+
+    public ProducerPath(String name, ProducerProfile profile, Function<ProducerProfile, KafkaTemplate<String, Object>> templates) {
+        this(name, profile, templates, null);
+    }
+
+    /**
+     * @param name      경로 이름 (로그)
+     * @param profile   프로필 (적응형 모드에서는 최소 프로필)
+     * @param templates 프로필별 KafkaTemplate
+     * @param adaptive  적응형 모드 설정, null이면 프로필 고정
+     */
+    public ProducerPath(String name, ProducerProfile profile,
+                        Function<ProducerProfile, KafkaTemplate<String, Object>> templates, Adaptive adaptive) {
+        this.name = name;
+        this.baseProfile = profile;
+        this.templates = templates;
+        this.adaptive = adaptive;
+        this.profile = profile;
+        this.template = templates.apply(profile);
+
+        if (adaptive == null) {
+            this.timer = null;
+        } else {
+            this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "producer-path-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleAtFixedRate(this::adapt, adaptive.intervalMillis(), adaptive.intervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public CompletableFuture<SendResult<String, Object>> send(ProducerRecord<String, Object> record) {
+        if (adaptive == null) return template.send(record);
+
+        sent.increment();
+        // 전환 중에는 이전 프로듀서의 flush가 끝날 때까지 대기 (send는 레코드를 버퍼에 넣을 때까지만 잡음)
+        switchLock.readLock().lock();
+        try {
+            return template.send(record);
+        } finally {
+            switchLock.readLock().unlock();
+        }
+    }
+
+    public List<PartitionInfo> partitionsFor(String topic) {
+        return template.partitionsFor(topic);
+    }
+
+    public ProducerProfile getProfile() {
+        return profile;
+    }
+
+    // 측정 구간마다 전송률을 갱신하고 프로필을 다시 고름 (타이머 스레드)
+    private void adapt() {
+        try {
+            long now = System.nanoTime();
+            double windowRate = sent.sumThenReset() * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, now - windowStart);
+            windowStart = now;
+            rate = rate == 0 ? windowRate : 0.5 * windowRate + 0.5 * rate;
+
+            ProducerProfile next = select(rate);
+            if (next != profile) switchTo(next);
+        } catch (Exception e) {
+            log.error("[ProducerPath] {}: 프로필 전환 실패", name, e);
+        }
+    }
+
+    // 이전 프로듀서에 남은 레코드가 모두 완료된 뒤에 새 프로듀서로 전송하도록 전환
+    private void switchTo(ProducerProfile next) {
+        switchLock.writeLock().lock();
+        try {
+            template.flush();
+            log.info("[ProducerPath] {}: {} -> {} ({} records/s)", name, profile, next, Math.round(rate));
+            template = templates.apply(next);
+            profile = next;
+        } finally {
+            switchLock.writeLock().unlock();
+        }
+    }
+
+    private ProducerProfile select(double rate) {
+        ProducerProfile current = profile;
+        ProducerProfile byRate;
+        if (rate >= adaptive.bulkRate()
+                || (current == ProducerProfile.BULK && rate >= adaptive.bulkRate() / 2)) {
+            byRate = ProducerProfile.BULK;
+        } else if (rate >= adaptive.highThroughputRate()
+                || (current != ProducerProfile.LOW_LATENCY && rate >= adaptive.highThroughputRate() / 2)) {
+            byRate = ProducerProfile.HIGH_THROUGHPUT;
+        } else {
+            byRate = ProducerProfile.LOW_LATENCY;
+        }
+        return byRate.ordinal() >= baseProfile.ordinal() ? byRate : baseProfile;
+    }
+
+    /**
+     * 적응형 모드 설정
+     *
+     * @param intervalMillis     전송률 측정 구간 (ms)
+     * @param highThroughputRate HIGH_THROUGHPUT으로 올리는 전송률 (records/s)
+     * @param bulkRate           BULK로 올리는 전송률 (records/s)
+     */
+    public record Adaptive(long intervalMillis, double highThroughputRate, double bulkRate) {
+    }
+
+    @Override
+    public void destroy() {
+        if (timer != null) timer.shutdownNow();
+    }
+
+}
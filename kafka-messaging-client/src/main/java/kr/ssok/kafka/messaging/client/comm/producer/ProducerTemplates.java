@@ -0,0 +1,60 @@
+package kr.ssok.kafka.messaging.client.comm.producer;
+
+import kr.ssok.model.ProducerProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 프로듀서 프로필별 KafkaTemplate
+ * 공통 설정(bootstrap-servers, 직렬화)에 프로필을 적용한 프로듀서를 프로필당 하나씩 만들어 전송 경로끼리 공유합니다.
+ * 사용하지 않는 프로필의 프로듀서는 만들지 않습니다.
+ */
+@Slf4j
+public class ProducerTemplates implements Function<ProducerProfile, KafkaTemplate<String, Object>>, DisposableBean {
+
+    private final Map<String, Object> baseConfigs;
+    private final Map<ProducerProfile, DefaultKafkaProducerFactory<String, Object>> factories = new ConcurrentHashMap<>();
+    private final Map<ProducerProfile, KafkaTemplate<String, Object>> templates = new ConcurrentHashMap<>();
+
+    public ProducerTemplates(Map<String, Object> baseConfigs) {
+        this.baseConfigs = Map.copyOf(baseConfigs);
+    }
+
+    @Override
+    public KafkaTemplate<String, Object> apply(ProducerProfile profile) {
+        return templates.computeIfAbsent(profile, this::create);
+    }
+
+    /**
+     * 프로필이 적용된 프로듀서 설정
+     *
+     * @param profile 프로필
+     * @return 프로듀서 설정
+     */
+    public Map<String, Object> configs(ProducerProfile profile) {
+        return profile.applyTo(new HashMap<>(baseConfigs));
+    }
+
+    private KafkaTemplate<String, Object> create(ProducerProfile profile) {
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configs(profile));
+        factory.setBeanName("producerFactory-" + profile.name());
+        factories.put(profile, factory);
+
+        log.info("[ProducerTemplates] {} producer (linger: {}ms, batch: {}, compression: {})",
+                profile, profile.getLingerMs(), profile.getBatchSize(), profile.getCompressionType());
+        return new KafkaTemplate<>(factory);
+    }
+
+    @Override
+    public void destroy() {
+        factories.values().forEach(DefaultKafkaProducerFactory::destroy);
+    }
+
+}
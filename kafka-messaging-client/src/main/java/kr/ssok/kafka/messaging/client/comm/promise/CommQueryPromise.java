@@ -2,17 +2,20 @@ package kr.ssok.kafka.messaging.client.comm.promise;
 
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.springframework.kafka.requestreply.RequestReplyFuture;
 
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 프로미스
  * 프로미스 요청을 보내면 CommQueryPromise를 받습니다.
+ * get()으로 응답을 기다리거나, thenApply/getAsync로 스레드를 점유하지 않고 응답을 처리할 수 있습니다.
  */
 @RequiredArgsConstructor
 public class CommQueryPromise {
-    private final RequestReplyFuture<String, Object, Object> future;
+    // RequestReplyFuture(ReplyingKafkaTemplate) 또는 CorrelationEngine의 응답 Future
+    private final CompletableFuture<ConsumerRecord<String, Object>> future;
 
     /**
      * 요청에대한 응답을 받기전까지 해당 스레드를 대기합니다.
@@ -26,4 +29,49 @@ public class CommQueryPromise {
         return new PromiseMessage(response);
     }
 
+    /**
+     * 응답 메세지를 CompletableFuture로 반환합니다.
+     * 응답 수신 스레드에서 완료되므로 후속 처리에서 블로킹 작업은 피해야 합니다.
+     *
+     * @return CompletableFuture<PromiseMessage>
+     */
+    public CompletableFuture<PromiseMessage> toCompletableFuture() {
+        return future.thenApply(PromiseMessage::new);
+    }
+
+    /**
+     * 응답 메세지를 변환하는 후속 처리를 등록합니다.
+     *
+     * @param fn  응답 메세지 변환 함수
+     * @param <U> 변환 결과 타입
+     * @return CompletableFuture<U>
+     */
+    public <U> CompletableFuture<U> thenApply(Function<? super PromiseMessage, ? extends U> fn) {
+        return this.toCompletableFuture().thenApply(fn);
+    }
+
+    /**
+     * 응답 메세지를 DTO 객체로 변환하여 비동기로 반환합니다.
+     *
+     * @param responseType DTO 타입
+     * @param <T>          DTO 타입
+     * @return CompletableFuture<T>
+     */
+    public <T> CompletableFuture<T> getAsync(Class<T> responseType) {
+        return this.thenApply(msg -> msg.getDataObject(responseType));
+    }
+
+    /**
+     * 응답 메세지를 DTO 객체로 변환하여 비동기로 반환합니다.
+     * 요청 타임아웃과 별개로 호출자 기준의 타임아웃을 지정할 수 있습니다. (TimeoutException으로 완료)
+     *
+     * @param responseType DTO 타입
+     * @param timeout      타임아웃 (초)
+     * @param <T>          DTO 타입
+     * @return CompletableFuture<T>
+     */
+    public <T> CompletableFuture<T> getAsync(Class<T> responseType, int timeout) {
+        return this.getAsync(responseType).orTimeout(timeout, TimeUnit.SECONDS);
+    }
+
 }
@@ -1,12 +1,14 @@
 package kr.ssok.kafka.messaging.client.comm.promise;
 
 import kr.ssok.model.JsonUtil;
+import kr.ssok.model.PayloadCodec;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
 /**
  * 프로미스 메시지
  * CommQueryPromise에서 PromiseMessage을 가져올 수 있습니다.
+ * 응답의 CONTENT_TYPE 헤더에 따라 JSON 또는 바이너리 코덱으로 역직렬화합니다.
  */
 @RequiredArgsConstructor
 public class PromiseMessage {
@@ -16,10 +18,13 @@ public class PromiseMessage {
     public <T> T getDataObject(Class<T> responseType) {
         Object value = response.value();
 
-        if (value == null || !(value instanceof String))
-            throw new RuntimeException("[PromiseMessage] JSON 파싱 실패");
+        if (value instanceof byte[] bytes)
+            return PayloadCodec.decode(bytes, responseType, PayloadCodec.isBinary(response.headers()));
 
-        return JsonUtil.fromJson((String) value, responseType);
+        if (value instanceof String str)
+            return JsonUtil.fromJson(str, responseType);
+
+        throw new RuntimeException("[PromiseMessage] JSON 파싱 실패");
     }
 
 }
@@ -0,0 +1,63 @@
+package kr.ssok.kafka.messaging.client.comm.reactive;
+
+import kr.ssok.kafka.messaging.client.comm.promise.PromiseMessage;
+import org.springframework.kafka.support.SendResult;
+import reactor.core.publisher.Mono;
+
+/**
+ * 카프카 통신 모듈 (리액티브)
+ * KafkaCommModule과 같은 프로미스, 단방향 메세지 전송을 Mono로 제공합니다.
+ * 반환된 Mono를 구독할 때 전송되며, 응답을 기다리는 동안 스레드를 점유하지 않습니다.
+ */
+public interface ReactiveKafkaCommModule {
+    /**
+     * 프로미스 쿼리를 서버에 요청합니다. (타임아웃: 30초)
+     *
+     * @param cmd     통신 프로토콜
+     * @param request DTO 객체
+     * @return 응답 메세지
+     */
+    public Mono<PromiseMessage> sendPromiseQuery(String cmd, Object request);
+
+    /**
+     * 프로미스 쿼리를 서버에 요청합니다.
+     *
+     * @param cmd     통신 프로토콜
+     * @param request DTO 객체
+     * @param timeout 타임아웃 (초)
+     * @return 응답 메세지
+     */
+    public Mono<PromiseMessage> sendPromiseQuery(String cmd, Object request, int timeout);
+
+    /**
+     * 프로미스 쿼리를 서버에 요청합니다.
+     * 카프카 메세지 키를 추가로 입력 받습니다.
+     *
+     * @param key     카프카 메세지 키
+     * @param cmd     통신 프로토콜
+     * @param request DTO 객체
+     * @param timeout 타임아웃 (초)
+     * @return 응답 메세지
+     */
+    public Mono<PromiseMessage> sendPromiseQuery(String key, String cmd, Object request, int timeout);
+
+    /**
+     * 단방향 메세지를 전송합니다.
+     *
+     * @param cmd     통신 프로토콜
+     * @param request DTO 객체
+     * @return 전송 결과
+     */
+    public Mono<SendResult<String, Object>> sendMessage(String cmd, Object request);
+
+    /**
+     * 단방향 메세지를 전송합니다.
+     * 카프카 메세지 키를 추가로 입력 받습니다.
+     *
+     * @param key     카프카 메세지 키
+     * @param cmd     통신 프로토콜
+     * @param request DTO 객체
+     * @return 전송 결과
+     */
+    public Mono<SendResult<String, Object>> sendMessage(String key, String cmd, Object request);
+}
@@ -0,0 +1,192 @@
+package kr.ssok.kafka.messaging.client.comm.reactive;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kr.ssok.kafka.messaging.client.comm.ReplyAddress;
+import kr.ssok.kafka.messaging.client.comm.correlation.CorrelationEngine;
+import kr.ssok.kafka.messaging.client.comm.correlation.PendingReply;
+import kr.ssok.kafka.messaging.client.comm.metrics.CommandMeters;
+import kr.ssok.kafka.messaging.client.comm.metrics.CommMetrics;
+import kr.ssok.kafka.messaging.client.comm.priority.CommandPriorities;
+import kr.ssok.kafka.messaging.client.comm.producer.ProducerTemplates;
+import kr.ssok.kafka.messaging.client.comm.promise.PromiseMessage;
+import kr.ssok.kafka.messaging.client.comm.routing.RoutingKeyStrategy;
+import kr.ssok.model.MessageHeaders;
+import kr.ssok.model.ProducerProfile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리액티브 카프카 통신 모듈 (reactor-kafka)
+ * 요청은 KafkaSender로 보내고, 응답은 KafkaCommModuleImpl과 같은 CorrelationEngine에서 받습니다.
+ * 리액티브 웹 애플리케이션(spring.main.web-application-type=reactive)에서만 생성되며, reply-correlation=engine 이어야 합니다.
+ *
+ * - 응답은 응답 수신 스레드가 아닌 parallel 스케줄러에서 이어서 처리 (응답 수신 스레드 점유 방지)
+ * - 구독이 취소되면 대기중인 요청을 CorrelationEngine에서 바로 제거
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveKafkaCommModuleImpl implements ReactiveKafkaCommModule {
+
+    private final ProducerTemplates producerTemplates;
+
+    private final CorrelationEngine correlationEngine;
+
+    private final CommMetrics commMetrics;
+
+    private final ReplyAddress replyAddress;
+
+    private final RoutingKeyStrategy routingKeyStrategy;
+
+    private final CommandPriorities commandPriorities;
+
+    @Value("${spring.kafka.request-topic}")
+    private String requestTopic;
+
+    @Value("${spring.kafka.push-topic}")
+    private String pushTopic;
+
+    @Value("${spring.kafka.reply-correlation:engine}")
+    private String replyCorrelation;
+
+    @Value("${spring.kafka.producer-profile.request:low-latency}")
+    private String requestProfile;
+
+    @Value("${spring.kafka.producer-profile.push:high-throughput}")
+    private String pushProfile;
+
+    private KafkaSender<String, Object> requestSender;
+    private KafkaSender<String, Object> pushSender;
+
+    @PostConstruct
+    public void init() {
+        if (!"engine".equals(replyCorrelation))
+            throw new IllegalStateException("[ReactiveKafkaCommModule] spring.kafka.reply-correlation=engine 일때만 사용할 수 있습니다.");
+
+        ProducerProfile request = ProducerProfile.of(requestProfile);
+        ProducerProfile push = ProducerProfile.of(pushProfile);
+        requestSender = createSender(request);
+        pushSender = push == request ? requestSender : createSender(push);
+    }
+
+    private KafkaSender<String, Object> createSender(ProducerProfile profile) {
+        // 전송 실패는 Flux 에러 대신 SenderResult.exception()으로 받음
+        SenderOptions<String, Object> options = SenderOptions.<String, Object>create(producerTemplates.configs(profile))
+                .stopOnError(false);
+        return KafkaSender.create(options);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pushSender != null && pushSender != requestSender) pushSender.close();
+        if (requestSender != null) requestSender.close();
+    }
+
+    @Override
+    public Mono<PromiseMessage> sendPromiseQuery(String cmd, Object request) {
+        return this.sendPromiseQuery(cmd, request, 30);
+    }
+
+    @Override
+    public Mono<PromiseMessage> sendPromiseQuery(String cmd, Object request, int timeout) {
+        return this.sendPromiseQuery(keyOf(cmd, request), cmd, request, timeout);
+    }
+
+    @Override
+    public Mono<PromiseMessage> sendPromiseQuery(String key, String cmd, Object request, int timeout) {
+        return Mono.defer(() -> {
+            CommandMeters meters = this.commMetrics.promise(cmd);
+            long start = System.nanoTime();
+
+            PendingReply pending;
+            try {
+                pending = this.correlationEngine.register(timeout, TimeUnit.SECONDS);
+            } catch (RejectedExecutionException e) {
+                meters.onRejected();
+                return Mono.error(e);
+            }
+
+            ProducerRecord<String, Object> record = new ProducerRecord<>(commandPriorities.topicOf(requestTopic, cmd), key, request);
+            record.headers().add("CMD", cmd.getBytes(StandardCharsets.UTF_8));
+            record.headers().add(MessageHeaders.DEADLINE,
+                    MessageHeaders.toBytes(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeout)));
+            replyAddress.addHeaders(record.headers(), true);
+            record.headers().add(KafkaHeaders.CORRELATION_ID, pending.getCorrelationIdBytes());
+
+            meters.onQuery();
+            pending.getFuture().whenComplete((result, throwable) -> meters.onReply(start, throwable));
+
+            // 응답 Future는 CorrelationEngine이 완료/타임아웃 처리하므로 구독 취소시 Future를 취소하지 않음
+            Mono<PromiseMessage> reply = Mono.fromFuture(pending.getFuture(), true)
+                    .publishOn(Schedulers.parallel())
+                    .map(PromiseMessage::new);
+
+            return send(requestSender, record)
+                    .flatMap(result -> {
+                        Exception exception = result.exception();
+                        meters.onSent(start, sendResult(record, result), exception);
+                        if (exception != null) this.correlationEngine.fail(pending, exception);
+                        return reply;
+                    })
+                    .doOnCancel(() -> this.correlationEngine.fail(pending, new CancellationException("Promise query cancelled")));
+        });
+    }
+
+    @Override
+    public Mono<SendResult<String, Object>> sendMessage(String cmd, Object request) {
+        return this.sendMessage(keyOf(cmd, request), cmd, request);
+    }
+
+    @Override
+    public Mono<SendResult<String, Object>> sendMessage(String key, String cmd, Object request) {
+        return Mono.defer(() -> {
+            ProducerRecord<String, Object> record = new ProducerRecord<>(commandPriorities.topicOf(pushTopic, cmd), key, request);
+            record.headers().add("CMD", cmd.getBytes(StandardCharsets.UTF_8));
+
+            CommandMeters meters = this.commMetrics.message(cmd);
+            long start = System.nanoTime();
+
+            return send(pushSender, record).flatMap(result -> {
+                Exception exception = result.exception();
+                SendResult<String, Object> sendResult = sendResult(record, result);
+                meters.onSent(start, sendResult, exception);
+                return exception == null ? Mono.just(sendResult) : Mono.error(exception);
+            });
+        });
+    }
+
+    // 라우팅 키 (없으면 무작위 UUID)
+    private String keyOf(String cmd, Object request) {
+        String key = routingKeyStrategy.routingKey(cmd, request);
+        return key != null ? key : UUID.randomUUID().toString();
+    }
+
+    private static Mono<SenderResult<Void>> send(KafkaSender<String, Object> sender, ProducerRecord<String, Object> record) {
+        return sender.send(Mono.just(SenderRecord.<String, Object, Void>create(record, null))).next();
+    }
+
+    private static SendResult<String, Object> sendResult(ProducerRecord<String, Object> record, SenderResult<Void> result) {
+        return result.exception() == null ? new SendResult<>(record, result.recordMetadata()) : null;
+    }
+
+}
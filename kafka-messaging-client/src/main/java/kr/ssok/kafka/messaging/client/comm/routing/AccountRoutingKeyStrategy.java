@@ -0,0 +1,27 @@
+package kr.ssok.kafka.messaging.client.comm.routing;
+
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.RoutingKeys;
+import kr.ssok.model.TransferRequest;
+
+/**
+ * 계좌 라우팅 키 전략
+ * 송금 요청은 잔액이 바뀌는 계좌번호를 그대로 메세지 키로 사용합니다.
+ *
+ * - 입금(REQUEST_DEPOSIT): toAccount
+ * - 출금(REQUEST_WITHDRAW) 및 그 외 송금 요청: fromAccount
+ * - 계좌번호가 없거나 형식이 잘못된 요청, 송금 요청이 아닌 메세지: null (무작위 UUID)
+ */
+public class AccountRoutingKeyStrategy implements RoutingKeyStrategy {
+
+    @Override
+    public String routingKey(String cmd, Object request) {
+        if (!(request instanceof TransferRequest transfer)) return null;
+
+        String account = CommunicationProtocol.REQUEST_DEPOSIT.equals(cmd)
+                ? transfer.getToAccount()
+                : transfer.getFromAccount();
+        return RoutingKeys.normalize(account);
+    }
+
+}
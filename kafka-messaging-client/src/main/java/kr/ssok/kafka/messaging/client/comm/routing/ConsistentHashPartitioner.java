@@ -0,0 +1,35 @@
+package kr.ssok.kafka.messaging.client.comm.routing;
+
+import kr.ssok.model.RoutingKeys;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 일관 해시 파티셔너 (spring.kafka.routing.partitioner=consistent-hash)
+ * 메세지 키를 RoutingKeys.partition(jump consistent hash)으로 파티션에 배치합니다.
+ *
+ * - 서버 원장(LedgerEngine)이 같은 함수로 계좌를 파티션별 스트라이프에 배치하므로 파티션 간 락 경합이 없음
+ * - 요청 토픽의 파티션을 늘려도 이동하는 계좌가 최소화됨
+ * - 키가 없는 레코드는 임의의 파티션
+ */
+public class ConsistentHashPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitions = cluster.partitionsForTopic(topic).size();
+        if (key == null) return ThreadLocalRandom.current().nextInt(partitions);
+        return RoutingKeys.partition(key.toString(), partitions);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -0,0 +1,28 @@
+package kr.ssok.kafka.messaging.client.comm.routing;
+
+/**
+ * 라우팅 키 전략
+ * 키를 지정하지 않은 전송(sendPromiseQuery(cmd, request), sendMessage(cmd, request))의 메세지 키를 요청에서 추출합니다.
+ * 같은 키의 레코드는 같은 파티션으로 가므로 서버가 키 단위 상태를 파티션에 묶어 순서대로 처리할 수 있습니다.
+ *
+ * spring.kafka.routing.strategy (account: AccountRoutingKeyStrategy, random: RANDOM)
+ * 다른 전략이 필요하면 RoutingKeyStrategy 빈을 등록합니다.
+ */
+@FunctionalInterface
+public interface RoutingKeyStrategy {
+
+    /**
+     * 키 없이 무작위 UUID를 사용 (파티션에 고르게 분산, 순서 보장 없음)
+     */
+    RoutingKeyStrategy RANDOM = (cmd, request) -> null;
+
+    /**
+     * 메세지 키
+     *
+     * @param cmd     CMD
+     * @param request 요청 객체
+     * @return 메세지 키, null이면 무작위 UUID
+     */
+    String routingKey(String cmd, Object request);
+
+}
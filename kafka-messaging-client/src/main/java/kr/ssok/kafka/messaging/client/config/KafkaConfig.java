@@ -1,27 +1,41 @@
 package kr.ssok.kafka.messaging.client.config;
 
-import kr.ssok.model.TransferRequest;
-import kr.ssok.model.TransferResponse;
+import kr.ssok.kafka.messaging.client.comm.ReplyAddress;
+import kr.ssok.kafka.messaging.client.comm.correlation.CorrelationEngine;
+import kr.ssok.kafka.messaging.client.comm.priority.CommandPriorities;
+import kr.ssok.kafka.messaging.client.comm.producer.ProducerPath;
+import kr.ssok.kafka.messaging.client.comm.producer.ProducerTemplates;
+import kr.ssok.kafka.messaging.client.comm.routing.AccountRoutingKeyStrategy;
+import kr.ssok.kafka.messaging.client.comm.routing.ConsistentHashPartitioner;
+import kr.ssok.kafka.messaging.client.comm.routing.RoutingKeyStrategy;
+import kr.ssok.model.PayloadSerializer;
+import kr.ssok.model.PriorityLane;
+import kr.ssok.model.ProducerProfile;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.support.TopicPartitionOffset;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 /**
  * 카프카 컨피그 (클라이언트)
@@ -41,10 +55,122 @@ public class KafkaConfig {
     @Value("${spring.kafka.push-topic}")
     private String pushTopic;
 
+    // 요청 토픽 파티션 수 (서버 bank.ledger.partitions와 같게 지정)
+    @Value("${spring.kafka.request-topic-partitions:3}")
+    private int requestTopicPartitions;
+
+    // 단방향 토픽 파티션 수 (서버 spring.kafka.push-topic-partitions와 같게 지정)
+    @Value("${spring.kafka.push-topic-partitions:3}")
+    private int pushTopicPartitions;
+
+    /**
+     * 라우팅 키 전략 (키를 지정하지 않은 전송)
+     * account: 송금 요청의 계좌번호 (AccountRoutingKeyStrategy)
+     * random: 무작위 UUID
+     */
+    @Value("${spring.kafka.routing.strategy:account}")
+    private String routingStrategy;
+
+    /**
+     * 파티셔너
+     * consistent-hash: ConsistentHashPartitioner (서버 원장의 파티션별 스트라이프 배치와 같은 함수)
+     * default: 카프카 기본 파티셔너 (murmur2)
+     */
+    @Value("${spring.kafka.routing.partitioner:consistent-hash}")
+    private String routingPartitioner;
+
+    /**
+     * 요청 페이로드 형식 (json, binary)
+     * binary: TransferRequest 등 바이너리 코덱이 지원하는 타입을 바이너리로 전송 (서버는 같은 형식으로 응답)
+     */
+    @Value("${spring.kafka.payload-codec:json}")
+    private String payloadCodec;
+
+    /**
+     * 명령별 우선순위 레인 (CommandPriorities)
+     * 레인을 사용하면 HIGH/LOW 레인 명령을 {topic}-high / {topic}-low 토픽으로 전송 (그 외 명령은 기존 토픽)
+     */
+    @Value("${spring.kafka.priority.enabled:false}")
+    private boolean priorityEnabled;
+
+    @Value("${spring.kafka.priority.high:}")
+    private String[] priorityHigh;
+
+    @Value("${spring.kafka.priority.low:}")
+    private String[] priorityLow;
+
+    /**
+     * 응답 토픽 방식
+     * true: 공유 응답 토픽(reply-topic)의 파티션을 인스턴스별로 수동 할당 (토픽 생성/리밸런스 없음)
+     * false: 인스턴스마다 reply-topic-<clientId> 토픽을 사용
+     */
+    @Value("${spring.kafka.shared-reply-topic:true}")
+    private boolean sharedReplyTopic;
+
+    @Value("${spring.kafka.reply-topic-partitions:6}")
+    private int replyTopicPartitions;
+
+    // 이 인스턴스가 읽을 공유 응답 토픽 파티션 (비어있으면 reply-instance-index/count로 계산)
+    @Value("${spring.kafka.reply-partitions:}")
+    private int[] replyPartitions;
+
+    /**
+     * 공유 응답 토픽을 함께 쓰는 인스턴스 수 / 이 인스턴스의 번호 (0부터)
+     * reply-partitions를 지정하지 않으면 p % count == index 인 파티션을 읽으므로 인스턴스끼리 파티션이 겹치지 않습니다.
+     * (기본값은 단일 인스턴스로 모든 파티션을 읽음)
+     */
+    @Value("${spring.kafka.reply-instance-count:1}")
+    private int replyInstanceCount;
+
+    @Value("${spring.kafka.reply-instance-index:0}")
+    private int replyInstanceIndex;
+
+    /**
+     * 프로미스 쿼리 응답 상관 방식
+     * engine: CorrelationEngine (타이밍 휠, 동시 요청 상한)
+     * template: ReplyingKafkaTemplate
+     */
+    @Value("${spring.kafka.reply-correlation:engine}")
+    private String replyCorrelation;
+
+    @Value("${spring.kafka.correlation.max-in-flight:50000}")
+    private int correlationMaxInFlight;
+
+    @Value("${spring.kafka.correlation.tick-ms:10}")
+    private long correlationTickMs;
+
+    @Value("${spring.kafka.correlation.wheel-size:1024}")
+    private int correlationWheelSize;
+
+    /**
+     * 전송 경로별 프로듀서 프로필 (low-latency, high-throughput, bulk)
+     */
+    @Value("${spring.kafka.producer-profile.request:low-latency}")
+    private String requestProfile;
+
+    @Value("${spring.kafka.producer-profile.envelope:low-latency}")
+    private String envelopeProfile;
+
+    @Value("${spring.kafka.producer-profile.push:high-throughput}")
+    private String pushProfile;
+
+    // 전송률에 따라 경로의 프로필을 올리고 내리는 적응형 모드
+    @Value("${spring.kafka.producer-profile.adaptive.enabled:false}")
+    private boolean adaptiveEnabled;
+
+    @Value("${spring.kafka.producer-profile.adaptive.interval-ms:5000}")
+    private long adaptiveIntervalMs;
+
+    @Value("${spring.kafka.producer-profile.adaptive.high-throughput-rate:2000}")
+    private double adaptiveHighThroughputRate;
+
+    @Value("${spring.kafka.producer-profile.adaptive.bulk-rate:20000}")
+    private double adaptiveBulkRate;
+
     @Bean
     public NewTopic requestTopic() {
         return TopicBuilder.name(requestTopic)
-                .partitions(3)
+                .partitions(requestTopicPartitions)
                 .replicas(1)
                 .build();
     }
@@ -52,7 +178,7 @@ public class KafkaConfig {
     @Bean
     public NewTopic replyTopic() {
         return TopicBuilder.name(replyTopic)
-                .partitions(1)
+                .partitions(replyTopicPartitions)
                 .replicas(1)
                 .build();
     }
@@ -65,18 +191,101 @@ public class KafkaConfig {
                 .build();
     }
 
+    /**
+     * 우선순위 레인 토픽 (HIGH, LOW 레인, 기존 토픽과 파티션 수가 같음)
+     *
+     * @return
+     */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public KafkaAdmin.NewTopics laneTopics() {
+        if (!priorityEnabled) return new KafkaAdmin.NewTopics();
+
+        List<NewTopic> topics = new ArrayList<>();
+        for (PriorityLane lane : PriorityLane.values()) {
+            if (lane == PriorityLane.NORMAL) continue;
+            topics.add(TopicBuilder.name(lane.topic(requestTopic)).partitions(requestTopicPartitions).replicas(1).build());
+            topics.add(TopicBuilder.name(lane.topic(pushTopic)).partitions(pushTopicPartitions).replicas(1).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    /**
+     * 명령별 우선순위 레인
+     *
+     * @return
+     */
+    @Bean
+    public CommandPriorities commandPriorities() {
+        return CommandPriorities.of(priorityEnabled, priorityHigh, priorityLow);
+    }
+
+    /**
+     * 프로필별 프로듀서 (같은 프로필을 쓰는 전송 경로끼리 공유)
+     *
+     * @return
+     */
+    @Bean
+    public ProducerTemplates producerTemplates() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PayloadSerializer.class);
+        configProps.put(PayloadSerializer.CODEC_CONFIG, payloadCodec);
+        if ("consistent-hash".equals(routingPartitioner))
+            configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, ConsistentHashPartitioner.class);
+        return new ProducerTemplates(configProps);
     }
 
+    /**
+     * 라우팅 키 전략 (RoutingKeyStrategy 빈을 등록하면 대체됨)
+     *
+     * @return
+     */
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    @ConditionalOnMissingBean
+    public RoutingKeyStrategy routingKeyStrategy() {
+        return switch (routingStrategy) {
+            case "account" -> new AccountRoutingKeyStrategy();
+            case "random" -> RoutingKeyStrategy.RANDOM;
+            default -> throw new IllegalStateException("[KafkaConfig] 알 수 없는 라우팅 키 전략입니다: " + routingStrategy);
+        };
+    }
+
+    // ReplyingKafkaTemplate 용 (프로미스 요청 프로필)
+    @Bean
+    public ProducerFactory<String, Object> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerTemplates().configs(ProducerProfile.of(requestProfile)));
+    }
+
+    /**
+     * 프로미스 요청 전송 경로
+     */
+    @Bean
+    public ProducerPath requestProducer() {
+        return producerPath("request", requestProfile);
+    }
+
+    /**
+     * 봉투 전송 경로 (spring.kafka.envelope.enabled=true)
+     */
+    @Bean
+    public ProducerPath envelopeProducer() {
+        return producerPath("envelope", envelopeProfile);
+    }
+
+    /**
+     * 단방향 메세지 전송 경로
+     */
+    @Bean
+    public ProducerPath pushProducer() {
+        return producerPath("push", pushProfile);
+    }
+
+    private ProducerPath producerPath(String name, String profile) {
+        ProducerPath.Adaptive adaptive = adaptiveEnabled
+                ? new ProducerPath.Adaptive(adaptiveIntervalMs, adaptiveHighThroughputRate, adaptiveBulkRate)
+                : null;
+        return new ProducerPath(name, ProducerProfile.of(profile), producerTemplates(), adaptive);
     }
 
     // 응답 수신자 설정
@@ -86,28 +295,113 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "reply-client-group");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        // 응답은 byte[]로 받고 PromiseMessage.getDataObject에서 한번만 역직렬화함
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
+    /**
+     * 프로미스 쿼리 응답 주소 (응답 토픽, 할당된 파티션)
+     *
+     * @return
+     */
+    @Bean
+    public ReplyAddress replyAddress() {
+        if (!sharedReplyTopic) return new ReplyAddress(replyTopic + "-" + clientId, new int[0]);
+
+        int[] partitions = replyPartitions.length > 0 ? replyPartitions : instanceReplyPartitions();
+        for (int partition : partitions) {
+            if (partition < 0 || partition >= replyTopicPartitions)
+                throw new IllegalStateException("[KafkaConfig] 응답 토픽 파티션 범위를 벗어났습니다: " + partition
+                        + " (reply-topic-partitions: " + replyTopicPartitions + ")");
+        }
+        return new ReplyAddress(replyTopic, Arrays.stream(partitions).distinct().toArray());
+    }
+
+    // 인스턴스 번호로 나눈 공유 응답 토픽 파티션 (p % count == index)
+    private int[] instanceReplyPartitions() {
+        if (replyInstanceCount < 1 || replyInstanceCount > replyTopicPartitions)
+            throw new IllegalStateException("[KafkaConfig] reply-instance-count는 1 이상, reply-topic-partitions 이하여야 합니다: "
+                    + replyInstanceCount + " (reply-topic-partitions: " + replyTopicPartitions + ")");
+        if (replyInstanceIndex < 0 || replyInstanceIndex >= replyInstanceCount)
+            throw new IllegalStateException("[KafkaConfig] reply-instance-index가 범위를 벗어났습니다: "
+                    + replyInstanceIndex + " (reply-instance-count: " + replyInstanceCount + ")");
+
+        return IntStream.range(0, replyTopicPartitions)
+                .filter(p -> p % replyInstanceCount == replyInstanceIndex)
+                .toArray();
+    }
+
     // 요청-응답 패턴을 위한 ReplyingKafkaTemplate 설정
     @Bean
     public ReplyingKafkaTemplate<String, Object, Object> replyingKafkaTemplate(
-            ProducerFactory<String, Object> pf) {
+            ProducerFactory<String, Object> pf, ReplyAddress replyAddress) {
+
+        // engine 모드에서도 getReplyingKafkaTemplate()으로 사용할 수 있도록 CorrelationEngine 컨테이너와 다른 그룹으로 구독
+        boolean engine = "engine".equals(replyCorrelation);
+        ConcurrentMessageListenerContainer<String, Object> replyContainer =
+                replyContainer(replyAddress, engine ? "reply-client-template-group" : "reply-client-group");
+        replyContainer.setAutoStartup(false);
+
+        ReplyingKafkaTemplate<String, Object, Object> template = new ReplyingKafkaTemplate<>(pf, replyContainer);
+        // 공유 응답 토픽에는 다른 인스턴스의 응답도 있을 수 있음 (매칭되지 않는 응답은 debug 로그)
+        // engine 모드에서는 CorrelationEngine 요청의 응답도 함께 수신됨
+        template.setSharedReplyTopic(replyAddress.isShared() || engine);
+        return template;
+    }
+
+    /**
+     * 프로미스 쿼리 응답 상관 엔진
+     *
+     * @return
+     */
+    @Bean
+    public CorrelationEngine correlationEngine(ReplyAddress replyAddress) {
+        return new CorrelationEngine(replyAddress.getTopic(),
+                correlationMaxInFlight, correlationTickMs, correlationWheelSize);
+    }
+
+    /**
+     * CorrelationEngine의 응답 수신 컨테이너
+     * spring.kafka.reply-correlation=engine 일때만 시작합니다.
+     *
+     * @param correlationEngine
+     * @return
+     */
+    @Bean
+    public ConcurrentMessageListenerContainer<String, Object> correlationReplyContainer(
+            CorrelationEngine correlationEngine, ReplyAddress replyAddress) {
+
+        ConcurrentMessageListenerContainer<String, Object> replyContainer = replyContainer(replyAddress, "reply-client-group");
+        replyContainer.getContainerProperties().setMessageListener(correlationEngine);
+        replyContainer.setAutoStartup("engine".equals(replyCorrelation));
+
+        return replyContainer;
+    }
+
+    /**
+     * 응답 수신 컨테이너
+     * 공유 응답 토픽은 할당된 파티션을 직접 assign 하고(그룹 리밸런스 없음) 마지막 오프셋부터 읽습니다.
+     * 인스턴스 전용 토픽은 groupId로 구독합니다.
+     */
+    private ConcurrentMessageListenerContainer<String, Object> replyContainer(ReplyAddress replyAddress, String groupId) {
+        if (replyAddress.isShared()) {
+            TopicPartitionOffset[] assignments = Arrays.stream(replyAddress.getPartitions())
+                    .mapToObj(p -> new TopicPartitionOffset(replyAddress.getTopic(), p, TopicPartitionOffset.SeekPosition.END))
+                    .toArray(TopicPartitionOffset[]::new);
+            return new ConcurrentMessageListenerContainer<>(consumerFactory(), new ContainerProperties(assignments));
+        }
 
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
 
         ConcurrentMessageListenerContainer<String, Object> replyContainer =
-                factory.createContainer(replyTopic+"-"+clientId);
+                factory.createContainer(replyAddress.getTopic());
 
         //각각의 reply topic마다 동일한 group ID를 사용하는 것은 괜찮음
-        replyContainer.getContainerProperties().setGroupId("reply-client-group");
-        replyContainer.setAutoStartup(false);
-
-        return new ReplyingKafkaTemplate<>(pf, replyContainer);
+        replyContainer.getContainerProperties().setGroupId(groupId);
+        return replyContainer;
     }
 
     private static final String clientId = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
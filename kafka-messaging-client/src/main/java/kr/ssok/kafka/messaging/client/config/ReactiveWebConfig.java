@@ -0,0 +1,25 @@
+package kr.ssok.kafka.messaging.client.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 리액티브 웹 컨피그 (spring.main.web-application-type=reactive)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig {
+
+    /**
+     * 클래스패스에 톰캣도 있으므로 이벤트 루프 기반의 Netty 서버를 직접 지정합니다.
+     *
+     * @return
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+}
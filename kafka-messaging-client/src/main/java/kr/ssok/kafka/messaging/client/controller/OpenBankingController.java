@@ -1,31 +1,55 @@
 package kr.ssok.kafka.messaging.client.controller;
 
+import kr.ssok.kafka.messaging.client.service.BulkTransferService;
 import kr.ssok.kafka.messaging.client.service.OpenBankingService;
 import kr.ssok.model.TransferRequest;
 import kr.ssok.model.TransferResponse;
 import kr.ssok.model.TransferStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/openbanking")
 @RequiredArgsConstructor
 public class OpenBankingController {
 
     private final OpenBankingService openBankingService;
 
+    private final BulkTransferService bulkTransferService;
+
     @PostMapping("/transfer")
-    public ResponseEntity<TransferResponse> transferMoney(@RequestBody TransferRequest request)
+    public CompletableFuture<ResponseEntity<TransferResponse>> transferMoney(@RequestBody TransferRequest request)
+    {
+        // 응답을 기다리는 동안 요청 스레드를 반환하고, 응답 수신 시 비동기로 결과를 작성함
+        return openBankingService.processTransferAsync(request)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * 대량 송금 (NDJSON 스트리밍)
+     * 한 줄에 TransferRequest 하나씩 보내면, 처리가 끝난 순서대로 한 줄에 TransferResponse 하나씩 내려보냅니다.
+     *
+     * @param body NDJSON 요청 본문
+     * @return NDJSON 응답 스트림
+     */
+    @PostMapping(value = "/transfer/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter transferMoneyBulk(InputStream body)
     {
-        TransferResponse response = openBankingService.processTransfer_1(request);
-        return ResponseEntity.ok(response);
+        return bulkTransferService.process(body);
     }
 
     @PostMapping("/send")
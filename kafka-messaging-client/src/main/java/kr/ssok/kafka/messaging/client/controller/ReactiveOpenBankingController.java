@@ -0,0 +1,62 @@
+package kr.ssok.kafka.messaging.client.controller;
+
+import kr.ssok.kafka.messaging.client.service.ReactiveOpenBankingService;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 오픈뱅킹 컨트롤러 (WebFlux)
+ * spring.main.web-application-type=reactive 일때 OpenBankingController 대신 동작합니다.
+ * 응답을 기다리는 동안 이벤트 루프 스레드를 점유하지 않으므로 동시 요청 수가 스레드 수에 묶이지 않습니다.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/openbanking")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveOpenBankingController {
+
+    private final ReactiveOpenBankingService openBankingService;
+
+    @Value("${openbanking.bulk.max-in-flight:1000}")
+    private int bulkMaxInFlight;
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<TransferResponse>> transferMoney(@RequestBody TransferRequest request)
+    {
+        return openBankingService.processTransfer(request)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * 대량 송금 (NDJSON 스트리밍)
+     * 동시에 응답을 기다리는 요청을 max-in-flight개로 제한하고, 처리가 끝난 순서대로 내려보냅니다.
+     *
+     * @param requests NDJSON 요청 스트림
+     * @return NDJSON 응답 스트림
+     */
+    @PostMapping(value = "/transfer/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransferResponse> transferMoneyBulk(@RequestBody Flux<TransferRequest> requests)
+    {
+        return requests.flatMap(openBankingService::processTransfer, bulkMaxInFlight);
+    }
+
+    @PostMapping("/send")
+    public Mono<Void> transferMoney(@RequestParam String msg)
+    {
+        return openBankingService.sendUnidirectionalMessage(msg)
+                .onErrorComplete()
+                .then();
+    }
+
+}
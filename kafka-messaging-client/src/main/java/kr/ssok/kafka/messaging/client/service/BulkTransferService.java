@@ -0,0 +1,175 @@
+package kr.ssok.kafka.messaging.client.service;
+
+import jakarta.annotation.PreDestroy;
+import kr.ssok.model.JsonUtil;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 대량 송금 스트리밍 처리
+ * NDJSON(한 줄에 TransferRequest 하나) 요청 본문을 읽으면서 프로미스 쿼리를 연속으로 보내고,
+ * 응답이 도착하는 순서대로 TransferResponse를 NDJSON으로 내려보냅니다. (요청 순서와 다를 수 있으므로 requestId로 구분)
+ *
+ * - 동시에 대기하는 요청은 max-in-flight개로 제한 (요청 수와 관계없이 메모리 사용량 일정)
+ * - 요청 읽기와 응답 쓰기는 스트림마다 별도 스레드에서 수행 (응답 수신 스레드에서 네트워크 쓰기를 하지 않음)
+ * - 해석할 수 없는 줄은 FAILED 응답으로 내려보내고 계속 진행
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class BulkTransferService {
+
+    private static final byte NEWLINE = '\n';
+
+    // 요청 읽기 종료 표시 (응답 쓰기 스레드를 깨우기 위함)
+    private static final TransferResponse END = new TransferResponse();
+
+    private final OpenBankingService openBankingService;
+
+    @Value("${openbanking.bulk.max-in-flight:1000}")
+    private int maxInFlight;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "bulk-transfer-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * 대량 송금 스트림을 시작합니다.
+     *
+     * @param body NDJSON 요청 본문
+     * @return NDJSON 응답 스트림
+     */
+    public ResponseBodyEmitter process(InputStream body) {
+        // 스트림 전체 처리 시간은 요청 수에 비례하므로 비동기 요청 타임아웃을 적용하지 않음 (개별 요청은 프로미스 타임아웃)
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        BulkStream stream = new BulkStream(body, emitter);
+        stream.reader = executor.submit(stream::read);
+        executor.execute(stream::write);
+        return emitter;
+    }
+
+    private static TransferResponse invalidLine(int line, Exception e) {
+        return TransferResponse.builder()
+                .requestId("line-" + line)
+                .status(TransferStatus.FAILED)
+                .message("Invalid request: " + e.getMessage())
+                .processedTime(LocalDateTime.now())
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private final class BulkStream {
+        private final InputStream body;
+        private final ResponseBodyEmitter emitter;
+
+        private final Semaphore window = new Semaphore(maxInFlight);
+        private final BlockingQueue<TransferResponse> completed = new LinkedBlockingQueue<>();
+        // 읽기가 끝나면 보낸 요청 수, 그 전에는 -1
+        private volatile int total = -1;
+        private volatile Future<?> reader;
+
+        BulkStream(InputStream body, ResponseBodyEmitter emitter) {
+            this.body = body;
+            this.emitter = emitter;
+        }
+
+        void read() {
+            int submitted = 0;
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.isBlank()) continue;
+
+                    window.acquire();
+                    submitted++;
+
+                    TransferRequest request;
+                    try {
+                        request = JsonUtil.readerFor(TransferRequest.class).readValue(line);
+                    } catch (IOException e) {
+                        completed.add(invalidLine(submitted, e));
+                        continue;
+                    }
+                    openBankingService.processTransferAsync(request).thenAccept(completed::add);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log.warn("[BulkTransfer] 요청 본문 읽기 실패, {}건까지 처리", submitted, e);
+            } finally {
+                total = submitted;
+                completed.add(END);
+            }
+        }
+
+        void write() {
+            int written = 0;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try {
+                while (total < 0 || written < total) {
+                    TransferResponse response = completed.take();
+
+                    // 이미 도착한 응답은 모아서 한번에 전송
+                    int pending = 0;
+                    do {
+                        if (response == END) continue;
+                        JsonUtil.writerFor(TransferResponse.class).writeValue(buffer, response);
+                        buffer.write(NEWLINE);
+                        pending++;
+                    } while ((response = completed.poll()) != null);
+
+                    if (pending > 0) {
+                        emitter.send(buffer.toByteArray(), MediaType.APPLICATION_NDJSON);
+                        buffer.reset();
+                        written += pending;
+                        window.release(pending);
+                    }
+                }
+                emitter.complete();
+                log.info("[BulkTransfer] {}건 처리 완료", written);
+            } catch (Exception e) {
+                log.warn("[BulkTransfer] 응답 전송 실패, {}건까지 전송", written, e);
+                Future<?> reader = this.reader;
+                if (reader != null) reader.cancel(true);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+}
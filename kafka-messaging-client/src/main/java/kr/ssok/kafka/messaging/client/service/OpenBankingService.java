@@ -20,6 +20,8 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -74,6 +76,45 @@ public class OpenBankingService {
         }
     }
 
+    /**
+     * 1-1. KafkaCommModule의 sendPromiseQuery를 비동기로 사용하는 방식
+     * 응답을 기다리는 동안 호출 스레드를 점유하지 않습니다.
+     *
+     * @param request
+     * @return
+     */
+    public CompletableFuture<TransferResponse> processTransferAsync(TransferRequest request) {
+        try {
+
+            // 요청 ID 생성 (없는 경우)
+            if (request.getRequestId() == null) {
+                request.setRequestId(UUID.randomUUID().toString());
+            }
+
+            // 요청 시간 설정
+            request.setRequestTime(LocalDateTime.now());
+
+            // sendPromiseQuery 호출 후 응답 데이터로 변환
+            return this.commModule.sendPromiseQuery(CommunicationProtocol.REQUEST_DEPOSIT, request, 30)
+                    .getAsync(TransferResponse.class)
+                    .exceptionally(e -> failedResponse(request, e));
+
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failedResponse(request, e));
+        }
+    }
+
+    private TransferResponse failedResponse(TransferRequest request, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Error processing Promise", cause);
+        return TransferResponse.builder()
+                .requestId(request.getRequestId())
+                .status(TransferStatus.FAILED)
+                .message("Failed to Promise: " + cause.getMessage())
+                .processedTime(LocalDateTime.now())
+                .build();
+    }
+
     /**
      * 2. KafkaCommModule을 사용하지 않는 방식 (legacy)
      *
@@ -106,7 +147,7 @@ public class OpenBankingService {
 
             // 응답 대기 및 처리
             ConsumerRecord<String, Object> response = future.get();
-            TransferResponse result = (TransferResponse) response.value();
+            TransferResponse result = new PromiseMessage(response).getDataObject(TransferResponse.class);
 
             log.info("Received transfer response: {}", result);
             return result;
@@ -0,0 +1,76 @@
+package kr.ssok.kafka.messaging.client.service;
+
+import kr.ssok.kafka.messaging.client.comm.reactive.ReactiveKafkaCommModule;
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 오픈뱅킹 서비스 (리액티브)
+ * OpenBankingService와 같은 송금/단방향 메세지를 ReactiveKafkaCommModule로 처리합니다.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveOpenBankingService {
+
+    private final ReactiveKafkaCommModule commModule;
+
+    /**
+     * 송금 요청
+     * 처리에 실패하면 FAILED 응답으로 완료합니다.
+     *
+     * @param request
+     * @return
+     */
+    public Mono<TransferResponse> processTransfer(TransferRequest request) {
+        return Mono.defer(() -> {
+
+            // 요청 ID 생성 (없는 경우)
+            if (request.getRequestId() == null) {
+                request.setRequestId(UUID.randomUUID().toString());
+            }
+
+            // 요청 시간 설정
+            request.setRequestTime(LocalDateTime.now());
+
+            return this.commModule.sendPromiseQuery(CommunicationProtocol.REQUEST_DEPOSIT, request, 30)
+                    .map(msg -> msg.getDataObject(TransferResponse.class));
+
+        }).onErrorResume(e -> Mono.just(failedResponse(request, e)));
+    }
+
+    private TransferResponse failedResponse(TransferRequest request, Throwable e) {
+        log.error("Error processing Promise", e);
+        return TransferResponse.builder()
+                .requestId(request.getRequestId())
+                .status(TransferStatus.FAILED)
+                .message("Failed to Promise: " + e.getMessage())
+                .processedTime(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 단방향으로 메세지를 전송합니다.
+     *
+     * @param message
+     * @return
+     */
+    public Mono<SendResult<String, Object>> sendUnidirectionalMessage(String message) {
+        return this.commModule.sendMessage(CommunicationProtocol.SEND_TEST_MESSAGE, message)
+                .doOnSuccess(result -> log.info("메시지 전송 성공!"))
+                .doOnError(e -> log.error("메시지 전송 실패: ", e));
+    }
+
+}
@@ -0,0 +1,166 @@
+package kr.ssok.kafka.messaging.client.comm.correlation;
+
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.EnvelopeCodec;
+import kr.ssok.model.EnvelopeEntry;
+import kr.ssok.model.MessageHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 응답 상관 엔진 테스트 (응답 매칭, 타이밍 휠 만료, 동시 대기 상한, 취소, 늦은 응답, 봉투 응답)
+ */
+class CorrelationEngineTest {
+
+    private static final String REPLY_TOPIC = "replies";
+
+    // tick 10ms, 버킷 8개 (한 바퀴 80ms)
+    private final CorrelationEngine engine = new CorrelationEngine(REPLY_TOPIC, 4, 10, 8);
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+    }
+
+    @Test
+    void replyCompletesPendingRequest() throws Exception {
+        PendingReply reply = engine.register(10, TimeUnit.SECONDS);
+        assertThat(engine.getInFlightCount()).isEqualTo(1);
+
+        ConsumerRecord<String, Object> record = reply(reply.getCorrelationIdBytes(), "ok");
+        engine.onMessage(record);
+
+        assertThat(reply.getFuture().get(1, TimeUnit.SECONDS)).isSameAs(record);
+        assertThat(engine.getInFlightCount()).isZero();
+        assertThat(engine.getCompletedCount()).isEqualTo(1);
+
+        // 같은 응답이 다시 오거나 상관 ID 헤더가 없으면 대기 요청 없음
+        engine.onMessage(reply(reply.getCorrelationIdBytes(), "ok"));
+        engine.onMessage(reply(null, "ok"));
+        assertThat(engine.getUnmatchedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void pendingRequestExpires() {
+        PendingReply reply = engine.register(30, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> reply.getFuture().get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(KafkaReplyTimeoutException.class);
+        assertThat(engine.getInFlightCount()).isZero();
+        assertThat(engine.getTimeoutCount()).isEqualTo(1);
+        assertThat(engine.getTimeoutRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    void timeoutLongerThanWheelRoundWaitsForLaterRound() throws Exception {
+        // 휠 한 바퀴(80ms)보다 긴 타임아웃은 같은 버킷을 여러 번 지나간 뒤 만료
+        PendingReply reply = engine.register(250, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(120);
+        assertThat(reply.getFuture()).isNotDone();
+
+        assertThatThrownBy(() -> reply.getFuture().get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(KafkaReplyTimeoutException.class);
+    }
+
+    @Test
+    void inFlightLimitRejectsNewRequests() {
+        List<PendingReply> replies = new ArrayList<>();
+        for (int i = 0; i < 4; i++) replies.add(engine.register(10, TimeUnit.SECONDS));
+
+        assertThatThrownBy(() -> engine.register(10, TimeUnit.SECONDS)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(engine.getRejectedCount()).isEqualTo(1);
+        assertThat(engine.getInFlightCount()).isEqualTo(4);
+
+        // 응답을 받으면 다시 등록 가능
+        engine.onMessage(reply(replies.get(0).getCorrelationIdBytes(), "ok"));
+        assertThat(engine.register(10, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void failedSendCancelsPendingRequest() {
+        PendingReply reply = engine.register(30, TimeUnit.MILLISECONDS);
+        IllegalStateException cause = new IllegalStateException("send failed");
+
+        engine.fail(reply, cause);
+        engine.fail(reply, new IllegalStateException("again"));
+
+        assertThatThrownBy(() -> reply.getFuture().get(1, TimeUnit.SECONDS)).hasCause(cause);
+        assertThat(engine.getInFlightCount()).isZero();
+        assertThat(engine.getTimeoutCount()).isZero();
+    }
+
+    @Test
+    void replyAfterDeadlineIsTimeout() {
+        PendingReply reply = engine.register(10, TimeUnit.SECONDS);
+
+        ConsumerRecord<String, Object> record = reply(reply.getCorrelationIdBytes(), "ok");
+        record.headers().add(MessageHeaders.DEADLINE, MessageHeaders.toBytes(System.currentTimeMillis() - 1));
+        engine.onMessage(record);
+
+        assertThatThrownBy(() -> reply.getFuture().get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(KafkaReplyTimeoutException.class);
+        assertThat(engine.getLateCount()).isEqualTo(1);
+        assertThat(engine.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void envelopeReplyCompletesEachEntry() throws Exception {
+        PendingReply first = engine.register(10, TimeUnit.SECONDS);
+        PendingReply second = engine.register(10, TimeUnit.SECONDS);
+
+        byte[] envelope = EnvelopeCodec.encode(List.of(
+                new EnvelopeEntry(second.getCorrelationId(), null, "second".getBytes(StandardCharsets.UTF_8)),
+                new EnvelopeEntry(first.getCorrelationId(), null, "first".getBytes(StandardCharsets.UTF_8))));
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(REPLY_TOPIC, 0, 0, null, envelope);
+        record.headers().add("CMD", CommunicationProtocol.ENVELOPE.getBytes(StandardCharsets.UTF_8));
+        engine.onMessage(record);
+
+        assertThat((byte[]) first.getFuture().get(1, TimeUnit.SECONDS).value()).isEqualTo("first".getBytes(StandardCharsets.UTF_8));
+        assertThat((byte[]) second.getFuture().get(1, TimeUnit.SECONDS).value()).isEqualTo("second".getBytes(StandardCharsets.UTF_8));
+        assertThat(engine.getCompletedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void manyPendingRequestsCompleteInAnyOrder() throws Exception {
+        CorrelationEngine large = new CorrelationEngine(REPLY_TOPIC, 100_000, 10, 1024);
+        try {
+            List<PendingReply> replies = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) replies.add(large.register(60, TimeUnit.SECONDS));
+
+            // 테이블 확장과 삭제(역방향 이동)가 섞여도 모든 응답이 자기 요청을 찾음
+            Collections.shuffle(replies);
+            for (PendingReply reply : replies) large.onMessage(reply(reply.getCorrelationIdBytes(), reply.getCorrelationId()));
+            for (PendingReply reply : replies) {
+                assertThat(reply.getFuture().get(1, TimeUnit.SECONDS).value()).isEqualTo(reply.getCorrelationId());
+            }
+            assertThat(large.getInFlightCount()).isZero();
+            assertThat(large.getUnmatchedCount()).isZero();
+        } finally {
+            large.destroy();
+        }
+    }
+
+    private static ConsumerRecord<String, Object> reply(byte[] correlationId, Object value) {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(REPLY_TOPIC, 0, 0, null, value);
+        if (correlationId != null) record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId);
+        return record;
+    }
+
+}
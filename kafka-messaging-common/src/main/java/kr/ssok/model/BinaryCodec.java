@@ -0,0 +1,346 @@
+package kr.ssok.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 모델 바이너리 코덱 (TransferRequest, TransferResponse)
+ * JSON 대신 필드 이름 없이 값만 순서대로 기록하는 압축 형식입니다. (content-type: PayloadCodec.BINARY)
+ *
+ * [magic:1][version:1][type:1][presence:1] + presence 비트가 켜진(null이 아닌) 필드만 순서대로
+ * - ID: [kind:1] + 소문자 UUID 문자열이면 16 bytes, 아니면 문자열
+ * - 문자열: [length:varint][UTF-8]
+ * - 금액: [zigzag(scale) << 1 | big:varint] + unscaled 값 (zigzag varlong, long을 넘으면 [length:varint][2의 보수 bytes])
+ * - 시각: LocalDateTime을 UTC로 간주한 epoch micros (8 bytes, 시간대 변환 없이 그대로 복원, 마이크로초 미만은 버림)
+ * - 상태: 코드 1 byte (STATUSES의 순서, enum 선언 순서와 무관)
+ *
+ * 스키마 버전 (롤링 업그레이드)
+ * - 새 필드는 마지막 필드 뒤와 presence의 다음 비트에만 추가하고 version을 올림
+ * - 디코더는 아는 필드까지만 읽고 나머지 비트와 바이트는 무시하므로, 구버전 서버/클라이언트도 새 버전 메세지를 읽을 수 있음
+ * - magic(0xB1)은 UTF-8 문자의 첫 바이트가 될 수 없으므로 JSON 페이로드와 구분됨
+ *
+ * 잘리거나 손상된 메세지는 IllegalArgumentException으로 거부합니다. (모든 읽기에서 남은 길이 확인)
+ */
+public final class BinaryCodec {
+
+    private static final byte MAGIC = (byte) 0xB1;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 4;
+
+    private static final byte TYPE_TRANSFER_REQUEST = 1;
+    private static final byte TYPE_TRANSFER_RESPONSE = 2;
+
+    private static final byte ID_UUID = 0;
+    private static final byte ID_STRING = 1;
+
+    private static final TransferStatus[] STATUSES = {TransferStatus.SUCCESS, TransferStatus.FAILED, TransferStatus.PENDING};
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * @return 바이너리 코덱으로 직렬화할 수 있는 타입이면 true
+     */
+    public static boolean supports(Class<?> type) {
+        return type == TransferRequest.class || type == TransferResponse.class;
+    }
+
+    /**
+     * @return 바이너리 코덱으로 직렬화된 바이트이면 true
+     */
+    public static boolean isEncoded(byte[] value) {
+        return value != null && value.length >= HEADER_SIZE && value[0] == MAGIC && value[1] >= 1;
+    }
+
+    public static byte[] encode(Object value) {
+        if (value instanceof TransferRequest request) return encode(request);
+        if (value instanceof TransferResponse response) return encode(response);
+        throw new IllegalArgumentException("[BinaryCodec] 지원하지 않는 타입입니다: "
+                + (value == null ? null : value.getClass().getName()));
+    }
+
+    public static <T> T decode(byte[] value, Class<T> type) {
+        if (!isEncoded(value))
+            throw new IllegalArgumentException("[BinaryCodec] 바이너리 메세지 형식이 아닙니다.");
+
+        Input in = new Input(value, HEADER_SIZE);
+        int presence = value[3] & 0xff;
+        if (type == TransferRequest.class && value[2] == TYPE_TRANSFER_REQUEST)
+            return type.cast(readTransferRequest(in, presence));
+        if (type == TransferResponse.class && value[2] == TYPE_TRANSFER_RESPONSE)
+            return type.cast(readTransferResponse(in, presence));
+        throw new IllegalArgumentException("[BinaryCodec] 메세지 타입(" + value[2] + ")을 " + type.getName() + "(으)로 변환할 수 없습니다.");
+    }
+
+    public static byte[] encode(TransferRequest request) {
+        Output out = new Output(128);
+        int presence = presence(request.getRequestId(), request.getFromAccount(), request.getToAccount(),
+                request.getAmount(), request.getCurrency(), request.getDescription(), request.getRequestTime());
+        out.header(TYPE_TRANSFER_REQUEST, presence);
+
+        if (request.getRequestId() != null) out.id(request.getRequestId());
+        if (request.getFromAccount() != null) out.string(request.getFromAccount());
+        if (request.getToAccount() != null) out.string(request.getToAccount());
+        if (request.getAmount() != null) out.decimal(request.getAmount());
+        if (request.getCurrency() != null) out.string(request.getCurrency());
+        if (request.getDescription() != null) out.string(request.getDescription());
+        if (request.getRequestTime() != null) out.time(request.getRequestTime());
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(TransferResponse response) {
+        Output out = new Output(96);
+        int presence = presence(response.getRequestId(), response.getTransactionId(), response.getStatus(),
+                response.getMessage(), response.getProcessedTime());
+        out.header(TYPE_TRANSFER_RESPONSE, presence);
+
+        if (response.getRequestId() != null) out.id(response.getRequestId());
+        if (response.getTransactionId() != null) out.id(response.getTransactionId());
+        if (response.getStatus() != null) out.status(response.getStatus());
+        if (response.getMessage() != null) out.string(response.getMessage());
+        if (response.getProcessedTime() != null) out.time(response.getProcessedTime());
+        return out.toByteArray();
+    }
+
+    private static TransferRequest readTransferRequest(Input in, int presence) {
+        TransferRequest request = new TransferRequest();
+        if ((presence & 1) != 0) request.setRequestId(in.id());
+        if ((presence & 1 << 1) != 0) request.setFromAccount(in.string());
+        if ((presence & 1 << 2) != 0) request.setToAccount(in.string());
+        if ((presence & 1 << 3) != 0) request.setAmount(in.decimal());
+        if ((presence & 1 << 4) != 0) request.setCurrency(in.string());
+        if ((presence & 1 << 5) != 0) request.setDescription(in.string());
+        if ((presence & 1 << 6) != 0) request.setRequestTime(in.time());
+        return request;
+    }
+
+    private static TransferResponse readTransferResponse(Input in, int presence) {
+        TransferResponse response = new TransferResponse();
+        if ((presence & 1) != 0) response.setRequestId(in.id());
+        if ((presence & 1 << 1) != 0) response.setTransactionId(in.id());
+        if ((presence & 1 << 2) != 0) response.setStatus(in.status());
+        if ((presence & 1 << 3) != 0) response.setMessage(in.string());
+        if ((presence & 1 << 4) != 0) response.setProcessedTime(in.time());
+        return response;
+    }
+
+    private static int presence(Object... fields) {
+        int presence = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) presence |= 1 << i;
+        }
+        return presence;
+    }
+
+    private static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void header(byte type, int presence) {
+            ensure(HEADER_SIZE);
+            buffer[position++] = MAGIC;
+            buffer[position++] = VERSION;
+            buffer[position++] = type;
+            buffer[position++] = (byte) presence;
+        }
+
+        void id(String id) {
+            // UUID.toString()과 같은 표기일 때만 16 bytes로 기록 (대문자 등은 원래 문자열로 복원되도록 문자열로 기록)
+            if (isUuid(id)) {
+                ensure(1 + 16);
+                buffer[position++] = ID_UUID;
+                putLong(parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18));
+                putLong(parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36));
+                return;
+            }
+            ensure(1);
+            buffer[position++] = ID_STRING;
+            string(id);
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void decimal(BigDecimal value) {
+            BigInteger unscaled = value.unscaledValue();
+            boolean big = unscaled.bitLength() > 63;
+            varint(zigzag(value.scale()) << 1 | (big ? 1 : 0));
+            if (!big) {
+                varint(zigzag(unscaled.longValue()));
+                return;
+            }
+            byte[] bytes = unscaled.toByteArray();
+            varint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void time(LocalDateTime time) {
+            ensure(Long.BYTES);
+            putLong(Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), MICROS_PER_SECOND),
+                    time.getNano() / 1_000));
+        }
+
+        void status(TransferStatus status) {
+            for (int code = 0; code < STATUSES.length; code++) {
+                if (STATUSES[code] == status) {
+                    ensure(1);
+                    buffer[position++] = (byte) code;
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("[BinaryCodec] 코드가 없는 상태입니다: " + status);
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void putLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) buffer[position++] = (byte) (value >>> shift);
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        String id() {
+            check(1);
+            byte kind = buffer[position++];
+            if (kind == ID_STRING) return string();
+            if (kind != ID_UUID) throw new IllegalArgumentException("[BinaryCodec] 알 수 없는 ID 형식입니다: " + kind);
+            long msb = getLong();
+            long lsb = getLong();
+            return new UUID(msb, lsb).toString();
+        }
+
+        String string() {
+            int length = (int) varint();
+            check(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        BigDecimal decimal() {
+            long head = varint();
+            int scale = (int) unzigzag(head >>> 1);
+            if ((head & 1) == 0) return BigDecimal.valueOf(unzigzag(varint()), scale);
+
+            int length = (int) varint();
+            check(length);
+            BigInteger unscaled = new BigInteger(buffer, position, length);
+            position += length;
+            return new BigDecimal(unscaled, scale);
+        }
+
+        LocalDateTime time() {
+            long micros = getLong();
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                    (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+        }
+
+        TransferStatus status() {
+            check(1);
+            int code = buffer[position++] & 0xff;
+            if (code >= STATUSES.length) throw new IllegalArgumentException("[BinaryCodec] 알 수 없는 상태 코드입니다: " + code);
+            return STATUSES[code];
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                check(1);
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IllegalArgumentException("[BinaryCodec] varint 형식이 잘못되었습니다.");
+        }
+
+        private long getLong() {
+            check(Long.BYTES);
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) value = value << 8 | (buffer[position++] & 0xff);
+            return value;
+        }
+
+        private void check(int length) {
+            if (length < 0 || length > buffer.length - position)
+                throw new IllegalArgumentException("[BinaryCodec] 메세지 길이가 잘못되었습니다.");
+        }
+
+    }
+
+    // UUID.toString() 표기 (8-4-4-4-12, 소문자 16진수)
+    private static boolean isUuid(String value) {
+        if (value.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            result = result << 4 | (c <= '9' ? c - '0' : c - 'a' + 10);
+        }
+        return result;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
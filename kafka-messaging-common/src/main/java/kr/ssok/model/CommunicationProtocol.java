@@ -6,4 +6,7 @@ public class CommunicationProtocol {
     public static final String REQUEST_WITHDRAW = "kr.ssok.kafka.messaging.request.withdraw";
     public static final String SEND_TEST_MESSAGE = "kr.ssok.kafka.messaging.test.message";
 
+    // 여러 프로미스 쿼리를 하나의 레코드로 묶은 봉투 메세지 (EnvelopeCodec)
+    public static final String ENVELOPE = "kr.ssok.kafka.messaging.envelope";
+
 }
@@ -0,0 +1,82 @@
+package kr.ssok.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 봉투 메세지 코덱
+ * 여러 요청/응답 항목을 하나의 카프카 레코드 value로 묶습니다.
+ *
+ * [magic:1][version:1][count:4] + count * ([correlationId:8][cmdLength:2][cmd][payloadLength:4][payload])
+ * cmdLength, payloadLength가 -1이면 null
+ */
+public class EnvelopeCodec {
+
+    private static final byte MAGIC = 'E';
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final int ENTRY_OVERHEAD = Long.BYTES + Short.BYTES + Integer.BYTES;
+
+    private EnvelopeCodec() {
+    }
+
+    /**
+     * 항목 하나가 봉투에서 차지하는 바이트 수
+     */
+    public static int sizeOf(EnvelopeEntry entry) {
+        return ENTRY_OVERHEAD + length(entry.getCmd()) + length(entry.getPayload());
+    }
+
+    public static byte[] encode(List<EnvelopeEntry> entries) {
+        int size = HEADER_SIZE;
+        for (EnvelopeEntry entry : entries) size += sizeOf(entry);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC).put(VERSION).putInt(entries.size());
+        for (EnvelopeEntry entry : entries) {
+            buffer.putLong(entry.getCorrelationId());
+
+            byte[] cmd = entry.getCmd();
+            buffer.putShort((short) (cmd == null ? -1 : cmd.length));
+            if (cmd != null) buffer.put(cmd);
+
+            byte[] payload = entry.getPayload();
+            buffer.putInt(payload == null ? -1 : payload.length);
+            if (payload != null) buffer.put(payload);
+        }
+        return buffer.array();
+    }
+
+    public static List<EnvelopeEntry> decode(byte[] envelope) {
+        if (!isEnvelope(envelope))
+            throw new IllegalArgumentException("[EnvelopeCodec] 봉투 메세지 형식이 아닙니다.");
+
+        ByteBuffer buffer = ByteBuffer.wrap(envelope, 2, envelope.length - 2);
+        int count = buffer.getInt();
+        List<EnvelopeEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long correlationId = buffer.getLong();
+            byte[] cmd = read(buffer, buffer.getShort());
+            byte[] payload = read(buffer, buffer.getInt());
+            entries.add(new EnvelopeEntry(correlationId, cmd, payload));
+        }
+        return entries;
+    }
+
+    public static boolean isEnvelope(byte[] value) {
+        return value != null && value.length >= HEADER_SIZE && value[0] == MAGIC && value[1] == VERSION;
+    }
+
+    private static byte[] read(ByteBuffer buffer, int length) {
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+}
@@ -0,0 +1,16 @@
+package kr.ssok.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 봉투 메세지 항목
+ * 요청 항목은 상관 ID, CMD, 페이로드를 가지며 응답 항목은 CMD 없이 상관 ID와 페이로드만 가집니다.
+ */
+@Getter
+@AllArgsConstructor
+public class EnvelopeEntry {
+    private final long correlationId;
+    private final byte[] cmd;
+    private final byte[] payload;
+}
@@ -0,0 +1,32 @@
+package kr.ssok.model;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 카프카 Value Serializer
+ * DTO 객체는 JSON 바이트로 한번만 직렬화하고, byte[]와 String은 그대로 전송합니다.
+ * (수신측은 ByteArrayDeserializer로 받은 뒤 JsonUtil.fromJsonBytes로 변환)
+ */
+public class JsonBytesSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return toBytes(data);
+    }
+
+    /**
+     * 카프카 레코드 value와 동일한 규칙으로 바이트 배열로 변환합니다.
+     *
+     * @param data 객체
+     * @return 바이트 배열
+     */
+    public static byte[] toBytes(Object data) {
+        if (data == null) return null;
+        if (data instanceof byte[] bytes) return bytes;
+        if (data instanceof String str) return str.getBytes(StandardCharsets.UTF_8);
+        return JsonUtil.toJsonBytes(data);
+    }
+
+}
@@ -2,9 +2,14 @@ package kr.ssok.model;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.NoArgsConstructor;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * JsonUtil 클래스
  *
@@ -13,6 +18,10 @@ import lombok.NoArgsConstructor;
 public class JsonUtil {
     private static final ObjectMapper OBJECT_MAPPER;
 
+    // 타입별 Reader/Writer 캐시 (타입 정보 조회 비용 절감)
+    private static final ConcurrentMap<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
     static {
         OBJECT_MAPPER = new ObjectMapper();
         OBJECT_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -34,4 +43,56 @@ public class JsonUtil {
             throw new RuntimeException("[JsonUtil] JSON 파싱 실패", e);
         }
     }
+
+    /**
+     * 객체를 UTF-8 JSON 바이트 배열로 변환합니다.
+     * 중간 String을 생성하지 않습니다.
+     *
+     * @param object 객체
+     * @return JSON 바이트 배열
+     */
+    public static byte[] toJsonBytes(Object object) {
+        try {
+            return writerFor(object.getClass()).writeValueAsBytes(object);
+        } catch (Exception e) {
+            throw new RuntimeException("[JsonUtil] JSON 변환 실패", e);
+        }
+    }
+
+    /**
+     * UTF-8 JSON 바이트 배열을 객체로 변환합니다.
+     * 이전 버전에서 JSON 문자열로 한번 더 감싸서 보낸 페이로드("{\"...\"}")도 처리합니다.
+     *
+     * @param json      JSON 바이트 배열
+     * @param valueType 변환할 타입
+     * @return 객체
+     */
+    public static <T> T fromJsonBytes(byte[] json, Class<T> valueType) {
+        try {
+            ObjectReader reader = readerFor(valueType);
+            if (valueType != String.class && isQuotedJson(json)) {
+                String inner = readerFor(String.class).readValue(json);
+                return reader.readValue(inner);
+            }
+            return reader.readValue(json);
+        } catch (Exception e) {
+            throw new RuntimeException("[JsonUtil] JSON 파싱 실패", e);
+        }
+    }
+
+    public static ObjectReader readerFor(Class<?> valueType) {
+        return READERS.computeIfAbsent(valueType, OBJECT_MAPPER::readerFor);
+    }
+
+    public static ObjectWriter writerFor(Class<?> valueType) {
+        return WRITERS.computeIfAbsent(valueType, OBJECT_MAPPER::writerFor);
+    }
+
+    private static boolean isQuotedJson(byte[] json) {
+        for (byte b : json) {
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') continue;
+            return b == '"';
+        }
+        return false;
+    }
 }
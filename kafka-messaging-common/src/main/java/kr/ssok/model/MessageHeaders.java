@@ -0,0 +1,28 @@
+package kr.ssok.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 클라이언트/서버 공통 카프카 헤더
+ */
+public class MessageHeaders {
+
+    // 요청 처리 기한 (epoch millis, 8 bytes big-endian), 지나면 서버는 처리하지 않고 버림
+    public static final String DEADLINE = "DEADLINE";
+
+    private MessageHeaders() {
+    }
+
+    public static byte[] toBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    /**
+     * @return 8 bytes가 아니면 -1
+     */
+    public static long toLong(byte[] value) {
+        if (value == null || value.length != Long.BYTES) return -1;
+        return ByteBuffer.wrap(value).getLong();
+    }
+
+}
@@ -0,0 +1,73 @@
+package kr.ssok.model;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 페이로드 코덱 협상
+ * 메세지마다 CONTENT_TYPE 헤더로 페이로드 형식(JSON / 바이너리)을 알립니다.
+ *
+ * - 헤더가 없으면 JSON (기존 클라이언트/서버와 호환)
+ * - 서버는 요청과 같은 형식으로 응답 (요청의 CONTENT_TYPE 헤더를 응답에 복사)
+ * - 바이너리 코덱이 지원하지 않는 타입은 바이너리를 요청해도 JSON으로 직렬화하고 헤더를 지움
+ * - 롤링 업그레이드: 서버를 먼저 배포한 뒤 클라이언트에서 바이너리를 켬 (spring.kafka.payload-codec=binary)
+ */
+public final class PayloadCodec {
+
+    // 페이로드 형식 헤더 (UTF-8 문자열)
+    public static final String CONTENT_TYPE = "CONTENT_TYPE";
+
+    public static final String JSON = "application/json";
+    public static final String BINARY = "application/x-ssok-binary";
+
+    private static final byte[] BINARY_BYTES = BINARY.getBytes(StandardCharsets.UTF_8);
+
+    private PayloadCodec() {
+    }
+
+    /**
+     * @return CONTENT_TYPE 헤더가 바이너리이면 true
+     */
+    public static boolean isBinary(Headers headers) {
+        Header header = headers.lastHeader(CONTENT_TYPE);
+        return header != null && Arrays.equals(header.value(), BINARY_BYTES);
+    }
+
+    /**
+     * 바이너리 형식임을 헤더에 기록합니다.
+     */
+    public static void markBinary(Headers headers) {
+        headers.remove(CONTENT_TYPE);
+        headers.add(CONTENT_TYPE, BINARY_BYTES);
+    }
+
+    /**
+     * 객체를 페이로드 바이트로 변환합니다.
+     *
+     * @param data   객체
+     * @param binary 바이너리 형식 요청 여부 (지원하지 않는 타입은 JSON)
+     * @return 바이트 배열
+     */
+    public static byte[] encode(Object data, boolean binary) {
+        if (binary && data != null && BinaryCodec.supports(data.getClass())) return BinaryCodec.encode(data);
+        return JsonBytesSerializer.toBytes(data);
+    }
+
+    /**
+     * 페이로드 바이트를 객체로 변환합니다.
+     * 바이너리 헤더가 있어도 항목이 JSON일 수 있으므로(봉투의 미지원 타입) 바이트의 magic으로 한번 더 확인합니다.
+     *
+     * @param payload   페이로드
+     * @param valueType 타입
+     * @param binary    CONTENT_TYPE 헤더가 바이너리인지 여부
+     * @return 객체
+     */
+    public static <T> T decode(byte[] payload, Class<T> valueType, boolean binary) {
+        if (binary && BinaryCodec.isEncoded(payload)) return BinaryCodec.decode(payload, valueType);
+        return JsonUtil.fromJsonBytes(payload, valueType);
+    }
+
+}
@@ -0,0 +1,49 @@
+package kr.ssok.model;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * 카프카 Value Serializer (코덱 협상)
+ * JsonBytesSerializer와 같지만, 레코드의 CONTENT_TYPE 헤더에 따라 DTO를 바이너리 코덱으로 직렬화합니다.
+ *
+ * - 헤더가 바이너리이면 바이너리 (서버 응답: 요청의 헤더가 복사되어 있음)
+ * - 헤더가 없고 payload.codec=binary 이면 바이너리로 직렬화하고 헤더를 추가 (클라이언트 요청)
+ * - byte[]와 String은 그대로 전송하고 헤더는 호출자가 붙인 그대로 둠 (봉투 등)
+ */
+public class PayloadSerializer implements Serializer<Object> {
+
+    // 프로듀서 설정: 헤더가 없는 DTO의 기본 형식 (json / binary)
+    public static final String CODEC_CONFIG = "payload.codec";
+
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object codec = configs.get(CODEC_CONFIG);
+        this.binary = codec != null && "binary".equalsIgnoreCase(codec.toString());
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return JsonBytesSerializer.toBytes(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null || data instanceof byte[] || data instanceof String || headers == null)
+            return JsonBytesSerializer.toBytes(data);
+
+        boolean requested = PayloadCodec.isBinary(headers) || (binary && headers.lastHeader(PayloadCodec.CONTENT_TYPE) == null);
+        if (requested && BinaryCodec.supports(data.getClass())) {
+            PayloadCodec.markBinary(headers);
+            return BinaryCodec.encode(data);
+        }
+
+        if (requested) headers.remove(PayloadCodec.CONTENT_TYPE);
+        return JsonUtil.toJsonBytes(data);
+    }
+
+}
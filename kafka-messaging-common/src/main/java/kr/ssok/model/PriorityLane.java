@@ -0,0 +1,51 @@
+package kr.ssok.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * 우선순위 레인
+ * 클라이언트는 명령(CMD)의 레인에 따라 요청/단방향 메세지를 레인별 토픽으로 보내고,
+ * 서버는 높은 레인에 처리 대기가 있으면 낮은 레인 토픽을 가중치만큼만 읽습니다.
+ *
+ * - HIGH : {topic}-high (출금 등 지연시간이 중요한 요청)
+ * - NORMAL : {topic} (기존 토픽, 레인을 사용하지 않을 때와 같음)
+ * - LOW : {topic}-low (테스트 메세지 등 지연되어도 되는 메세지)
+ *
+ * 레인 토픽은 기존 토픽과 파티션 수가 같아야 같은 계좌가 같은 원장 샤드로 라우팅됩니다.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PriorityLane {
+
+    HIGH("-high"),
+    NORMAL(""),
+    LOW("-low");
+
+    private final String suffix;
+
+    /**
+     * @param baseTopic 기존 토픽 (spring.kafka.request-topic, spring.kafka.push-topic)
+     * @return 레인 토픽
+     */
+    public String topic(String baseTopic) {
+        return baseTopic + suffix;
+    }
+
+    /**
+     * 설정값으로 레인을 찾습니다. (high, HIGH 모두 허용)
+     *
+     * @param name 레인 이름
+     * @return 레인
+     */
+    public static PriorityLane of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("[PriorityLane] 알 수 없는 우선순위 레인입니다: " + name, e);
+        }
+    }
+
+}
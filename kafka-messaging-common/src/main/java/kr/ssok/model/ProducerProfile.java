@@ -0,0 +1,63 @@
+package kr.ssok.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 프로듀서 프로필
+ * 전송 경로의 성격에 맞춰 linger / batch.size / 압축 설정을 묶어둔 것입니다.
+ * 모든 프로필은 멱등 프로듀서(acks=all, enable.idempotence=true)를 사용하여 재시도시 중복/순서 뒤바뀜이 없습니다.
+ *
+ * - LOW_LATENCY : 프로미스 요청/응답. 모으지 않고 바로 전송 (linger 0, 압축 없음)
+ * - HIGH_THROUGHPUT : 단방향 메세지. 짧게 모아서 lz4로 압축 (linger 10ms, batch 256KB)
+ * - BULK : 대량 전송. 길게 모아서 zstd로 압축 (linger 50ms, batch 1MB)
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ProducerProfile {
+
+    LOW_LATENCY(0, 16 * 1024, "none", 32L * 1024 * 1024),
+    HIGH_THROUGHPUT(10, 256 * 1024, "lz4", 64L * 1024 * 1024),
+    BULK(50, 1024 * 1024, "zstd", 128L * 1024 * 1024);
+
+    private final int lingerMs;
+    private final int batchSize;
+    private final String compressionType;
+    private final long bufferMemory;
+
+    /**
+     * 프로듀서 설정에 프로필을 적용합니다.
+     *
+     * @param configProps 프로듀서 설정
+     * @return configProps
+     */
+    public Map<String, Object> applyTo(Map<String, Object> configProps) {
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        return configProps;
+    }
+
+    /**
+     * 설정값으로 프로필을 찾습니다. (low-latency, LOW_LATENCY 모두 허용)
+     *
+     * @param name 프로필 이름
+     * @return 프로필
+     */
+    public static ProducerProfile of(String name) {
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("[ProducerProfile] 알 수 없는 프로듀서 프로필입니다: " + name, e);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package kr.ssok.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 라우팅 키 / 일관 해시
+ * 클라이언트 파티셔너(ConsistentHashPartitioner)와 서버 원장(LedgerEngine)이 같은 함수로 계좌의 파티션을 계산합니다.
+ *
+ * - 계좌번호 키는 숫자와 '-' 위치를 모두 담은 long 키 (최대 14자리), 표기가 다른 계좌번호는 다른 계좌
+ *   ("098-765-432166"과 "0987-654-32166", "098765432166"은 서로 다른 키, 해시가 아니므로 충돌 없음)
+ * - 파티션은 jump consistent hash로 결정하므로 파티션 수를 N에서 N+1로 늘려도 키의 1/(N+1)만 다른 파티션으로 이동
+ *   (murmur2 % N 방식은 대부분의 키가 이동)
+ * - 계좌번호가 아닌 키는 UTF-8 바이트의 FNV-1a 해시를 사용
+ */
+public final class RoutingKeys {
+
+    public static final long INVALID_ACCOUNT = -1;
+
+    private static final int MAX_DIGITS = 14;
+
+    // 자릿수별 계좌 키 시작값 (키 0은 원장 테이블의 빈 칸이므로 1부터)
+    // d자리 계좌는 숫자 값(10^d 가지)과 숫자 사이 '-' 위치(2^(d-1) 가지)를 합쳐 BASE[d] ~ BASE[d+1]-1 구간을 사용 (14자리까지 약 8.6e17)
+    private static final long[] BASE = new long[MAX_DIGITS + 2];
+
+    static {
+        BASE[1] = 1;
+        long pow10 = 1;
+        for (int d = 1; d <= MAX_DIGITS; d++) {
+            pow10 *= 10;
+            BASE[d + 1] = BASE[d] + (pow10 << (d - 1));
+        }
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private RoutingKeys() {
+    }
+
+    /**
+     * 계좌번호를 계좌 키로 변환합니다.
+     * 숫자 값, 자릿수, 숫자 사이의 '-' 위치를 모두 키에 담으므로 서로 다른 계좌번호 문자열은 항상 다른 키가 됩니다.
+     * 숫자와 숫자 사이의 '-' 하나만 구분자로 허용하고, 그 외 형식(공백, 앞뒤 또는 연속된 '-')은 거부합니다.
+     *
+     * @param accountNumber 계좌번호
+     * @return 계좌 키 (1 이상), 형식이 잘못되었거나 14자리를 넘으면 INVALID_ACCOUNT
+     */
+    public static long accountKey(String accountNumber) {
+        if (accountNumber == null) return INVALID_ACCOUNT;
+
+        long value = 0;
+        long separators = 0; // 비트 i = (i+1)번째 숫자 뒤의 '-'
+        int digits = 0;
+        boolean afterSeparator = false;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) return INVALID_ACCOUNT;
+                value = value * 10 + (c - '0');
+                afterSeparator = false;
+            } else if (c == '-' && digits > 0 && !afterSeparator) {
+                separators |= 1L << (digits - 1);
+                afterSeparator = true;
+            } else {
+                return INVALID_ACCOUNT;
+            }
+        }
+        if (digits == 0 || afterSeparator) return INVALID_ACCOUNT;
+        return BASE[digits] + ((value << (digits - 1)) | separators);
+    }
+
+    /**
+     * 계좌번호를 라우팅 키로 검증합니다.
+     * 같은 계좌번호 문자열은 같은 메세지 키를 가지므로 서버의 키 단위 순서 처리도 계좌 단위가 됩니다.
+     *
+     * @param accountNumber 계좌번호
+     * @return 계좌번호, 형식이 잘못되었으면 null
+     */
+    public static String normalize(String accountNumber) {
+        return accountKey(accountNumber) == INVALID_ACCOUNT ? null : accountNumber;
+    }
+
+    /**
+     * 라우팅 키의 파티션
+     *
+     * @param routingKey 라우팅 키 (계좌번호 또는 임의 문자열)
+     * @param partitions 파티션 수
+     * @return 파티션 (0 ~ partitions-1)
+     */
+    public static int partition(String routingKey, int partitions) {
+        long account = accountKey(routingKey);
+        if (account != INVALID_ACCOUNT) return partition(account, partitions);
+        return jump(mix(fnv1a(routingKey.getBytes(StandardCharsets.UTF_8))), partitions);
+    }
+
+    /**
+     * 계좌 키의 파티션
+     *
+     * @param accountKey 계좌 키 (accountKey)
+     * @param partitions 파티션 수
+     * @return 파티션 (0 ~ partitions-1)
+     */
+    public static int partition(long accountKey, int partitions) {
+        return jump(mix(accountKey), partitions);
+    }
+
+    /**
+     * Jump consistent hash (Lamping, Veach)
+     *
+     * @param key     64비트 해시
+     * @param buckets 버킷 수 (1 이상)
+     * @return 버킷 (0 ~ buckets-1)
+     */
+    public static int jump(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * 64비트 해시 믹서 (murmur3 fmix64)
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long fnv1a(byte[] bytes) {
+        long h = FNV_OFFSET;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+}
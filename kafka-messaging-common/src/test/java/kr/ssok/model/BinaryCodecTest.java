@@ -0,0 +1,142 @@
+package kr.ssok.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 바이너리 코덱 테스트 (왕복 변환, null 필드, 잘린 메세지, 새 버전 메세지)
+ */
+class BinaryCodecTest {
+
+    @Test
+    void transferRequestRoundTrip() {
+        TransferRequest request = TransferRequest.builder()
+                .requestId(UUID.randomUUID().toString())
+                .fromAccount("098-765-432166")
+                .toAccount("098-765-43212")
+                .amount(new BigDecimal("1234.50"))
+                .currency("KRW")
+                .description("테스트 송금")
+                .requestTime(LocalDateTime.of(2025, 4, 30, 15, 15, 50, 188_682_000))
+                .build();
+
+        byte[] encoded = BinaryCodec.encode(request);
+        assertTrue(BinaryCodec.isEncoded(encoded));
+        assertEquals(request, BinaryCodec.decode(encoded, TransferRequest.class));
+    }
+
+    @Test
+    void transferResponseRoundTrip() {
+        // UUID 표기가 아닌 ID는 문자열로 기록
+        TransferResponse response = TransferResponse.builder()
+                .requestId("bulk-1")
+                .transactionId(UUID.randomUUID().toString().toUpperCase())
+                .status(TransferStatus.PENDING)
+                .message("처리중")
+                .processedTime(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000))
+                .build();
+
+        assertEquals(response, BinaryCodec.decode(BinaryCodec.encode(response), TransferResponse.class));
+    }
+
+    @Test
+    void amountKeepsScaleAndLargeValues() {
+        for (String amount : new String[]{"0", "-0.01", "1E+3", "9223372036854775807", "123456789012345678901234567890.12"}) {
+            TransferRequest request = TransferRequest.builder().amount(new BigDecimal(amount)).build();
+            assertEquals(request, BinaryCodec.decode(BinaryCodec.encode(request), TransferRequest.class), amount);
+        }
+    }
+
+    @Test
+    void timeIsTruncatedToMicros() {
+        TransferRequest request = TransferRequest.builder()
+                .requestTime(LocalDateTime.of(2025, 1, 1, 0, 0, 0, 123_456_789))
+                .build();
+
+        TransferRequest decoded = BinaryCodec.decode(BinaryCodec.encode(request), TransferRequest.class);
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0, 0, 123_456_000), decoded.getRequestTime());
+    }
+
+    @Test
+    void nullFieldsAreOmitted() {
+        TransferResponse response = TransferResponse.builder().status(TransferStatus.FAILED).build();
+
+        byte[] encoded = BinaryCodec.encode(response);
+        // 헤더 4 bytes + 상태 1 byte
+        assertEquals(5, encoded.length);
+        assertEquals(response, BinaryCodec.decode(encoded, TransferResponse.class));
+    }
+
+    @Test
+    void truncatedPayloadIsRejected() {
+        byte[] request = BinaryCodec.encode(TransferRequest.builder()
+                .requestId(UUID.randomUUID().toString())
+                .fromAccount("098-765-432166")
+                .amount(new BigDecimal("123456789012345678901234567890.12"))
+                .requestTime(LocalDateTime.now())
+                .build());
+        byte[] response = BinaryCodec.encode(TransferResponse.builder()
+                .requestId("bulk-1")
+                .transactionId(UUID.randomUUID().toString())
+                .status(TransferStatus.SUCCESS)
+                .message("ok")
+                .build());
+
+        // 어느 위치에서 잘려도 ArrayIndexOutOfBoundsException이 아닌 IllegalArgumentException
+        for (int length = 0; length < request.length; length++) {
+            byte[] truncated = Arrays.copyOf(request, length);
+            assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decode(truncated, TransferRequest.class), "length " + length);
+        }
+        for (int length = 0; length < response.length; length++) {
+            byte[] truncated = Arrays.copyOf(response, length);
+            assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decode(truncated, TransferResponse.class), "length " + length);
+        }
+    }
+
+    @Test
+    void malformedPayloadIsRejected() {
+        byte[] response = BinaryCodec.encode(TransferResponse.builder().status(TransferStatus.SUCCESS).build());
+
+        // 다른 타입으로 변환
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decode(response, TransferRequest.class));
+
+        // 알 수 없는 상태 코드
+        byte[] unknownStatus = response.clone();
+        unknownStatus[4] = 99;
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decode(unknownStatus, TransferResponse.class));
+
+        // 끝나지 않는 varint
+        byte[] varint = {(byte) 0xB1, 1, 1, 1 << 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decode(varint, TransferRequest.class));
+
+        // JSON 페이로드
+        assertFalse(BinaryCodec.isEncoded(JsonUtil.toJsonBytes(TransferResponse.builder().build())));
+    }
+
+    @Test
+    void newerVersionFieldsAreIgnored() {
+        TransferResponse response = TransferResponse.builder()
+                .requestId("req-1")
+                .status(TransferStatus.SUCCESS)
+                .build();
+        byte[] encoded = BinaryCodec.encode(response);
+
+        // 다음 버전에서 마지막 필드 뒤에 추가된 필드 (presence의 다음 비트 + 바이트)
+        byte[] newer = Arrays.copyOf(encoded, encoded.length + 3);
+        newer[1] = 2;
+        newer[3] |= 1 << 5;
+        newer[encoded.length] = 2;
+        newer[encoded.length + 1] = 'x';
+        newer[encoded.length + 2] = 'y';
+
+        assertEquals(response, BinaryCodec.decode(newer, TransferResponse.class));
+    }
+
+}
@@ -0,0 +1,96 @@
+package kr.ssok.model;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 페이로드 코덱 테스트 (JSON / 바이너리 협상, 이전 버전의 이중 인코딩 JSON)
+ */
+class PayloadCodecTest {
+
+    private final TransferRequest request = TransferRequest.builder()
+            .requestId(UUID.randomUUID().toString())
+            .fromAccount("098-765-432166")
+            .toAccount("098-765-43212")
+            .amount(new BigDecimal("1000"))
+            .currency("KRW")
+            .description("테스트 송금")
+            .requestTime(LocalDateTime.of(2025, 4, 30, 15, 15, 50))
+            .build();
+
+    @Test
+    void jsonRoundTrip() {
+        byte[] encoded = PayloadCodec.encode(request, false);
+
+        assertEquals('{', encoded[0]);
+        assertEquals(request, PayloadCodec.decode(encoded, TransferRequest.class, false));
+    }
+
+    @Test
+    void binaryRoundTrip() {
+        byte[] encoded = PayloadCodec.encode(request, true);
+
+        assertTrue(BinaryCodec.isEncoded(encoded));
+        assertTrue(encoded.length < PayloadCodec.encode(request, false).length);
+        assertEquals(request, PayloadCodec.decode(encoded, TransferRequest.class, true));
+    }
+
+    @Test
+    void unsupportedTypeFallsBackToJson() {
+        // 바이너리 코덱이 지원하지 않는 타입은 바이너리를 요청해도 JSON (문자열은 그대로)
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), PayloadCodec.encode("hello", true));
+
+        Map<String, String> message = Map.of("message", "hello");
+        byte[] encoded = PayloadCodec.encode(message, true);
+        assertFalse(BinaryCodec.isEncoded(encoded));
+        assertEquals(message, PayloadCodec.decode(encoded, Map.class, true));
+    }
+
+    @Test
+    void jsonPayloadWithBinaryHeaderIsDecodedAsJson() {
+        // 봉투의 미지원 타입 항목처럼 바이너리 헤더가 있어도 magic이 없으면 JSON으로 읽음
+        byte[] json = PayloadCodec.encode(request, false);
+        assertEquals(request, PayloadCodec.decode(json, TransferRequest.class, true));
+    }
+
+    @Test
+    void legacyDoubleEncodedJsonIsDecoded() {
+        // 이전 버전은 JSON 문자열을 한번 더 JSON 문자열로 감싸서 보냄 ("{\"requestId\":...}")
+        byte[] legacy = JsonUtil.toJsonBytes(JsonUtil.toJson(request));
+        assertEquals('"', legacy[0]);
+
+        assertEquals(request, PayloadCodec.decode(legacy, TransferRequest.class, false));
+        assertEquals(request, PayloadCodec.decode(legacy, TransferRequest.class, true));
+
+        // 앞쪽 공백 허용
+        byte[] padded = (" \n" + new String(legacy, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        assertEquals(request, PayloadCodec.decode(padded, TransferRequest.class, false));
+
+        // String 타입으로 받으면 감싼 문자열을 풀지 않음
+        assertEquals(JsonUtil.toJson(request), PayloadCodec.decode(legacy, String.class, false));
+    }
+
+    @Test
+    void contentTypeHeader() {
+        RecordHeaders headers = new RecordHeaders();
+        assertFalse(PayloadCodec.isBinary(headers));
+
+        headers.add(PayloadCodec.CONTENT_TYPE, PayloadCodec.JSON.getBytes(StandardCharsets.UTF_8));
+        assertFalse(PayloadCodec.isBinary(headers));
+
+        // 기존 헤더를 지우고 한번만 기록
+        PayloadCodec.markBinary(headers);
+        PayloadCodec.markBinary(headers);
+        assertTrue(PayloadCodec.isBinary(headers));
+        assertEquals(1, headers.toArray().length);
+    }
+
+}
@@ -0,0 +1,339 @@
+package kr.ssok.kafka.messaging.server.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.ssok.kafka.messaging.server.dispatch.CommandDispatchListener;
+import kr.ssok.kafka.messaging.server.dispatch.CommandDispatcher;
+import kr.ssok.kafka.messaging.server.dispatch.CommandHandlerMethod;
+import kr.ssok.kafka.messaging.server.priority.LaneScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 리스너 유입 제어 (backpressure)
+ * 처리 부하가 임계치를 넘으면 요청 리스너 컨테이너의 파티션을 pause 하고, 충분히 내려가면 resume 합니다.
+ * pause 중에도 컨테이너는 poll을 계속하므로 컨슈머 그룹에서 빠지지 않습니다.
+ *
+ * - 파티션별 처리 대기 수 (enter/exit) : partition-high-watermark 이상이면 해당 파티션만 pause, partition-low-watermark 이하면 resume
+ *   (parallel 모드에서만 의미가 있음: async 모드는 리스너가 배치 처리를 기다리므로 대기 수가 reply-batch-size를 넘지 않고,
+ *    record/batch 모드는 리스너 스레드에서 처리하므로 enter/exit를 호출하지 않음)
+ * - 힙 사용률 : heap-high-ratio 이상이면 전체 pause, heap-low-ratio 이하면 resume
+ * - 핸들러 지연시간 (EWMA) : latency-high-ms 이상이면 전체 pause, latency-low-ms 이하면 resume
+ * - 파티션 처리 한도 (saturated/drained) : PartitionParallelProcessor가 파티션의 처리중 레코드가 max-in-flight에 도달하면 알리고,
+ *   점검 주기를 기다리지 않고 해당 파티션만 바로 pause (컨슈머 스레드는 막지 않으므로 같은 스레드의 다른 파티션/레인은 계속 처리)
+ *
+ * 임계치와 해제 기준을 다르게 두어(hysteresis) pause/resume이 반복되지 않도록 합니다.
+ *
+ * 우선순위 레인(bank.priority.enabled)을 사용하면 LaneScheduler가 정한 낮은 레인 파티션도 함께 pause 합니다.
+ * (요청/단방향 리스너 모두, 같은 파티션을 두 기준이 따로 resume 하지 않도록 여기서 한번에 적용)
+ * bank.admission.enabled=false 이면 부하 기준은 사용하지 않고 레인 스케줄링과 파티션 처리 한도만 적용합니다.
+ */
+@Slf4j
+@Component
+public class AdmissionController implements CommandDispatchListener, SmartLifecycle {
+
+    // 요청 리스너 (BankService @KafkaListener id)
+    private static final List<String> REQUEST_LISTENER_IDS =
+            List.of("bankRequestListener", "bankRequestBatchListener", "bankRequestAsyncListener", "bankRequestParallelListener");
+
+    // 단방향 리스너 (우선순위 레인만 적용)
+    private static final String PUSH_LISTENER_ID = "bankPushListener";
+
+    // 지연시간 EWMA 가중치 (check-interval 마다 갱신)
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final CommandDispatcher commandDispatcher;
+    private final LaneScheduler laneScheduler;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private final boolean enabled;
+    private final String replyMode;
+    private final int replyBatchSize;
+    private final long checkIntervalMillis;
+    private final int partitionHighWatermark;
+    private final int partitionLowWatermark;
+    private final double heapHighRatio;
+    private final double heapLowRatio;
+    private final long latencyHighNanos;
+    private final long latencyLowNanos;
+
+    private final Map<TopicPartition, AtomicInteger> inProcess = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Boolean> overloadedPartitions = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Boolean> saturatedPartitions = new ConcurrentHashMap<>();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+
+    private final Counter pauses;
+    private final AtomicInteger pausedPartitions = new AtomicInteger();
+
+    private volatile boolean overloaded;
+    private volatile double latencyEwmaNanos;
+    private ScheduledExecutorService scheduler;
+
+    public AdmissionController(KafkaListenerEndpointRegistry registry,
+                               CommandDispatcher commandDispatcher,
+                               LaneScheduler laneScheduler,
+                               MeterRegistry meterRegistry,
+                               @Value("${bank.admission.enabled:true}") boolean enabled,
+                               @Value("${spring.kafka.reply-mode:record}") String replyMode,
+                               @Value("${spring.kafka.reply-batch-size:500}") int replyBatchSize,
+                               @Value("${bank.admission.check-interval-ms:100}") long checkIntervalMillis,
+                               @Value("${bank.admission.partition-high-watermark:1000}") int partitionHighWatermark,
+                               @Value("${bank.admission.partition-low-watermark:250}") int partitionLowWatermark,
+                               @Value("${bank.admission.heap-high-ratio:0.85}") double heapHighRatio,
+                               @Value("${bank.admission.heap-low-ratio:0.70}") double heapLowRatio,
+                               @Value("${bank.admission.latency-high-ms:500}") long latencyHighMillis,
+                               @Value("${bank.admission.latency-low-ms:200}") long latencyLowMillis) {
+        this.registry = registry;
+        this.commandDispatcher = commandDispatcher;
+        this.laneScheduler = laneScheduler;
+        this.enabled = enabled;
+        this.replyMode = replyMode;
+        this.replyBatchSize = replyBatchSize;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.partitionHighWatermark = partitionHighWatermark;
+        this.partitionLowWatermark = partitionLowWatermark;
+        this.heapHighRatio = heapHighRatio;
+        this.heapLowRatio = heapLowRatio;
+        this.latencyHighNanos = TimeUnit.MILLISECONDS.toNanos(latencyHighMillis);
+        this.latencyLowNanos = TimeUnit.MILLISECONDS.toNanos(latencyLowMillis);
+
+        this.pauses = Counter.builder("bank.admission.pauses")
+                .description("부하로 인해 파티션을 pause 한 횟수")
+                .register(meterRegistry);
+        Gauge.builder("bank.admission.paused-partitions", pausedPartitions, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("bank.admission.in-process", this, AdmissionController::getInProcessCount).register(meterRegistry);
+        Gauge.builder("bank.admission.handler-latency", this, c -> c.latencyEwmaNanos / 1e6)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 레코드 처리 시작 (리스너 스레드에서 핸들러 실행을 다른 스레드로 넘길 때)
+     */
+    public void enter(ConsumerRecord<?, ?> record) {
+        inProcess.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), tp -> new AtomicInteger())
+                .incrementAndGet();
+    }
+
+    /**
+     * 레코드 처리 종료
+     */
+    public void exit(ConsumerRecord<?, ?> record) {
+        AtomicInteger count = inProcess.get(new TopicPartition(record.topic(), record.partition()));
+        if (count != null) count.decrementAndGet();
+    }
+
+    /**
+     * 파티션의 처리중 레코드가 한도에 도달 (parallel 모드 컨슈머 스레드에서 호출, 해당 파티션을 바로 pause)
+     */
+    public void saturated(TopicPartition tp) {
+        saturatedPartitions.put(tp, Boolean.TRUE);
+        applyNow(tp);
+    }
+
+    /**
+     * 파티션의 처리중 레코드가 한도 아래로 내려감 (처리 스레드에서 호출, 다른 pause 사유가 없으면 바로 resume)
+     */
+    public void drained(TopicPartition tp) {
+        if (saturatedPartitions.remove(tp) != null) applyNow(tp);
+    }
+
+    public int getInProcessCount() {
+        int sum = 0;
+        for (AtomicInteger count : inProcess.values()) sum += count.get();
+        return sum;
+    }
+
+    @Override
+    public void onDispatched(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record,
+                             long startNanos, Object result, Throwable error) {
+        latencySum.add(System.nanoTime() - startNanos);
+        latencyCount.increment();
+    }
+
+    @Override
+    public void onExpired(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record) {
+    }
+
+    // ---- 주기적 점검 ----
+
+    void check() {
+        try {
+            if (enabled) {
+                updateOverload();
+                updatePartitions();
+            }
+            laneScheduler.update(runningContainers(), this::depthOf);
+            apply();
+        } catch (Exception e) {
+            log.error("[AdmissionController] 점검 실패", e);
+        }
+    }
+
+    private void updateOverload() {
+        // 이번 구간에 처리된 요청이 없으면 0으로 보고 감소시킴 (pause 중에도 해제될 수 있도록)
+        long count = latencyCount.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        double windowAvg = count == 0 ? 0 : (double) sum / count;
+        latencyEwmaNanos = EWMA_ALPHA * windowAvg + (1 - EWMA_ALPHA) * latencyEwmaNanos;
+
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        double heapRatio = (double) heap.getUsed() / max;
+
+        boolean wasOverloaded = overloaded;
+        if (!wasOverloaded && (heapRatio >= heapHighRatio || latencyEwmaNanos >= latencyHighNanos)) {
+            overloaded = true;
+            log.warn("[AdmissionController] 과부하, 요청 수신 중지 (heap: {}%, latency: {}ms)",
+                    Math.round(heapRatio * 100), Math.round(latencyEwmaNanos / 1e6));
+        } else if (wasOverloaded && heapRatio <= heapLowRatio && latencyEwmaNanos <= latencyLowNanos) {
+            overloaded = false;
+            log.info("[AdmissionController] 부하 해소, 요청 수신 재개 (heap: {}%, latency: {}ms)",
+                    Math.round(heapRatio * 100), Math.round(latencyEwmaNanos / 1e6));
+        }
+    }
+
+    private void updatePartitions() {
+        inProcess.forEach((tp, count) -> {
+            int depth = count.get();
+            if (depth >= partitionHighWatermark) overloadedPartitions.put(tp, Boolean.TRUE);
+            else if (depth <= partitionLowWatermark) overloadedPartitions.remove(tp);
+        });
+    }
+
+    private void apply() {
+        int paused = 0;
+        for (MessageListenerContainer container : runningContainers()) {
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned == null) continue;
+
+            boolean request = REQUEST_LISTENER_IDS.contains(container.getListenerId());
+            for (TopicPartition tp : assigned) {
+                if (apply(container, request, tp)) paused++;
+            }
+        }
+        pausedPartitions.set(paused);
+    }
+
+    // 파티션 하나의 pause/resume 결정 (점검 스레드와 처리 한도 알림이 같은 기준으로 결정하도록 한곳에서 처리)
+    // @return 부하로 pause 된 파티션이면 true
+    private synchronized boolean apply(MessageListenerContainer container, boolean request, TopicPartition tp) {
+        boolean overload = request && (overloaded || overloadedPartitions.containsKey(tp));
+        boolean saturated = request && saturatedPartitions.containsKey(tp);
+        boolean shouldPause = overload || saturated || laneScheduler.isThrottled(tp);
+        boolean pauseRequested = container.isPartitionPauseRequested(tp);
+
+        // 레인 스케줄링과 처리 한도의 pause/resume은 자주 반복되므로 debug 로그
+        if (shouldPause && !pauseRequested) {
+            container.pausePartition(tp);
+            if (overload) {
+                pauses.increment();
+                log.info("[AdmissionController] pause {} (in-process: {})", tp, depthOf(tp));
+            } else if (saturated) {
+                log.debug("[AdmissionController] pause saturated {} (in-process: {})", tp, depthOf(tp));
+            } else {
+                log.debug("[AdmissionController] pause lower lane {}", tp);
+            }
+        } else if (!shouldPause && pauseRequested) {
+            container.resumePartition(tp);
+            if (laneScheduler.isEnabled() || "parallel".equals(replyMode))
+                log.debug("[AdmissionController] resume {} (in-process: {})", tp, depthOf(tp));
+            else log.info("[AdmissionController] resume {} (in-process: {})", tp, depthOf(tp));
+        }
+        return overload;
+    }
+
+    // 파티션을 할당받은 요청 리스너 컨테이너에 바로 적용
+    private void applyNow(TopicPartition tp) {
+        for (String id : REQUEST_LISTENER_IDS) {
+            MessageListenerContainer container = registry.getListenerContainer(id);
+            if (container == null || !container.isRunning()) continue;
+
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned != null && assigned.contains(tp)) {
+                apply(container, true, tp);
+                return;
+            }
+        }
+    }
+
+    // 실행중인 요청/단방향 리스너 컨테이너
+    private List<MessageListenerContainer> runningContainers() {
+        List<MessageListenerContainer> containers = new ArrayList<>(REQUEST_LISTENER_IDS.size() + 1);
+        for (String id : REQUEST_LISTENER_IDS) addIfRunning(containers, id);
+        if (laneScheduler.isEnabled()) addIfRunning(containers, PUSH_LISTENER_ID);
+        return containers;
+    }
+
+    private void addIfRunning(List<MessageListenerContainer> containers, String id) {
+        MessageListenerContainer container = registry.getListenerContainer(id);
+        if (container != null && container.isRunning()) containers.add(container);
+    }
+
+    private int depthOf(TopicPartition tp) {
+        AtomicInteger count = inProcess.get(tp);
+        return count == null ? 0 : count.get();
+    }
+
+    // ---- lifecycle ----
+
+    @Override
+    public void start() {
+        if (!enabled && !laneScheduler.isEnabled()) return;
+
+        if (enabled) commandDispatcher.addListener(this);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bank-admission");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("AdmissionController started: admission {}, partition watermark {}/{}, heap {}/{}, latency {}ms/{}ms, priority lanes {}",
+                enabled, partitionHighWatermark, partitionLowWatermark, heapHighRatio, heapLowRatio,
+                TimeUnit.NANOSECONDS.toMillis(latencyHighNanos), TimeUnit.NANOSECONDS.toMillis(latencyLowNanos),
+                laneScheduler.isEnabled());
+
+        // async 모드는 배치(max.poll.records = reply-batch-size)가 끝나야 다음 poll을 하므로 파티션별 대기 수가 그 이상 쌓이지 않음
+        if (enabled && "async".equals(replyMode) && partitionHighWatermark > replyBatchSize)
+            log.warn("[AdmissionController] async 모드의 파티션별 처리 대기 수는 reply-batch-size({})를 넘지 않으므로 "
+                            + "partition-high-watermark({})로는 pause 되지 않습니다. (힙/지연시간 기준만 적용, 파티션 기준은 parallel 모드에서 사용)",
+                    replyBatchSize, partitionHighWatermark);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+}
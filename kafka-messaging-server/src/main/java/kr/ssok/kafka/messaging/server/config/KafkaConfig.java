@@ -1,19 +1,31 @@
 package kr.ssok.kafka.messaging.server.config;
 
+import kr.ssok.kafka.messaging.server.execution.PartitionParallelProcessor;
+import kr.ssok.kafka.messaging.server.priority.LaneScheduler;
+import kr.ssok.kafka.messaging.server.retry.RetryRouter;
+import kr.ssok.model.MessageHeaders;
+import kr.ssok.model.PayloadCodec;
+import kr.ssok.model.PayloadSerializer;
+import kr.ssok.model.PriorityLane;
+import kr.ssok.model.ProducerProfile;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,6 +37,39 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    /**
+     * 프로미스 요청 처리 방식
+     * record: 레코드 단위 처리 (저널 내구화 후 응답, 레코드마다 커밋)
+     * batch: 배치 단위 처리 (응답 일괄 flush, 배치마다 커밋)
+     * async: 배치 단위로 받아 핸들러를 가상 스레드에서 키 순서대로 실행 (처리 완료 후 배치마다 커밋)
+     * parallel: 레코드 단위로 받아 파티션 안에서도 동시에 실행 (끊김 없이 완료된 오프셋까지 레코드 단위로 커밋)
+     */
+    @Value("${spring.kafka.reply-mode:record}")
+    private String replyMode;
+
+    @Value("${spring.kafka.reply-batch-size:500}")
+    private int replyBatchSize;
+
+    // 요청 컨슈머 스레드 수 (요청 토픽 파티션 수와 같으면 스레드마다 파티션 하나, 즉 원장 샤드 하나를 소유)
+    @Value("${spring.kafka.request-concurrency:1}")
+    private int requestConcurrency;
+
+    // 요청 토픽 파티션 수 (요청 레인 토픽도 같은 수로 생성해야 계좌가 같은 원장 샤드로 라우팅됨)
+    @Value("${bank.ledger.partitions:3}")
+    private int requestTopicPartitions;
+
+    // 단방향 토픽 파티션 수 (단방향 레인 토픽도 같은 수로 생성)
+    @Value("${spring.kafka.push-topic-partitions:3}")
+    private int pushTopicPartitions;
+
+    // 재시도 토픽 / DLT 파티션 수
+    @Value("${bank.retry.topic-partitions:3}")
+    private int retryTopicPartitions;
+
+    // 응답 프로듀서 프로필 (low-latency, high-throughput, bulk)
+    @Value("${spring.kafka.producer-profile.reply:low-latency}")
+    private String replyProfile;
+
     /**
      * 요청 수신자 설정
      *
@@ -36,9 +81,12 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "request-server-group");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        // 요청은 byte[]로 받고 리스너에서 필요한 DTO 타입으로 한번만 역직렬화함
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // 리밸런스시 옮겨지는 파티션만 회수하고 나머지 파티션(원장 샤드)은 기존 소유 스레드가 중단 없이 계속 처리
+        configProps.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        if (isBatchReplyMode()) configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, replyBatchSize);
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
@@ -52,7 +100,8 @@ public class KafkaConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PayloadSerializer.class);
+        ProducerProfile.of(replyProfile).applyTo(configProps);
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -71,13 +120,87 @@ public class KafkaConfig {
      * @return
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerReplyContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerReplyContainerFactory(
+            PartitionParallelProcessor parallelProcessor) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(requestConsumerFactory());
+        factory.setConcurrency(requestConcurrency);
         factory.setReplyTemplate(replyTemplate());
-        // 응답 헤더 설정을 활성화하여 @SendTo가 작동하도록 함
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        // 처리 기한 헤더를 응답에도 복사하여 클라이언트가 늦게 도착한 응답을 구분할 수 있도록 함
+        // 페이로드 형식 헤더를 복사하여 요청과 같은 형식(JSON / 바이너리)으로 응답
+        factory.setReplyHeadersConfigurer((name, value) ->
+                MessageHeaders.DEADLINE.equals(name) || PayloadCodec.CONTENT_TYPE.equals(name));
+
+        if ("parallel".equals(replyMode)) {
+            // 병렬 리스너: 커밋 가능 오프셋 직전 레코드의 Acknowledgment로 바로 커밋, 회수시 처리중인 레코드를 기다림
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+            factory.getContainerProperties().setConsumerRebalanceListener(parallelProcessor);
+        } else if (isBatchReplyMode()) {
+            // 배치 리스너: 배치 처리 및 응답 전송이 끝나면 한번만 커밋
+            factory.setBatchListener(true);
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        } else {
+            // 레코드 리스너: 레코드마다 커밋 (응답은 저널 내구화 후 커밋 스레드에서 전송)
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        }
+        return factory;
+    }
+
+    private boolean isBatchReplyMode() {
+        return "batch".equals(replyMode) || "async".equals(replyMode);
+    }
+
+    /**
+     * 단계별 재시도 토픽과 DLT
+     *
+     * @return
+     */
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(RetryRouter retryRouter) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : retryRouter.getRetryTopics()) {
+            topics.add(TopicBuilder.name(topic).partitions(retryTopicPartitions).replicas(1).build());
+        }
+        topics.add(TopicBuilder.name(retryRouter.getDeadLetterTopic()).partitions(retryTopicPartitions).replicas(1).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    /**
+     * 우선순위 레인 토픽 (HIGH, LOW 레인, bank.priority.enabled=true)
+     * 클라이언트보다 먼저 구독하므로 서버에서도 생성합니다. (클라이언트와 같은 파티션 수)
+     *
+     * @return
+     */
+    @Bean
+    public KafkaAdmin.NewTopics laneTopics(LaneScheduler laneScheduler) {
+        if (!laneScheduler.isEnabled()) return new KafkaAdmin.NewTopics();
+
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : laneScheduler.getRequestTopics()) {
+            if (laneScheduler.laneOf(topic) == PriorityLane.NORMAL) continue;
+            topics.add(TopicBuilder.name(topic).partitions(requestTopicPartitions).replicas(1).build());
+        }
+        for (String topic : laneScheduler.getPushTopics()) {
+            if (laneScheduler.laneOf(topic) == PriorityLane.NORMAL) continue;
+            topics.add(TopicBuilder.name(topic).partitions(pushTopicPartitions).replicas(1).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    /**
+     * 카프카 리스너 재시도 Container 팩토리를 생성합니다.
+     * 배치로 받아 처리 시각이 된 레코드만 처리하고, 처리한 레코드까지만 직접 커밋합니다. (RetryScheduler)
+     *
+     * @return
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerRetryContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(requestConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         return factory;
     }
 
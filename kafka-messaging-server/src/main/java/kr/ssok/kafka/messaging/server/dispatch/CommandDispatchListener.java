@@ -0,0 +1,29 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * 핸들러 호출 결과를 받는 리스너 (메트릭 등)
+ * CommandDispatcher.addListener로 등록하며, 핸들러를 호출한 스레드에서 호출됩니다.
+ */
+public interface CommandDispatchListener {
+
+    /**
+     * @param handler    호출된 핸들러
+     * @param record     레코드
+     * @param startNanos 핸들러 호출 시작 시각 (System.nanoTime)
+     * @param result     핸들러 반환값, 예외가 발생했으면 null
+     * @param error      핸들러에서 발생한 예외, 정상 처리되었으면 null
+     */
+    void onDispatched(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record,
+                      long startNanos, Object result, Throwable error);
+
+    /**
+     * 처리 기한이 지나 핸들러를 호출하지 않고 버린 요청
+     *
+     * @param handler 호출될 예정이었던 핸들러
+     * @param record  레코드
+     */
+    void onExpired(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record);
+
+}
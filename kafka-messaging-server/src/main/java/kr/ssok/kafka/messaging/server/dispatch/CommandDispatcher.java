@@ -0,0 +1,216 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+import kr.ssok.model.MessageHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 통신 프로토콜 디스패처
+ * 빈에 선언된 @CommandHandler 메서드를 등록하고, CMD 헤더 바이트로 핸들러를 찾아 호출합니다.
+ * CMD 헤더를 String으로 변환하지 않고 등록된 프로토콜 바이트와 직접 비교합니다.
+ * 처리 기한(DEADLINE 헤더)이 지난 레코드는 페이로드를 역직렬화하지 않고 버립니다. (클라이언트는 이미 타임아웃)
+ */
+@Slf4j
+@Component
+public class CommandDispatcher implements BeanPostProcessor {
+
+    public static final String CMD_HEADER = "CMD";
+
+    private final Map<CommandHandler.Channel, Registry> registries = new EnumMap<>(CommandHandler.Channel.class);
+    private final List<CommandHandlerMethod> handlers = new ArrayList<>();
+
+    private volatile CommandDispatchListener[] listeners = new CommandDispatchListener[0];
+
+    public CommandDispatcher() {
+        for (CommandHandler.Channel channel : CommandHandler.Channel.values()) {
+            registries.put(channel, new Registry());
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, CommandHandler> methods = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<CommandHandler>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, CommandHandler.class));
+
+        methods.forEach((method, annotation) ->
+                register(annotation, bean, AopUtils.selectInvocableMethod(method, bean.getClass())));
+        return bean;
+    }
+
+    private synchronized void register(CommandHandler annotation, Object bean, Method method) {
+        CommandHandlerMethod handler = new CommandHandlerMethod(handlers.size(), annotation.value(), bean, method);
+        registries.get(annotation.channel()).add(handler);
+        handlers.add(handler);
+
+        log.info("Registered {} ({})", handler, annotation.channel());
+    }
+
+    /**
+     * 레코드의 CMD 헤더에 해당하는 핸들러를 찾습니다.
+     * 일치하는 핸들러가 없으면 fallback 핸들러를, fallback도 없으면 null을 반환합니다.
+     *
+     * @param channel 채널
+     * @param record  레코드
+     * @return 핸들러
+     */
+    public CommandHandlerMethod resolve(CommandHandler.Channel channel, ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(CMD_HEADER);
+        return resolve(channel, header == null ? null : header.value());
+    }
+
+    /**
+     * CMD 바이트에 해당하는 핸들러를 찾습니다.
+     *
+     * @param channel 채널
+     * @param cmd     CMD 헤더 바이트
+     * @return 핸들러
+     */
+    public CommandHandlerMethod resolve(CommandHandler.Channel channel, byte[] cmd) {
+        return registries.get(channel).find(cmd);
+    }
+
+    /**
+     * 채널의 fallback 핸들러 (CMD가 없는 @CommandHandler)
+     *
+     * @param channel 채널
+     * @return 핸들러, 없으면 null
+     */
+    public CommandHandlerMethod fallback(CommandHandler.Channel channel) {
+        return registries.get(channel).fallback;
+    }
+
+    /**
+     * 레코드를 핸들러에 전달합니다.
+     *
+     * @param channel 채널
+     * @param record  레코드
+     * @return 핸들러 반환값, 처리할 핸들러가 없거나 처리 기한이 지났으면 null
+     */
+    public Object dispatch(CommandHandler.Channel channel, ConsumerRecord<String, byte[]> record) {
+        CommandHandlerMethod handler = resolve(channel, record);
+        if (handler == null) {
+            Header header = record.headers().lastHeader(CMD_HEADER);
+            log.warn("No handler for CMD: {}", header == null ? null : new String(header.value(), StandardCharsets.UTF_8));
+            return null;
+        }
+
+        if (isExpired(record)) {
+            log.debug("Request expired, skip: {}-{}@{}", record.topic(), record.partition(), record.offset());
+            for (CommandDispatchListener listener : this.listeners) listener.onExpired(handler, record);
+            return null;
+        }
+
+        return invoke(handler, record, record.value());
+    }
+
+    /**
+     * @return 처리 기한(DEADLINE 헤더)이 지났으면 true
+     */
+    public static boolean isExpired(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(MessageHeaders.DEADLINE);
+        if (header == null) return false;
+
+        long deadline = MessageHeaders.toLong(header.value());
+        return deadline > 0 && System.currentTimeMillis() > deadline;
+    }
+
+    /**
+     * 핸들러를 호출하고 결과를 리스너들에 전달합니다.
+     *
+     * @param handler 핸들러
+     * @param record  레코드
+     * @param payload 페이로드
+     * @return 핸들러 반환값
+     */
+    public Object invoke(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record, byte[] payload) {
+        CommandDispatchListener[] listeners = this.listeners;
+        if (listeners.length == 0) return handler.invoke(record, payload);
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = handler.invoke(record, payload);
+        } catch (RuntimeException | Error e) {
+            for (CommandDispatchListener listener : listeners) listener.onDispatched(handler, record, start, null, e);
+            throw e;
+        }
+        for (CommandDispatchListener listener : listeners) listener.onDispatched(handler, record, start, result, null);
+        return result;
+    }
+
+    /**
+     * 핸들러 호출 결과를 받을 리스너를 등록합니다.
+     */
+    public synchronized void addListener(CommandDispatchListener listener) {
+        CommandDispatchListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
+
+    /**
+     * 등록된 전체 핸들러 (getId() 순서)
+     */
+    public List<CommandHandlerMethod> getHandlers() {
+        return List.copyOf(handlers);
+    }
+
+    /**
+     * 채널별 핸들러 목록
+     * 등록된 프로토콜 수가 적으므로 길이 비교 후 바이트 비교하는 선형 탐색이 해시보다 빠릅니다.
+     */
+    private static final class Registry {
+        private volatile byte[][] commands = new byte[0][];
+        private volatile CommandHandlerMethod[] methods = new CommandHandlerMethod[0];
+        private volatile CommandHandlerMethod fallback;
+
+        void add(CommandHandlerMethod handler) {
+            if (handler.getCommand().isEmpty()) {
+                if (fallback != null)
+                    throw new IllegalStateException("[CommandDispatcher] fallback 핸들러가 중복 등록되었습니다: " + handler);
+                fallback = handler;
+                return;
+            }
+
+            byte[] command = handler.getCommand().getBytes(StandardCharsets.UTF_8);
+            for (byte[] registered : commands) {
+                if (Arrays.equals(registered, command))
+                    throw new IllegalStateException("[CommandDispatcher] 핸들러가 중복 등록되었습니다: " + handler);
+            }
+
+            byte[][] newCommands = Arrays.copyOf(commands, commands.length + 1);
+            CommandHandlerMethod[] newMethods = Arrays.copyOf(methods, methods.length + 1);
+            newCommands[commands.length] = command;
+            newMethods[methods.length] = handler;
+            methods = newMethods;
+            commands = newCommands;
+        }
+
+        CommandHandlerMethod find(byte[] cmd) {
+            if (cmd != null) {
+                byte[][] commands = this.commands;
+                CommandHandlerMethod[] methods = this.methods;
+                for (int i = 0; i < commands.length && i < methods.length; i++) {
+                    if (Arrays.equals(commands[i], cmd)) return methods[i];
+                }
+            }
+            return fallback;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+import java.lang.annotation.*;
+
+/**
+ * 통신 프로토콜(CMD 헤더) 핸들러
+ * CommandDispatcher가 CMD 헤더와 일치하는 메서드를 찾아 호출합니다.
+ *
+ * 메서드 파라미터
+ * - ConsumerRecord: 원본 레코드
+ * - 그 외 첫번째 파라미터: 페이로드 (byte[]는 그대로, String은 UTF-8, 그 외 타입은 JSON 역직렬화)
+ *
+ * value를 비워두면 일치하는 핸들러가 없는 CMD를 처리하는 fallback 핸들러가 됩니다.
+ *
+ * <pre>
+ * &#64;CommandHandler(CommunicationProtocol.REQUEST_WITHDRAW)
+ * public TransferResponse withdraw(TransferRequest request) { ... }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CommandHandler {
+
+    /**
+     * 통신 프로토콜 (CommunicationProtocol)
+     */
+    String value() default "";
+
+    /**
+     * 핸들러가 처리할 채널 (프로미스 요청 / 단방향 메세지)
+     */
+    Channel channel() default Channel.REQUEST;
+
+    enum Channel {
+        REQUEST,
+        PUSH
+    }
+
+}
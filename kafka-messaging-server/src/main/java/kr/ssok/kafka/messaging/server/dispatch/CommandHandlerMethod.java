@@ -0,0 +1,122 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+import kr.ssok.model.PayloadCodec;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CommandDispatcher에 등록된 핸들러 메서드
+ * 등록 시점에 파라미터 구성을 분석해 두고, 호출시에는 선언된 페이로드 타입으로만 역직렬화합니다.
+ * 페이로드 형식은 레코드의 CONTENT_TYPE 헤더로 결정합니다. (없으면 JSON)
+ */
+public final class CommandHandlerMethod {
+
+    private final int id;
+    private final String command;
+    private final Object bean;
+    private final Method method;
+
+    private final int payloadIndex;
+    private final Class<?> payloadType;
+    private final boolean[] recordParams;
+
+    CommandHandlerMethod(int id, String command, Object bean, Method method) {
+        this.id = id;
+        this.command = command;
+        this.bean = bean;
+        this.method = method;
+        this.method.setAccessible(true);
+
+        Class<?>[] types = method.getParameterTypes();
+        this.recordParams = new boolean[types.length];
+
+        int payload = -1;
+        for (int i = 0; i < types.length; i++) {
+            if (ConsumerRecord.class.isAssignableFrom(types[i])) recordParams[i] = true;
+            else if (payload < 0) payload = i;
+            else throw new IllegalStateException("[CommandHandler] 페이로드 파라미터는 하나만 선언할 수 있습니다: " + method);
+        }
+        this.payloadIndex = payload;
+        this.payloadType = payload < 0 ? null : types[payload];
+    }
+
+    /**
+     * 등록 순서대로 부여되는 핸들러 번호 (0부터 시작)
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * 통신 프로토콜, fallback 핸들러는 빈 문자열
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * 핸들러 메서드 이름
+     */
+    public String getMethodName() {
+        return method.getName();
+    }
+
+    public Class<?> getPayloadType() {
+        return payloadType;
+    }
+
+    /**
+     * 레코드의 value를 페이로드로 핸들러를 호출합니다.
+     *
+     * @param record 레코드
+     * @return 핸들러 반환값
+     */
+    public Object invoke(ConsumerRecord<String, byte[]> record) {
+        return this.invoke(record, record.value());
+    }
+
+    /**
+     * 지정한 페이로드로 핸들러를 호출합니다.
+     *
+     * @param record  레코드
+     * @param payload 페이로드
+     * @return 핸들러 반환값
+     */
+    public Object invoke(ConsumerRecord<String, byte[]> record, byte[] payload) {
+        Object[] args = new Object[recordParams.length];
+        for (int i = 0; i < args.length; i++) {
+            if (recordParams[i]) args[i] = record;
+        }
+        if (payloadIndex >= 0) args[payloadIndex] = decode(record, payload);
+
+        try {
+            return method.invoke(bean, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getTargetException();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException("[CommandHandler] 핸들러 호출 실패: " + method, cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("[CommandHandler] 핸들러 호출 실패: " + method, e);
+        }
+    }
+
+    private Object decode(ConsumerRecord<String, byte[]> record, byte[] payload) {
+        if (payload == null || payloadType == byte[].class) return payload;
+        if (payloadType == String.class) return new String(payload, StandardCharsets.UTF_8);
+        try {
+            return PayloadCodec.decode(payload, payloadType, PayloadCodec.isBinary(record.headers()));
+        } catch (RuntimeException e) {
+            throw new PayloadDecodeException("[CommandHandler] 페이로드를 " + payloadType.getSimpleName() + "(으)로 변환할 수 없습니다.", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CommandHandlerMethod[" + (command.isEmpty() ? "fallback" : command) + " -> " + method + "]";
+    }
+
+}
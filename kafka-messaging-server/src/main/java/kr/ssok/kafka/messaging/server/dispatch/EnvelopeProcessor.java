@@ -0,0 +1,136 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.EnvelopeCodec;
+import kr.ssok.model.EnvelopeEntry;
+import kr.ssok.model.PayloadCodec;
+import kr.ssok.model.TransferRequest;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 봉투 메세지 처리
+ * 클라이언트가 여러 프로미스 쿼리를 묶어 보낸 봉투(CMD=ENVELOPE)를 항목별로 디스패치하고,
+ * 항목별 응답을 하나의 봉투 레코드로 묶어 응답합니다.
+ *
+ * 응답은 직접 전송하고 null을 반환하므로 reply-mode(record/batch/async)와 관계없이 동작합니다.
+ * 봉투 항목들의 원장 변경은 fsync 한번으로 내구화한 뒤에 응답합니다.
+ * 항목의 페이로드 형식은 봉투의 CONTENT_TYPE 헤더를 따르고, 응답 항목도 같은 형식으로 직렬화합니다.
+ * 핸들러가 실패한 항목은 재시도 토픽으로 보내지 않고 바로 FAILED 응답을 봉투에 담습니다.
+ * (재시도/DLT는 레코드 단위로 응답하므로 봉투 항목의 응답을 보낼 수 없음, 클라이언트가 타임아웃까지 기다리지 않도록 함)
+ *
+ * 봉투 레코드는 메세지 키가 없으므로(항목마다 키가 다름) async/parallel 모드에서 KeyOrderedExecutor의 키 순서 보장을 받지 않습니다.
+ * 봉투 안의 항목은 차례로 처리되지만, 같은 계좌의 다른 봉투나 개별 레코드와는 동시에 처리될 수 있습니다.
+ * (원장은 계좌 스트라이프 락으로 보호되므로 잔액은 맞지만, 계좌별 처리 순서가 필요한 요청은 봉투로 보내지 않아야 함)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EnvelopeProcessor {
+
+    private static final byte[] ENVELOPE_CMD = CommunicationProtocol.ENVELOPE.getBytes(StandardCharsets.UTF_8);
+
+    private final CommandDispatcher commandDispatcher;
+
+    private final KafkaTemplate<String, Object> replyTemplate;
+
+    private final Journal journal;
+
+    @CommandHandler(CommunicationProtocol.ENVELOPE)
+    public Object process(ConsumerRecord<String, byte[]> record) {
+        List<EnvelopeEntry> entries;
+        try {
+            entries = EnvelopeCodec.decode(record.value());
+        } catch (RuntimeException e) {
+            throw new PayloadDecodeException("[EnvelopeProcessor] 봉투 메세지를 해석할 수 없습니다.", e);
+        }
+        List<EnvelopeEntry> replies = new ArrayList<>(entries.size());
+        boolean binary = PayloadCodec.isBinary(record.headers());
+
+        for (EnvelopeEntry entry : entries) {
+            Object response = dispatch(record, entry, binary);
+            if (response != null)
+                replies.add(new EnvelopeEntry(entry.getCorrelationId(), null, PayloadCodec.encode(response, binary)));
+        }
+
+        log.info("Envelope processed: {} entries, {} replies", entries.size(), replies.size());
+        if (replies.isEmpty()) return null;
+
+        ProducerRecord<String, Object> reply = ReplyRecords.create(record, EnvelopeCodec.encode(replies));
+        if (reply != null) {
+            journal.sync();
+            reply.headers().add(CommandDispatcher.CMD_HEADER, ENVELOPE_CMD);
+            // 오프셋 커밋 전에 응답이 전송되도록 대기
+            replyTemplate.send(reply).join();
+        }
+        return null;
+    }
+
+    // 항목 하나를 CMD에 해당하는 핸들러로 처리, 처리할 수 없거나 실패한 항목은 FAILED 응답
+    private Object dispatch(ConsumerRecord<String, byte[]> envelope, EnvelopeEntry entry, boolean binary) {
+        // CMD가 없거나 봉투 안의 봉투는 개별 레코드처럼 fallback 핸들러로 처리 (unsupportedRequest)
+        boolean invalid = entry.getCmd() == null || Arrays.equals(entry.getCmd(), ENVELOPE_CMD);
+        CommandHandlerMethod handler = invalid
+                ? commandDispatcher.fallback(CommandHandler.Channel.REQUEST)
+                : commandDispatcher.resolve(CommandHandler.Channel.REQUEST, entry.getCmd());
+        if (handler == null) {
+            String cmd = entry.getCmd() == null ? null : new String(entry.getCmd(), StandardCharsets.UTF_8);
+            log.warn("No handler for CMD: {}", cmd);
+            return failedResponse(entry, binary, "Unsupported command: " + cmd);
+        }
+
+        try {
+            return commandDispatcher.invoke(handler, entryRecord(envelope, entry), entry.getPayload());
+        } catch (RuntimeException e) {
+            log.error("Error processing envelope entry: {}", entry.getCorrelationId(), e);
+            return failedResponse(entry, binary, "Bank system error: " + e.getMessage());
+        }
+    }
+
+    private static TransferResponse failedResponse(EnvelopeEntry entry, boolean binary, String message) {
+        return TransferResponse.builder()
+                .requestId(requestIdOf(entry, binary))
+                .status(TransferStatus.FAILED)
+                .message(message)
+                .processedTime(LocalDateTime.now())
+                .build();
+    }
+
+    // 항목 페이로드의 requestId (해석할 수 없으면 null)
+    private static String requestIdOf(EnvelopeEntry entry, boolean binary) {
+        if (entry.getPayload() == null) return null;
+        try {
+            return PayloadCodec.decode(entry.getPayload(), TransferRequest.class, binary).getRequestId();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // 핸들러가 ConsumerRecord를 받는 경우를 위해 항목의 CMD, 페이로드 형식 헤더를 가진 레코드를 만듦
+    private static ConsumerRecord<String, byte[]> entryRecord(ConsumerRecord<String, byte[]> envelope, EnvelopeEntry entry) {
+        RecordHeaders headers = new RecordHeaders();
+        if (entry.getCmd() != null) headers.add(CommandDispatcher.CMD_HEADER, entry.getCmd());
+        if (PayloadCodec.isBinary(envelope.headers())) PayloadCodec.markBinary(headers);
+
+        byte[] payload = entry.getPayload();
+        return new ConsumerRecord<>(envelope.topic(), envelope.partition(), envelope.offset(),
+                envelope.timestamp(), envelope.timestampType(), -1, payload == null ? -1 : payload.length,
+                envelope.key(), payload, headers, Optional.empty());
+    }
+
+}
@@ -0,0 +1,13 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+/**
+ * 페이로드를 해석할 수 없는 요청 (JSON/바이너리 파싱 실패, 봉투 형식 오류)
+ * 다시 처리해도 같은 결과이므로 재시도하지 않고 바로 DLT로 보냅니다.
+ */
+public class PayloadDecodeException extends RuntimeException {
+
+    public PayloadDecodeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
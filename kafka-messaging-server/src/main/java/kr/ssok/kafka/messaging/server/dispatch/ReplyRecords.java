@@ -0,0 +1,61 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+import kr.ssok.model.MessageHeaders;
+import kr.ssok.model.PayloadCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 응답 레코드 생성
+ * 요청 레코드의 응답 헤더(REPLY_TOPIC, CORRELATION_ID, REPLY_PARTITION)로 응답 레코드를 만듭니다.
+ * 처리 기한(DEADLINE), 페이로드 형식(CONTENT_TYPE) 헤더는 응답에 그대로 복사합니다. (요청과 같은 형식으로 응답)
+ * (@SendTo가 하는 일을 배치 리스너, 봉투 처리에서 직접 수행)
+ */
+@Slf4j
+public final class ReplyRecords {
+
+    private ReplyRecords() {
+    }
+
+    /**
+     * @param request  요청 레코드
+     * @param response 응답 value
+     * @return 응답 레코드, 응답 토픽이 없으면 null
+     */
+    public static ProducerRecord<String, Object> create(ConsumerRecord<String, byte[]> request, Object response) {
+        byte[] replyTopic = headerValue(request, KafkaHeaders.REPLY_TOPIC);
+        if (replyTopic == null) {
+            log.warn("Reply topic header missing, skip reply: {}-{}@{}", request.topic(), request.partition(), request.offset());
+            return null;
+        }
+
+        byte[] replyPartition = headerValue(request, KafkaHeaders.REPLY_PARTITION);
+        Integer partition = replyPartition == null ? null : ByteBuffer.wrap(replyPartition).getInt();
+
+        ProducerRecord<String, Object> reply = new ProducerRecord<>(
+                new String(replyTopic, StandardCharsets.UTF_8), partition, request.key(), response);
+
+        byte[] correlationId = headerValue(request, KafkaHeaders.CORRELATION_ID);
+        if (correlationId != null) reply.headers().add(KafkaHeaders.CORRELATION_ID, correlationId);
+
+        byte[] deadline = headerValue(request, MessageHeaders.DEADLINE);
+        if (deadline != null) reply.headers().add(MessageHeaders.DEADLINE, deadline);
+
+        byte[] contentType = headerValue(request, PayloadCodec.CONTENT_TYPE);
+        if (contentType != null) reply.headers().add(PayloadCodec.CONTENT_TYPE, contentType);
+
+        return reply;
+    }
+
+    public static byte[] headerValue(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : header.value();
+    }
+
+}
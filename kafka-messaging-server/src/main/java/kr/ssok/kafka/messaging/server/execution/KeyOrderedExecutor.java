@@ -0,0 +1,95 @@
+package kr.ssok.kafka.messaging.server.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 키 순서 보장 실행기
+ * 같은 키(계좌, 메세지 키)의 작업은 제출 순서대로 하나씩 실행하고, 다른 키의 작업은 동시에 실행합니다.
+ *
+ * 기본값은 작업마다 가상 스레드를 사용하며 (서버 모듈은 JDK 21 toolchain),
+ * bank.execution.virtual-threads=false면 고정 크기(platform-threads) 플랫폼 스레드 풀을 사용합니다.
+ */
+@Slf4j
+@Component
+public class KeyOrderedExecutor implements DisposableBean {
+
+    private final ExecutorService executor;
+
+    // 키별 마지막으로 제출된 작업 (작업이 끝나면 제거)
+    private final ConcurrentMap<Object, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(@Value("${bank.execution.virtual-threads:true}") boolean virtualThreads,
+                              @Value("${bank.execution.platform-threads:64}") int platformThreads) {
+        this.executor = createExecutor(virtualThreads, platformThreads);
+    }
+
+    /**
+     * 작업을 제출합니다.
+     * 같은 키의 이전 작업이 끝난 뒤에 실행되며, 이전 작업의 실패와 관계없이 실행됩니다.
+     *
+     * @param key  순서 보장 키, null이면 순서 없이 실행
+     * @param task 작업
+     * @return 작업 결과
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        if (key == null) return CompletableFuture.supplyAsync(task, executor);
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable run = () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                tails.remove(key, future);
+            }
+        };
+
+        CompletableFuture<?> previous = tails.put(key, future);
+        if (previous == null) executor.execute(run);
+        else previous.whenComplete((result, error) -> executor.execute(run));
+
+        return future;
+    }
+
+    /**
+     * 실행중이거나 대기중인 작업이 있는 키의 수
+     */
+    public int getActiveKeyCount() {
+        return tails.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) executor.shutdownNow();
+    }
+
+    private static ExecutorService createExecutor(boolean virtualThreads, int platformThreads) {
+        if (virtualThreads) {
+            log.info("KeyOrderedExecutor uses virtual threads");
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+
+        log.info("KeyOrderedExecutor uses {} platform threads", platformThreads);
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads, runnable -> {
+            Thread thread = new Thread(runnable, "bank-handler-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+}
@@ -0,0 +1,181 @@
+package kr.ssok.kafka.messaging.server.execution;
+
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * 파티션 오프셋 완료 추적기
+ * 한 파티션의 레코드를 동시에 처리할 때 레코드별 완료 여부를 비트맵으로 기록하고,
+ * 앞에서부터 끊김 없이 완료된 위치(커밋 가능 오프셋)를 계산합니다.
+ *
+ * - 비트맵은 커밋 가능 오프셋부터 시작하는 long 배열 링 버퍼 (오프셋 하나에 1비트, 처리중 구간이 넘치면 두배로 늘림)
+ * - 레코드마다 커밋 핸들(Acknowledgment 등)을 같은 위치에 보관하고, 커밋 가능 오프셋이 앞으로 가면 직전 레코드의 핸들로 커밋
+ * - 전달되지 않는 오프셋(컴팩션, 트랜잭션 마커)은 다음 오프셋을 등록할 때 완료로 표시
+ * - 등록(track)은 컨슈머 스레드, 완료(complete)는 처리 스레드에서 호출
+ *
+ * @param <T> 커밋 핸들
+ */
+public final class OffsetTracker<T> {
+
+    private static final int MIN_CAPACITY = 64;
+
+    // 커밋 가능 오프셋 (이 오프셋 이전은 모두 완료)
+    private long base;
+    // 다음에 등록될 오프셋
+    private long next;
+
+    private long[] words;
+    private Object[] handles;
+    private int mask;
+
+    private int inFlight;
+
+    public OffsetTracker(long firstOffset, int capacity) {
+        int size = Integer.highestOneBit(Math.max(MIN_CAPACITY, capacity) * 2 - 1);
+        this.words = new long[size >>> 6];
+        this.handles = new Object[size];
+        this.mask = size - 1;
+        this.base = firstOffset;
+        this.next = firstOffset;
+    }
+
+    /**
+     * 처리를 시작한 레코드를 등록합니다. (오프셋 순서대로 호출)
+     *
+     * @param offset 오프셋
+     * @param handle 커밋 핸들
+     */
+    public synchronized void track(long offset, T handle) {
+        if (offset < next) throw new IllegalArgumentException("offset " + offset + " < " + next);
+
+        // 처리중인 레코드가 없으면 건너뛴 구간을 표시하지 않고 바로 이동
+        if (base == next) base = next = offset;
+        ensureCapacity(offset - base + 1);
+        // 건너뛴 오프셋은 전달되지 않으므로 완료로 표시
+        for (long skipped = next; skipped < offset; skipped++) set(skipped);
+        handles[index(offset)] = handle;
+        next = offset + 1;
+        inFlight++;
+        advance();
+    }
+
+    /**
+     * 레코드 처리 완료를 기록합니다.
+     * 커밋 가능 오프셋이 앞으로 가면 그 직전 레코드의 핸들과 새 커밋 가능 오프셋으로 committer를 호출합니다.
+     * committer는 락 안에서 호출되므로 커밋 순서가 오프셋 순서와 같습니다.
+     *
+     * @param offset    오프셋
+     * @param committer 커밋 (핸들, 커밋 가능 오프셋)
+     */
+    public synchronized void complete(long offset, ObjLongConsumer<T> committer) {
+        if (offset < base || offset >= next) return;
+
+        set(offset);
+        inFlight--;
+        T handle = advance();
+        if (handle != null) committer.accept(handle, base);
+        notifyAll();
+    }
+
+    /**
+     * 처리중인 레코드가 없을 때까지 대기합니다.
+     *
+     * @param timeoutMillis 최대 대기 시간
+     * @return 처리중인 레코드가 모두 끝났으면 true
+     */
+    public synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (inFlight > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return false;
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * 커밋 가능 오프셋
+     */
+    public synchronized long getCommittableOffset() {
+        return base;
+    }
+
+    public synchronized long getNextOffset() {
+        return next;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 커밋되지 않은 레코드 수 (처리중 + 앞선 레코드를 기다리는 완료된 레코드)
+     */
+    public synchronized long getUncommitted() {
+        return next - base;
+    }
+
+    // 앞에서부터 완료된 오프셋을 비우고, 마지막으로 지나간 레코드의 핸들을 반환
+    @SuppressWarnings("unchecked")
+    private T advance() {
+        T last = null;
+        while (base < next && isSet(base)) {
+            int index = index(base);
+            // 64개가 모두 완료된 워드는 한번에 지나감
+            if ((index & 63) == 0 && next - base >= 64 && words[index >>> 6] == -1L) {
+                for (int i = index + 63; i >= index; i--) {
+                    if (handles[i] != null) {
+                        last = (T) handles[i];
+                        break;
+                    }
+                }
+                Arrays.fill(handles, index, index + 64, null);
+                words[index >>> 6] = 0;
+                base += 64;
+                continue;
+            }
+
+            if (handles[index] != null) last = (T) handles[index];
+            handles[index] = null;
+            words[index >>> 6] &= ~(1L << index);
+            base++;
+        }
+        return last;
+    }
+
+    private void ensureCapacity(long span) {
+        if (span <= handles.length) return;
+
+        int size = handles.length;
+        while (size < span) size <<= 1;
+
+        long[] oldWords = words;
+        Object[] oldHandles = handles;
+        int oldMask = mask;
+
+        words = new long[size >>> 6];
+        handles = new Object[size];
+        mask = size - 1;
+        for (long offset = base; offset < next; offset++) {
+            int oldIndex = (int) (offset & oldMask);
+            int index = index(offset);
+            handles[index] = oldHandles[oldIndex];
+            if ((oldWords[oldIndex >>> 6] & (1L << oldIndex)) != 0) words[index >>> 6] |= 1L << index;
+        }
+    }
+
+    private void set(long offset) {
+        int index = index(offset);
+        words[index >>> 6] |= 1L << index;
+    }
+
+    private boolean isSet(long offset) {
+        int index = index(offset);
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private int index(long offset) {
+        return (int) (offset & mask);
+    }
+
+}
@@ -0,0 +1,171 @@
+package kr.ssok.kafka.messaging.server.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.ssok.kafka.messaging.server.admission.AdmissionController;
+import kr.ssok.kafka.messaging.server.snapshot.SnapshotManager;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 파티션 내 병렬 처리기 (spring.kafka.reply-mode=parallel)
+ * 한 파티션의 레코드를 KeyOrderedExecutor에서 동시에 처리하고, 커밋은 앞에서부터 끊김 없이 완료된 오프셋까지만 합니다.
+ * 요청 토픽의 파티션 수와 관계없이 서버의 코어를 모두 사용할 수 있습니다.
+ *
+ * - 파티션별 OffsetTracker(완료 비트맵)로 커밋 가능 오프셋을 계산하고, 그 직전 레코드의 Acknowledgment로 커밋 (AckMode.MANUAL_IMMEDIATE)
+ * - bank.parallel.key-ordered=true 이면 같은 메세지 키(계좌)는 순서대로, 다른 키는 동시에 처리
+ * - 파티션의 처리중 레코드가 bank.parallel.max-in-flight 이상이면 AdmissionController로 그 파티션만 pause 하고, 절반 이하로 줄면 resume
+ *   (컨슈머 스레드는 대기하지 않으므로 같은 스레드가 소유한 다른 파티션과 -high 레인은 계속 처리,
+ *    이미 poll 한 레코드는 그대로 처리되므로 파티션별 처리중 레코드는 최대 max-in-flight + max.poll.records)
+ * - 파티션 회수시 처리중인 레코드가 끝날 때까지 기다린 뒤 컨테이너가 커밋하도록 함 (drain-timeout-ms 초과시 커밋된 위치부터 다시 처리, 멱등성 저장소가 중복 반영을 막음)
+ * - 처리에 실패한 레코드도 완료로 기록 (실패는 응답으로 전달되며, 커밋이 멈추지 않도록 함)
+ */
+@Slf4j
+@Component
+public class PartitionParallelProcessor implements ConsumerAwareRebalanceListener {
+
+    private final KeyOrderedExecutor executor;
+    private final SnapshotManager snapshotManager;
+    private final AdmissionController admissionController;
+
+    private final int maxInFlight;
+    private final boolean keyOrdered;
+    private final long drainTimeoutMillis;
+
+    private final Map<TopicPartition, OffsetTracker<Acknowledgment>> trackers = new ConcurrentHashMap<>();
+    // 처리 한도에 도달하여 pause 한 파티션
+    private final Set<TopicPartition> saturated = ConcurrentHashMap.newKeySet();
+    private final LongAdder failures = new LongAdder();
+
+    public PartitionParallelProcessor(KeyOrderedExecutor executor,
+                                      SnapshotManager snapshotManager,
+                                      AdmissionController admissionController,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${bank.parallel.max-in-flight:1000}") int maxInFlight,
+                                      @Value("${bank.parallel.key-ordered:true}") boolean keyOrdered,
+                                      @Value("${bank.parallel.drain-timeout-ms:30000}") long drainTimeoutMillis) {
+        this.executor = executor;
+        this.snapshotManager = snapshotManager;
+        this.admissionController = admissionController;
+        this.maxInFlight = maxInFlight;
+        this.keyOrdered = keyOrdered;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+
+        Gauge.builder("bank.parallel.in-flight", this, PartitionParallelProcessor::getInFlight).register(meterRegistry);
+        Gauge.builder("bank.parallel.uncommitted", this, PartitionParallelProcessor::getUncommitted).register(meterRegistry);
+        FunctionCounter.builder("bank.parallel.failures", failures, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * 레코드 처리를 시작합니다. (컨슈머 스레드에서 오프셋 순서대로 호출)
+     *
+     * @param record         레코드
+     * @param acknowledgment 레코드의 Acknowledgment
+     * @param work           처리 (실행기 스레드에서 호출, 반환한 Future(응답 전송)가 끝나면 레코드 처리 완료)
+     * @return 처리 완료
+     */
+    public CompletableFuture<Void> submit(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment,
+                                          Supplier<CompletableFuture<Void>> work) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        OffsetTracker<Acknowledgment> tracker = trackerOf(partition, record);
+        tracker.track(record.offset(), acknowledgment);
+        // 추적기 락 안에서 판단하여 완료 스레드의 resume과 순서가 뒤바뀌지 않도록 함
+        synchronized (tracker) {
+            if (tracker.getInFlight() >= maxInFlight && saturated.add(partition)) admissionController.saturated(partition);
+        }
+
+        return executor.submit(keyOrdered ? record.key() : null, work)
+                .thenCompose(reply -> reply)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        failures.increment();
+                        log.error("[PartitionParallelProcessor] 처리 실패: {}-{}@{}",
+                                record.topic(), record.partition(), record.offset(), throwable);
+                    }
+                    synchronized (tracker) {
+                        tracker.complete(record.offset(), (ack, committable) -> {
+                            ack.acknowledge();
+                            snapshotManager.consumed(partition, committable);
+                        });
+                        if (tracker.getInFlight() <= maxInFlight / 2) release(partition);
+                    }
+                });
+    }
+
+    // 처리 한도로 pause 한 파티션을 resume
+    private void release(TopicPartition partition) {
+        if (saturated.remove(partition)) admissionController.drained(partition);
+    }
+
+    // 파티션의 추적기 (위치가 뒤로 이동했으면(seek) 새로 만듦)
+    private OffsetTracker<Acknowledgment> trackerOf(TopicPartition partition, ConsumerRecord<?, ?> record) {
+        return trackers.compute(partition, (tp, current) -> {
+            if (current != null && record.offset() >= current.getNextOffset()) return current;
+            if (current != null) log.warn("[PartitionParallelProcessor] {} 위치 이동: {} -> {}", tp, current.getNextOffset(), record.offset());
+            return new OffsetTracker<>(record.offset(), maxInFlight);
+        });
+    }
+
+    /**
+     * 파티션 회수 (컨테이너 커밋 전)
+     * 처리중인 레코드가 끝나면 그 Acknowledgment가 컨테이너의 대기 커밋에 들어가므로, 이어지는 커밋에 포함됩니다.
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            release(partition);
+            OffsetTracker<Acknowledgment> tracker = trackers.remove(partition);
+            if (tracker == null) continue;
+
+            try {
+                if (!tracker.awaitIdle(drainTimeoutMillis))
+                    log.warn("[PartitionParallelProcessor] {} 회수 전 처리 완료 대기 시간 초과 (처리중 {}건, 커밋 {})",
+                            partition, tracker.getInFlight(), tracker.getCommittableOffset());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // 이미 다른 컨슈머에 할당되었으므로 커밋하지 않음
+        for (TopicPartition partition : partitions) {
+            release(partition);
+            trackers.remove(partition);
+        }
+    }
+
+    public int getInFlight() {
+        int sum = 0;
+        for (OffsetTracker<?> tracker : trackers.values()) sum += tracker.getInFlight();
+        return sum;
+    }
+
+    public long getUncommitted() {
+        long sum = 0;
+        for (OffsetTracker<?> tracker : trackers.values()) sum += tracker.getUncommitted();
+        return sum;
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+}
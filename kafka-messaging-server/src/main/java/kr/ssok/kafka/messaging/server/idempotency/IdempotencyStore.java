@@ -0,0 +1,348 @@
+package kr.ssok.kafka.messaging.server.idempotency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 멱등성 저장소
+ * TransferRequest.requestId 기준으로 처리된 응답을 보관하여 중복 요청시 재처리 없이 응답을 반환합니다.
+ *
+ * - 키는 128비트(long 2개)로 압축하여 원시 배열에 저장합니다. (UUID는 그대로, 그 외 문자열은 해시)
+ * - 스트라이프 단위로 락을 나누고, 각 스트라이프는 삽입 순서 링버퍼 + 오픈 어드레싱 인덱스로 구성됩니다.
+ *   스트라이프 락은 조회/저장에만 잡고, 요청 처리(원장 반영, 저널 기록)는 requestId별 처리중 표시로 한번만 실행되도록 합니다.
+ * - 용량 초과시 가장 오래된 항목부터 제거하고, TTL이 지난 항목은 조회/삽입시 정리합니다.
+ * - 메트릭 : bank.idempotency.hits / misses / evictions (용량 초과) / expirations (TTL 만료), bank.idempotency.size
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final long ttlMillis;
+
+    // 처리중인 requestId (처리가 끝나면 제거 후 완료되어 기다리던 요청이 다시 조회함)
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${bank.idempotency.max-entries:1000000}") int maxEntries,
+                            @Value("${bank.idempotency.ttl-seconds:600}") long ttlSeconds) {
+        int perStripe = Math.max(16, (maxEntries + STRIPES - 1) / STRIPES);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(perStripe);
+        this.ttlMillis = ttlSeconds * 1000L;
+
+        FunctionCounter.builder("bank.idempotency.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("bank.idempotency.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("bank.idempotency.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("bank.idempotency.expirations", expirations, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("bank.idempotency.size", this, IdempotencyStore::size).register(meterRegistry);
+
+        log.info("IdempotencyStore initialized: maxEntries={}, ttlSeconds={}", perStripe * STRIPES, ttlSeconds);
+    }
+
+    /**
+     * 이미 처리된 요청의 응답을 조회합니다.
+     *
+     * @param requestId 요청 ID
+     * @return 캐시된 응답, 없거나 만료되었으면 null
+     */
+    public TransferResponse get(String requestId) {
+        if (requestId == null) return null;
+
+        long msb = keyHigh(requestId);
+        long lsb = keyLow(requestId);
+        TransferResponse response = stripeOf(msb, lsb).get(msb, lsb, System.currentTimeMillis());
+
+        if (response != null) hits.increment();
+        else misses.increment();
+        return response;
+    }
+
+    /**
+     * 처리된 요청의 응답을 저장합니다.
+     *
+     * @param requestId 요청 ID
+     * @param response  응답
+     */
+    public void put(String requestId, TransferResponse response) {
+        if (requestId == null || response == null) return;
+
+        long msb = keyHigh(requestId);
+        long lsb = keyLow(requestId);
+        stripeOf(msb, lsb).put(msb, lsb, response, System.currentTimeMillis());
+    }
+
+    /**
+     * 저널 재생시 처리 시각 기준으로 응답을 복원합니다. (이미 TTL이 지난 응답은 복원하지 않음)
+     *
+     * @param requestId       요청 ID
+     * @param response        응답
+     * @param processedMillis 처리 시각 (epoch millis)
+     */
+    public void restore(String requestId, TransferResponse response, long processedMillis) {
+        if (requestId == null || response == null) return;
+        if (processedMillis + ttlMillis <= System.currentTimeMillis()) return;
+
+        long msb = keyHigh(requestId);
+        long lsb = keyLow(requestId);
+        stripeOf(msb, lsb).put(msb, lsb, response, processedMillis);
+    }
+
+    /**
+     * 처리된 응답이 있으면 반환하고, 없으면 요청을 처리하여 성공 응답을 저장합니다.
+     * 같은 requestId의 요청이 동시에 들어오면 먼저 처리중 표시를 남긴 요청만 처리하고, 나머지는 처리가 끝날 때까지 기다린 뒤
+     * 저장된 응답을 반환합니다. (실패 응답은 재시도로 다시 처리될 수 있도록 저장하지 않으므로, 이때는 기다린 요청이 다시 처리함)
+     * 처리는 스트라이프 락 밖에서 실행되므로 다른 requestId의 조회/저장을 막지 않습니다.
+     *
+     * @param requestId 요청 ID, null이면 저장하지 않고 처리만 함
+     * @param process   요청 처리
+     * @return 캐시된 응답 또는 처리 결과
+     */
+    public TransferResponse getOrProcess(String requestId, Supplier<TransferResponse> process) {
+        if (requestId == null) return process.get();
+
+        long msb = keyHigh(requestId);
+        long lsb = keyLow(requestId);
+        Stripe stripe = stripeOf(msb, lsb);
+
+        while (true) {
+            // 조회 통계는 get()에서만 기록 (보통 get()으로 먼저 확인한 뒤 호출함)
+            TransferResponse cached = stripe.get(msb, lsb, System.currentTimeMillis());
+            if (cached != null) return cached;
+
+            CompletableFuture<Void> marker = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(requestId, marker);
+            if (running != null) {
+                running.join();
+                continue;
+            }
+
+            try {
+                // 표시를 남기기 직전에 다른 요청이 처리를 끝내고 저장했을 수 있음
+                cached = stripe.get(msb, lsb, System.currentTimeMillis());
+                if (cached != null) return cached;
+
+                TransferResponse response = process.get();
+                if (response != null && response.getStatus() == TransferStatus.SUCCESS)
+                    stripe.put(msb, lsb, response, System.currentTimeMillis());
+                return response;
+            } finally {
+                // 제거한 뒤 완료해야 기다리던 요청이 다시 표시를 남길 수 있음
+                inFlight.remove(requestId, marker);
+                marker.complete(null);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) size += stripe.size();
+        return size;
+    }
+
+    private Stripe stripeOf(long msb, long lsb) {
+        return stripes[(int) (mix(msb ^ lsb) >>> 32) & (STRIPES - 1)];
+    }
+
+    // ---- 키 변환 ----
+
+    static long keyHigh(String requestId) {
+        return isUuid(requestId) ? parseHex(requestId, 0, 18) : fnv1a(requestId);
+    }
+
+    static long keyLow(String requestId) {
+        return isUuid(requestId) ? parseHex(requestId, 19, 36) : mix(polyHash(requestId) ^ requestId.length());
+    }
+
+    private static boolean isUuid(String s) {
+        if (s.length() != 36 || s.charAt(8) != '-' || s.charAt(13) != '-' || s.charAt(18) != '-' || s.charAt(23) != '-')
+            return false;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) continue;
+            if (Character.digit(s.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private static long parseHex(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '-') continue;
+            value = (value << 4) | Character.digit(c, 16);
+        }
+        return value;
+    }
+
+    private static long fnv1a(String s) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long polyHash(String s) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < s.length(); i++) hash = 31 * hash + s.charAt(i);
+        return hash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 스트라이프
+     * 항목은 삽입 순서대로 링버퍼(entry 배열)에 기록하고, index 테이블(선형 탐사)에 위치+1을 저장합니다.
+     * TTL이 동일하므로 링버퍼의 가장 오래된 항목이 항상 가장 먼저 만료됩니다.
+     * 같은 키를 다시 저장하면 기존 자리는 비워 두고(values == null) head에 새로 기록하므로 만료 순서가 유지됩니다.
+     */
+    private final class Stripe {
+        private final int capacity;
+        private final long[] keyHigh;
+        private final long[] keyLow;
+        private final long[] expireAt;
+        private final TransferResponse[] values;
+        private final int[] index;
+        private final int indexMask;
+
+        private int head; // 다음에 기록할 위치
+        private int size; // 링버퍼 사용량 (비워진 자리 포함)
+        private int live; // 조회 가능한 항목 수
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.keyHigh = new long[capacity];
+            this.keyLow = new long[capacity];
+            this.expireAt = new long[capacity];
+            this.values = new TransferResponse[capacity];
+
+            int indexSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.index = new int[indexSize];
+            this.indexMask = indexSize - 1;
+        }
+
+        synchronized TransferResponse get(long msb, long lsb, long now) {
+            int slot = findSlot(msb, lsb);
+            if (slot < 0) return null;
+
+            int pos = index[slot] - 1;
+            if (expireAt[pos] <= now) return null;
+            return values[pos];
+        }
+
+        synchronized void put(long msb, long lsb, TransferResponse value, long now) {
+            // 이미 있는 키는 기존 항목을 비우고 새 만료시각으로 링 head에 다시 기록
+            // (자리만 바꾸면 만료된 항목이 계속 miss가 되어 중복 요청이 다시 처리됨)
+            int slot = findSlot(msb, lsb);
+            if (slot >= 0) {
+                int pos = index[slot] - 1;
+                deleteSlot(slot);
+                values[pos] = null;
+                live--;
+            }
+
+            // 만료된 항목을 오래된 순서로 정리
+            while (size > 0 && expireAt[oldest()] <= now) {
+                if (removeOldest()) expirations.increment();
+            }
+
+            // 용량 초과시 가장 오래된 항목 제거
+            if (size == capacity) {
+                if (removeOldest()) evictions.increment();
+            }
+
+            int pos = head;
+            keyHigh[pos] = msb;
+            keyLow[pos] = lsb;
+            expireAt[pos] = now + ttlMillis;
+            values[pos] = value;
+            index[emptySlot(msb, lsb)] = pos + 1;
+
+            head = (head + 1) % capacity;
+            size++;
+            live++;
+        }
+
+        synchronized int size() {
+            return live;
+        }
+
+        private int oldest() {
+            return (head - size + capacity) % capacity;
+        }
+
+        // 다시 기록되어 비워진 항목(values == null)은 인덱스에 없으므로 자리만 반환
+        private boolean removeOldest() {
+            int pos = oldest();
+            boolean removed = values[pos] != null;
+            if (removed) {
+                int slot = findSlot(keyHigh[pos], keyLow[pos]);
+                if (slot >= 0) deleteSlot(slot);
+                values[pos] = null;
+                live--;
+            }
+            size--;
+            return removed;
+        }
+
+        private int findSlot(long msb, long lsb) {
+            int slot = (int) mix(msb ^ lsb) & indexMask;
+            while (index[slot] != 0) {
+                int pos = index[slot] - 1;
+                if (keyHigh[pos] == msb && keyLow[pos] == lsb) return slot;
+                slot = (slot + 1) & indexMask;
+            }
+            return -1;
+        }
+
+        private int emptySlot(long msb, long lsb) {
+            int slot = (int) mix(msb ^ lsb) & indexMask;
+            while (index[slot] != 0) slot = (slot + 1) & indexMask;
+            return slot;
+        }
+
+        // 선형 탐사 테이블의 역방향 이동 삭제 (tombstone 없이 삭제)
+        private void deleteSlot(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & indexMask;
+            while (index[next] != 0) {
+                int pos = index[next] - 1;
+                int home = (int) mix(keyHigh[pos] ^ keyLow[pos]) & indexMask;
+                // home이 (hole, next] 구간 밖이면 hole로 당겨옴
+                if (((next - home) & indexMask) >= ((next - hole) & indexMask)) {
+                    index[hole] = index[next];
+                    hole = next;
+                }
+                next = (next + 1) & indexMask;
+            }
+            index[hole] = 0;
+        }
+    }
+
+}
@@ -0,0 +1,599 @@
+package kr.ssok.kafka.messaging.server.journal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 원장 변경 저널 (write-ahead log)
+ * 원장에 반영한 입금/출금을 메모리 매핑된 세그먼트 파일에 순서대로 기록하고, 재기동시 재생하여 원장과 멱등성 저장소를 복구합니다.
+ *
+ * - 항목은 [길이(4)][CRC32C(4)][본문] 형식의 바이너리로, 송금 1건에 약 90바이트입니다. (요청 ID가 UUID면 16바이트로 저장)
+ * - 기록은 매핑된 버퍼에 복사만 하고(락 안에서 수백 ns), fsync는 커밋 스레드가 모아서 한번에 수행합니다. (그룹 커밋)
+ *   fsync 한번으로 그 사이에 기록된 모든 항목이 내구화되므로 송금 1건당 비용은 fsync 시간 / 배치 크기입니다.
+ * - 응답은 항목이 fsync 정책상 내구화된 뒤에만 보내야 합니다. (position() 이후 awaitDurable / sync)
+ * - 세그먼트는 segment-bytes 크기로 미리 매핑하고, 다 차면 다음 세그먼트를 만듭니다. 파일 이름은 세그먼트 시작 위치(전체 기준 바이트)입니다.
+ * - 스냅샷에 포함되어 더 이상 필요없는 앞쪽 세그먼트는 truncate로 삭제합니다.
+ *
+ * fsync 정책 (bank.journal.fsync)
+ * - always : 기록된 항목이 있으면 바로 fsync (대기중에 쌓인 항목은 다음 fsync에 함께 처리)
+ *            record 모드는 컨슈머 스레드가 레코드마다 내구화를 기다리므로 스레드당 레코드 1건마다 fsync 하게 됨
+ * - interval : fsync-interval-ms 마다 fsync (응답 지연이 최대 interval 만큼 늘어나는 대신 fsync 횟수가 고정됨, 기본값)
+ * - none : fsync 하지 않음 (페이지 캐시에 복사되면 내구화된 것으로 봄, 프로세스 장애는 견디지만 OS 장애시 유실)
+ */
+@Slf4j
+@Component
+public class Journal implements DisposableBean {
+
+    /**
+     * 재생 항목 처리
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param position 항목 끝 위치
+         * @param entry    항목
+         */
+        void visit(long position, JournalEntry entry);
+    }
+
+    public enum FsyncPolicy {
+        ALWAYS, INTERVAL, NONE;
+
+        public static FsyncPolicy of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final String SUFFIX = ".journal";
+
+    private static final byte TYPE_TRANSFER = 1;
+
+    private static final byte REQUEST_NONE = 0;
+    private static final byte REQUEST_UUID = 1;
+    private static final byte REQUEST_STRING = 2;
+
+    // 길이 + CRC32C
+    private static final int HEADER_BYTES = 8;
+    // 타입(1) 시각(8) 파티션(4) 오프셋(8) 계좌(8) 변경량(8) 잔액(8) 거래 ID(16) 요청 ID 형식(1)
+    private static final int FIXED_BODY_BYTES = 1 + 8 + 4 + 8 + 8 + 8 + 8 + 16 + 1;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+
+    private final Object lock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+    // lock 안에서만 변경
+    private Segment segment;
+    private Thread committer;
+    private boolean committerIdle;
+    private boolean closed;
+    private Throwable failure;
+
+    // 기록된 위치 / 내구화된 위치 (전체 세그먼트 기준 바이트)
+    private volatile long writtenPosition;
+    private volatile long durablePosition;
+
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final Timer fsyncTimer;
+
+    public Journal(MeterRegistry meterRegistry,
+                   @Value("${bank.journal.enabled:true}") boolean enabled,
+                   @Value("${bank.journal.dir:./data/journal}") String directory,
+                   @Value("${bank.journal.segment-bytes:67108864}") int segmentBytes,
+                   @Value("${bank.journal.fsync:interval}") String fsyncPolicy,
+                   @Value("${bank.journal.fsync-interval-ms:5}") long fsyncIntervalMillis) {
+        if (segmentBytes < 4096) throw new IllegalArgumentException("[Journal] segment-bytes는 4096 이상이어야 합니다: " + segmentBytes);
+
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsyncPolicy = FsyncPolicy.of(fsyncPolicy);
+        this.fsyncIntervalMillis = Math.max(1, fsyncIntervalMillis);
+
+        FunctionCounter.builder("bank.journal.appends", appends, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("bank.journal.commits", commits, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("bank.journal.unsynced-bytes", this, j -> j.writtenPosition - j.durablePosition).register(meterRegistry);
+        this.fsyncTimer = Timer.builder("bank.journal.fsync").register(meterRegistry);
+
+        log.info("Journal initialized: enabled={}, dir={}, segmentBytes={}, fsync={}",
+                enabled, this.directory.toAbsolutePath(), segmentBytes, this.fsyncPolicy);
+    }
+
+    /**
+     * 남아있는 세그먼트를 처음부터 재생하고 기록을 시작합니다. 기록(append) 전에 한번만 호출해야 합니다.
+     * 마지막 세그먼트 끝에 완전히 기록되지 않은 항목이 있으면 버리고 그 위치부터 이어서 기록합니다.
+     *
+     * @param visitor         항목 처리 (기록 순서대로 호출)
+     * @param replayFrom      재생이 필요한 시작 위치 (스냅샷 위치), 첫 세그먼트가 이보다 뒤에서 시작하면 저널 앞부분이 유실된 것
+     * @param initialPosition 기록을 이어갈 최소 위치 (스냅샷 위치), 세그먼트가 없으면 이 위치부터 시작
+     * @return 재생한 항목 수
+     */
+    public long recover(Visitor visitor, long replayFrom, long initialPosition) {
+        synchronized (lock) {
+            if (segment != null || closed) throw new IllegalStateException("[Journal] 이미 복구된 저널입니다.");
+            if (!enabled) return 0;
+
+            long count = 0;
+            try {
+                Files.createDirectories(directory);
+                List<Long> bases = segmentBases();
+                if (!bases.isEmpty() && bases.get(0) > replayFrom)
+                    throw new IllegalStateException("[Journal] 스냅샷 이후의 저널 세그먼트가 없습니다: " + replayFrom + " < " + bases.get(0));
+
+                for (int i = 0; i < bases.size(); i++) {
+                    boolean last = i == bases.size() - 1;
+                    Segment s = Segment.open(segmentFile(bases.get(i)), bases.get(i), segmentBytes);
+                    count += replay(s, visitor, last);
+
+                    if (!last && s.base + s.offset != bases.get(i + 1))
+                        throw new IllegalStateException("[Journal] 세그먼트가 이어지지 않습니다: " + segmentFile(bases.get(i)));
+                    if (last) segment = s;
+                }
+                if (segment == null) segment = Segment.open(segmentFile(initialPosition), initialPosition, segmentBytes);
+
+            } catch (IOException e) {
+                throw new IllegalStateException("[Journal] 저널을 열 수 없습니다: " + directory, e);
+            }
+
+            segment.forced = segment.offset;
+            writtenPosition = durablePosition = segment.base + segment.offset;
+            // 스냅샷이 저널보다 앞선 경우 (none 정책에서 OS 장애 등), 이어서 기록하면 스냅샷 위치 이하의 항목이 재생되지 않음
+            if (writtenPosition < initialPosition)
+                throw new IllegalStateException("[Journal] 저널이 스냅샷보다 짧습니다: " + writtenPosition + " < " + initialPosition);
+
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                committer = new Thread(this::commitLoop, "bank-journal-committer");
+                committer.setDaemon(true);
+                committer.start();
+            }
+
+            log.info("Journal recovered: {} entries, position={}", count, writtenPosition);
+            return count;
+        }
+    }
+
+    /**
+     * 항목을 기록합니다. 기록만 하고 fsync는 기다리지 않습니다.
+     *
+     * @param entry 항목
+     * @return 항목 끝 위치 (awaitDurable/whenDurable에 사용), 저널을 사용하지 않으면 0
+     * @throws IllegalStateException 복구 전이거나 닫혔거나 fsync에 실패한 저널
+     */
+    public long append(JournalEntry entry) {
+        if (!enabled) return 0;
+
+        String requestId = entry.requestId();
+        byte requestType;
+        byte[] requestBytes = null;
+        int length = FIXED_BODY_BYTES;
+        if (requestId == null) {
+            requestType = REQUEST_NONE;
+        } else if (isCanonicalUuid(requestId)) {
+            requestType = REQUEST_UUID;
+            length += 16;
+        } else {
+            requestType = REQUEST_STRING;
+            requestBytes = requestId.getBytes(StandardCharsets.UTF_8);
+            if (requestBytes.length > 0xFFFF) throw new IllegalArgumentException("[Journal] 요청 ID가 너무 깁니다.");
+            length += 2 + requestBytes.length;
+        }
+
+        synchronized (lock) {
+            checkWritable();
+
+            Segment s = segment;
+            if (s.offset + HEADER_BYTES + length > s.capacity) s = roll();
+
+            MappedByteBuffer buffer = s.buffer;
+            int p = s.offset + HEADER_BYTES;
+            buffer.put(p, TYPE_TRANSFER);
+            buffer.putLong(p + 1, entry.timestamp());
+            buffer.putInt(p + 9, entry.partition());
+            buffer.putLong(p + 13, entry.offset());
+            buffer.putLong(p + 21, entry.account());
+            buffer.putLong(p + 29, entry.delta());
+            buffer.putLong(p + 37, entry.balance());
+            buffer.putLong(p + 45, entry.txMsb());
+            buffer.putLong(p + 53, entry.txLsb());
+            buffer.put(p + 61, requestType);
+            if (requestType == REQUEST_UUID) {
+                UUID uuid = UUID.fromString(requestId);
+                buffer.putLong(p + 62, uuid.getMostSignificantBits());
+                buffer.putLong(p + 70, uuid.getLeastSignificantBits());
+            } else if (requestType == REQUEST_STRING) {
+                buffer.putShort(p + 62, (short) requestBytes.length);
+                buffer.put(p + 64, requestBytes);
+            }
+
+            // 본문을 모두 쓴 뒤에 CRC와 길이를 기록 (재생시 길이가 0이면 끝, CRC가 다르면 잘린 항목)
+            crc.reset();
+            crc.update(buffer.slice(p, length));
+            buffer.putInt(s.offset + 4, (int) crc.getValue());
+            buffer.putInt(s.offset, length);
+
+            s.offset += HEADER_BYTES + length;
+            long end = s.base + s.offset;
+            writtenPosition = end;
+            if (fsyncPolicy == FsyncPolicy.NONE) durablePosition = end;
+            appends.increment();
+
+            if (committerIdle) lock.notify();
+            return end;
+        }
+    }
+
+    /**
+     * 지금까지 기록된 위치 (이 위치까지 내구화되면 그 전에 기록된 모든 항목이 내구화된 것)
+     */
+    public long position() {
+        return writtenPosition;
+    }
+
+    /**
+     * 지정한 위치까지 내구화되면 완료되는 future를 반환합니다.
+     * future는 커밋 스레드에서 완료되므로 후속 작업은 짧게 유지해야 합니다.
+     *
+     * @param position 위치 (append 또는 position의 반환값)
+     * @return 내구화 완료, fsync에 실패하면 예외로 완료
+     */
+    public CompletableFuture<Void> whenDurable(long position) {
+        if (position <= durablePosition) return CompletableFuture.completedFuture(null);
+
+        synchronized (lock) {
+            if (failure != null) return CompletableFuture.failedFuture(failure);
+            if (position <= durablePosition) return CompletableFuture.completedFuture(null);
+            if (closed) return CompletableFuture.failedFuture(new IllegalStateException("[Journal] 저널이 닫혔습니다."));
+
+            Waiter waiter = new Waiter(position, new CompletableFuture<>());
+            waiters.add(waiter);
+            return waiter.future;
+        }
+    }
+
+    /**
+     * 지정한 위치까지 내구화될 때까지 대기합니다.
+     *
+     * @param position 위치 (append 또는 position의 반환값)
+     * @throws IllegalStateException fsync에 실패했거나 저널이 닫힌 경우
+     */
+    public void awaitDurable(long position) {
+        if (position <= durablePosition) return;
+        try {
+            whenDurable(position).join();
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new IllegalStateException("[Journal] 저널 항목을 내구화하지 못했습니다.", cause);
+        }
+    }
+
+    /**
+     * 지금까지 기록된 항목이 모두 내구화될 때까지 대기합니다.
+     * 응답하려는 결과의 항목을 다른 스레드가 기록했을 수도 있으므로(중복 요청) 응답 전에는 현재 위치까지 기다립니다.
+     */
+    public void sync() {
+        awaitDurable(writtenPosition);
+    }
+
+    /**
+     * 지정한 위치 이전에서 끝나는 세그먼트를 삭제합니다. (기록중인 세그먼트는 삭제하지 않음)
+     * 삭제하지 못한 세그먼트(다른 프로세스에서 사용중 등)는 다음 호출에서 다시 시도합니다.
+     *
+     * @param position 이 위치 이전의 항목은 더 이상 재생하지 않음
+     * @return 삭제한 세그먼트 수
+     */
+    public int truncate(long position) {
+        if (!enabled) return 0;
+
+        long current;
+        synchronized (lock) {
+            if (segment == null) return 0;
+            current = segment.base;
+        }
+
+        int deleted = 0;
+        try {
+            List<Long> bases = segmentBases();
+            for (int i = 0; i + 1 < bases.size(); i++) {
+                // 세그먼트 끝 = 다음 세그먼트 시작
+                if (bases.get(i + 1) > position || bases.get(i) >= current) break;
+                Files.deleteIfExists(segmentFile(bases.get(i)));
+                deleted++;
+            }
+        } catch (IOException e) {
+            log.warn("[Journal] 세그먼트 삭제 실패, 다음에 다시 시도합니다: {}", e.toString());
+        }
+
+        if (deleted > 0) log.info("Journal truncated: {} segments before {}", deleted, position);
+        return deleted;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    public long getAppendCount() {
+        return appends.sum();
+    }
+
+    /**
+     * fsync 횟수 (getAppendCount / getCommitCount = 평균 그룹 커밋 크기)
+     */
+    public long getCommitCount() {
+        return commits.sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        Thread thread;
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            thread = committer;
+            lock.notifyAll();
+        }
+        // 커밋 스레드는 남은 항목을 fsync 한 뒤에 종료
+        if (thread != null) thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        synchronized (lock) {
+            if (segment != null && failure == null) {
+                segment.buffer.force();
+                durablePosition = writtenPosition;
+            }
+            for (Waiter waiter : drain(Long.MAX_VALUE)) {
+                if (waiter.position <= durablePosition) waiter.future.complete(null);
+                else waiter.future.completeExceptionally(new IllegalStateException("[Journal] 저널이 닫혔습니다."));
+            }
+        }
+        log.info("Journal closed: position={}, appends={}, commits={}", writtenPosition, getAppendCount(), getCommitCount());
+    }
+
+    // ---- 그룹 커밋 ----
+
+    private void commitLoop() {
+        while (true) {
+            Segment s;
+            long target;
+            synchronized (lock) {
+                try {
+                    if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                        while (!closed && writtenPosition == durablePosition) {
+                            committerIdle = true;
+                            lock.wait();
+                        }
+                        committerIdle = false;
+                    } else if (!closed) {
+                        lock.wait(fsyncIntervalMillis);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                if (failure != null || (closed && writtenPosition == durablePosition)) return;
+                s = segment;
+                target = writtenPosition;
+            }
+            if (target == durablePosition) continue;
+
+            try {
+                long start = System.nanoTime();
+                int to = (int) (target - s.base);
+                if (to > s.forced) s.buffer.force(s.forced, to - s.forced);
+                s.forced = to;
+                fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                commits.increment();
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+
+            List<Waiter> completed;
+            synchronized (lock) {
+                durablePosition = target;
+                completed = drain(target);
+            }
+            for (Waiter waiter : completed) waiter.future.complete(null);
+        }
+    }
+
+    // target 이하 위치를 기다리는 대기자를 꺼냄 (lock 안에서 호출)
+    private List<Waiter> drain(long target) {
+        List<Waiter> drained = new ArrayList<>();
+        for (int i = waiters.size(); i > 0; i--) {
+            Waiter waiter = waiters.poll();
+            if (waiter.position <= target) drained.add(waiter);
+            else waiters.add(waiter);
+        }
+        return drained;
+    }
+
+    private void fail(Throwable e) {
+        log.error("[Journal] fsync 실패, 더 이상 기록하지 않습니다.", e);
+        List<Waiter> failed;
+        synchronized (lock) {
+            failure = e;
+            failed = drain(Long.MAX_VALUE);
+        }
+        for (Waiter waiter : failed) waiter.future.completeExceptionally(e);
+    }
+
+    private void checkWritable() {
+        if (failure != null) throw new IllegalStateException("[Journal] fsync에 실패한 저널입니다.", failure);
+        if (closed) throw new IllegalStateException("[Journal] 저널이 닫혔습니다.");
+        if (segment == null) throw new IllegalStateException("[Journal] 복구(recover) 전에는 기록할 수 없습니다.");
+    }
+
+    // 다음 세그먼트로 교체 (lock 안에서 호출), 이전 세그먼트는 교체 전에 모두 fsync
+    private Segment roll() {
+        Segment old = segment;
+        if (fsyncPolicy != FsyncPolicy.NONE) old.buffer.force();
+
+        long base = old.base + old.offset;
+        try {
+            segment = Segment.open(segmentFile(base), base, segmentBytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("[Journal] 세그먼트를 만들 수 없습니다: " + segmentFile(base), e);
+        }
+        log.info("Journal segment rolled: {}", segmentFile(base).getFileName());
+        return segment;
+    }
+
+    // ---- 재생 ----
+
+    private long replay(Segment s, Visitor visitor, boolean last) {
+        MappedByteBuffer buffer = s.buffer;
+        CRC32C checksum = new CRC32C();
+        long count = 0;
+
+        int pos = 0;
+        while (pos + HEADER_BYTES <= s.capacity) {
+            int length = buffer.getInt(pos);
+            if (length == 0) break;
+
+            boolean valid = length >= FIXED_BODY_BYTES && length <= s.capacity - pos - HEADER_BYTES;
+            if (valid) {
+                checksum.reset();
+                checksum.update(buffer.slice(pos + HEADER_BYTES, length));
+                valid = (int) checksum.getValue() == buffer.getInt(pos + 4);
+            }
+            if (!valid) {
+                if (!last) throw new IllegalStateException("[Journal] 손상된 항목: " + segmentFile(s.base) + "@" + pos);
+
+                // 장애로 잘린 마지막 항목, 뒤쪽을 지워서 이후 기록과 섞이지 않도록 함
+                log.warn("[Journal] 완전히 기록되지 않은 항목을 버립니다: {}@{}", segmentFile(s.base).getFileName(), pos);
+                byte[] zeros = new byte[8192];
+                for (int p = pos; p < s.capacity; p += zeros.length)
+                    buffer.put(p, zeros, 0, Math.min(zeros.length, s.capacity - p));
+                buffer.force();
+                break;
+            }
+
+            JournalEntry entry = read(buffer, pos + HEADER_BYTES);
+            pos += HEADER_BYTES + length;
+            visitor.visit(s.base + pos, entry);
+            count++;
+        }
+
+        s.offset = pos;
+        return count;
+    }
+
+    private static JournalEntry read(MappedByteBuffer buffer, int p) {
+        byte type = buffer.get(p);
+        if (type != TYPE_TRANSFER) throw new IllegalStateException("[Journal] 알 수 없는 항목 타입: " + type);
+
+        String requestId = switch (buffer.get(p + 61)) {
+            case REQUEST_UUID -> new UUID(buffer.getLong(p + 62), buffer.getLong(p + 70)).toString();
+            case REQUEST_STRING -> {
+                byte[] bytes = new byte[buffer.getShort(p + 62) & 0xFFFF];
+                buffer.get(p + 64, bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+            default -> null;
+        };
+
+        return new JournalEntry(buffer.getLong(p + 1), buffer.getInt(p + 9), buffer.getLong(p + 13),
+                buffer.getLong(p + 21), buffer.getLong(p + 29), buffer.getLong(p + 37),
+                buffer.getLong(p + 45), buffer.getLong(p + 53), requestId);
+    }
+
+    private List<Long> segmentBases() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentFile(long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    // UUID.toString() 결과와 같은 문자열만 16바이트로 저장 (재생시 같은 문자열로 복원되어야 함)
+    private static boolean isCanonicalUuid(String s) {
+        if (s.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = s.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Waiter(long position, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * 세그먼트 (파일 전체를 매핑, 매핑은 채널을 닫아도 유지됨)
+     */
+    private static final class Segment {
+        private final long base;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+
+        // 다음 기록 위치 (lock 안에서 변경)
+        private int offset;
+        // fsync 된 위치 (커밋 스레드에서만 변경)
+        private int forced;
+
+        private Segment(long base, MappedByteBuffer buffer) {
+            this.base = base;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment open(Path file, long base, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // 기존 세그먼트는 파일 크기 그대로 (segment-bytes 설정이 바뀌어도 재생 가능)
+                long length = channel.size() > 0 ? Math.min(channel.size(), Integer.MAX_VALUE) : size;
+                return new Segment(base, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+            }
+        }
+    }
+
+}
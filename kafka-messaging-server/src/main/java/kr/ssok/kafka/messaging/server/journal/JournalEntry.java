@@ -0,0 +1,19 @@
+package kr.ssok.kafka.messaging.server.journal;
+
+/**
+ * 저널 항목 (원장 변경 1건)
+ *
+ * @param timestamp     처리 시각 (epoch millis)
+ * @param partition     요청 레코드의 파티션
+ * @param offset        요청 레코드의 오프셋
+ * @param account       계좌 키 (LedgerEngine.accountKey)
+ * @param delta         잔액 변경량 (입금 +, 출금 -)
+ * @param balance       반영 후 잔액
+ * @param txMsb         거래 ID (UUID) 상위 64비트
+ * @param txLsb         거래 ID (UUID) 하위 64비트
+ * @param requestId     요청 ID
+ */
+public record JournalEntry(long timestamp, int partition, long offset,
+                           long account, long delta, long balance,
+                           long txMsb, long txLsb, String requestId) {
+}
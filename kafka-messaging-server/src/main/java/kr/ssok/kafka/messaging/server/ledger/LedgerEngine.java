@@ -0,0 +1,427 @@
+package kr.ssok.kafka.messaging.server.ledger;
+
+import kr.ssok.model.RoutingKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 계좌 원장 (인메모리)
+ * 계좌별 잔액을 보관하고 입금/출금을 적용합니다.
+ *
+ * - 계좌번호는 숫자와 '-' 위치를 모두 담은 long 키로 변환합니다. (최대 14자리, 표기가 다르면 다른 계좌)
+ * - 금액은 소수점 2자리 고정소수점 long(1 = 0.01)으로 다루며, BigDecimal은 요청/응답 변환시에만 사용합니다.
+ * - 계좌는 스트라이프로 나누고, 각 스트라이프는 long 배열 2개(키, 잔액)의 오픈 어드레싱 테이블 + 락 하나로 구성됩니다.
+ *   계좌 객체나 박싱된 맵 항목이 없으므로 계좌 수가 많아도 GC 부담이 없습니다.
+ * - 스트라이프는 요청 토픽 파티션별로 나눕니다. (bank.ledger.partitions)
+ *   계좌의 파티션은 클라이언트 파티셔너와 같은 RoutingKeys.partition으로 계산하고, 파티션 p의 계좌는 번호가 p (mod 파티션 수)인
+ *   스트라이프에만 배치되므로 파티션을 소유한 컨슈머 스레드끼리는 스트라이프 락을 두고 경합하지 않습니다.
+ *   파티션 수가 실제 토픽과 달라도 결과는 같고 경합만 늘어납니다.
+ * - 파티션 소유 스트라이프에도 락을 두는 이유: async/parallel 모드는 한 파티션의 레코드를 여러 스레드에서 처리하고,
+ *   스냅샷 스레드가 처리를 멈추지 않고 스트라이프를 복사하며, 리밸런스 직후에는 이전/새 소유 스레드가 잠시 겹칩니다.
+ *   파티션을 나눈 덕분에 락은 대부분 경합 없이 잡히므로 비용은 경합 없는 모니터 획득 정도입니다.
+ * - 입금/출금 결과는 새 잔액(0 이상) 또는 음수 오류 코드입니다. (NOT_FOUND, INSUFFICIENT_FUNDS, OVERFLOW)
+ * - 변경 리스너(저널 기록)는 스트라이프 락 안에서 호출되므로 계좌별 저널 순서가 원장 반영 순서와 같고,
+ *   스트라이프 단위 스냅샷에 함께 기록한 저널 위치로 스냅샷 이후의 변경만 골라서 재생할 수 있습니다.
+ */
+@Slf4j
+@Component
+public class LedgerEngine {
+
+    public static final int SCALE = 2;
+
+    public static final long INVALID_ACCOUNT = RoutingKeys.INVALID_ACCOUNT;
+
+    public static final long NOT_FOUND = -1;
+    public static final long INSUFFICIENT_FUNDS = -2;
+    public static final long OVERFLOW = -3;
+
+    private static final int STRIPES = 256;
+
+    /**
+     * 원장 변경 리스너
+     * 잔액을 바꾼 직후 스트라이프 락 안에서 호출되며, 예외를 던지면 변경을 되돌리고 예외를 그대로 전달합니다.
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onApplied(long account, long delta, long balance);
+    }
+
+    /**
+     * 스냅샷 스트라이프 처리
+     * keys/balances는 스트라이프 테이블의 복사본이며 키가 0인 칸은 빈 칸입니다.
+     */
+    @FunctionalInterface
+    public interface StripeVisitor {
+        void visit(int stripe, long position, long[] keys, long[] balances, int size) throws IOException;
+    }
+
+    private final Stripe[] stripes;
+    private final int partitions;
+
+    // 복원한 스냅샷의 스트라이프 배치와 스트라이프별 저널 위치 (이 위치 이하의 저널 항목은 이미 반영됨)
+    private int restoredPartitions;
+    private long[] restoredPositions;
+
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder withdrawals = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public LedgerEngine(@Value("${bank.ledger.initial-capacity:65536}") int initialCapacity,
+                        @Value("${bank.ledger.partitions:3}") int partitions,
+                        @Value("${bank.ledger.accounts:}") String[] accounts) {
+        if (partitions < 1 || partitions > STRIPES)
+            throw new IllegalArgumentException("[LedgerEngine] bank.ledger.partitions는 1~" + STRIPES + " 이어야 합니다: " + partitions);
+        this.partitions = partitions;
+
+        int perStripe = Math.max(16, (initialCapacity + STRIPES - 1) / STRIPES);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(perStripe);
+
+        for (String account : accounts) seed(account);
+        log.info("LedgerEngine initialized: {} accounts, {} stripes per partition", size(), STRIPES / partitions);
+    }
+
+    // "계좌번호:잔액" 형식의 초기 계좌
+    private void seed(String account) {
+        if (account.isBlank()) return;
+
+        int colon = account.lastIndexOf(':');
+        String number = colon < 0 ? account.trim() : account.substring(0, colon).trim();
+        long units = colon < 0 ? 0 : toUnits(new BigDecimal(account.substring(colon + 1).trim()));
+
+        long key = accountKey(number);
+        if (key == INVALID_ACCOUNT || units < 0)
+            throw new IllegalArgumentException("[LedgerEngine] 잘못된 초기 계좌입니다: " + account);
+        open(key, units);
+    }
+
+    /**
+     * 계좌를 개설합니다. 이미 있으면 잔액을 바꾸지 않습니다.
+     *
+     * @param account 계좌 키
+     * @param units   초기 잔액
+     * @return 개설 여부
+     */
+    public boolean open(long account, long units) {
+        return stripeOf(account).open(account, units);
+    }
+
+    /**
+     * 입금
+     *
+     * @param account 계좌 키
+     * @param units   금액 (0보다 커야 함)
+     * @return 입금 후 잔액, 또는 NOT_FOUND / OVERFLOW
+     */
+    public long deposit(long account, long units) {
+        return deposit(account, units, null);
+    }
+
+    /**
+     * 입금 후 스트라이프 락 안에서 리스너를 호출합니다.
+     *
+     * @param account  계좌 키
+     * @param units    금액 (0보다 커야 함)
+     * @param listener 변경 리스너, 예외를 던지면 입금을 되돌림
+     * @return 입금 후 잔액, 또는 NOT_FOUND / OVERFLOW
+     */
+    public long deposit(long account, long units, ChangeListener listener) {
+        long result = stripeOf(account).add(account, units, false, listener);
+        if (result >= 0) deposits.increment();
+        else rejections.increment();
+        return result;
+    }
+
+    /**
+     * 출금 (잔액이 부족하면 출금하지 않음)
+     *
+     * @param account 계좌 키
+     * @param units   금액 (0보다 커야 함)
+     * @return 출금 후 잔액, 또는 NOT_FOUND / INSUFFICIENT_FUNDS
+     */
+    public long withdraw(long account, long units) {
+        return withdraw(account, units, null);
+    }
+
+    /**
+     * 출금 후 스트라이프 락 안에서 리스너를 호출합니다.
+     *
+     * @param account  계좌 키
+     * @param units    금액 (0보다 커야 함)
+     * @param listener 변경 리스너, 예외를 던지면 출금을 되돌림
+     * @return 출금 후 잔액, 또는 NOT_FOUND / INSUFFICIENT_FUNDS
+     */
+    public long withdraw(long account, long units, ChangeListener listener) {
+        long result = stripeOf(account).add(account, -units, true, listener);
+        if (result >= 0) withdrawals.increment();
+        else rejections.increment();
+        return result;
+    }
+
+    /**
+     * 저널 항목을 재생합니다.
+     * 계좌의 스트라이프 스냅샷에 이미 포함된 항목(위치가 스냅샷 위치 이하)은 건너뛰고, 그 외에는 잔액 확인 없이 반영합니다.
+     * 계좌가 없으면 변경량을 잔액으로 개설합니다.
+     *
+     * @param position 저널 항목 끝 위치
+     * @param account  계좌 키
+     * @param delta    변경량
+     * @return 반영 여부
+     */
+    public boolean replay(long position, long account, long delta) {
+        if (restoredPositions != null && position <= restoredPositions[stripeIndex(account, restoredPartitions)]) return false;
+        return stripeOf(account).replay(account, delta);
+    }
+
+    /**
+     * 스트라이프 단위로 스냅샷을 만듭니다.
+     * 스트라이프마다 락 안에서 테이블을 복사하고 그 시점의 저널 위치를 함께 전달하며, 복사본 처리(visitor)는 락 밖에서 수행합니다.
+     * 다른 스트라이프의 입금/출금은 멈추지 않습니다.
+     *
+     * @param position 저널 위치 (스트라이프 락 안에서 호출)
+     * @param visitor  스트라이프 처리
+     */
+    public void snapshot(LongSupplier position, StripeVisitor visitor) throws IOException {
+        for (int i = 0; i < STRIPES; i++) {
+            long[] keys;
+            long[] balances;
+            long stripePosition;
+            int size;
+            Stripe stripe = stripes[i];
+            synchronized (stripe) {
+                stripePosition = position.getAsLong();
+                keys = stripe.keys.clone();
+                balances = stripe.balances.clone();
+                size = stripe.size;
+            }
+            visitor.visit(i, stripePosition, keys, balances, size);
+        }
+    }
+
+    /**
+     * 스냅샷의 스트라이프를 복원합니다. (기동시 처리 시작 전에만 호출)
+     * 계좌는 현재 배치의 스트라이프에 넣고(스냅샷 잔액으로 덮어씀), 재생 여부는 스냅샷 당시 배치의 스트라이프 위치로 판단하므로
+     * bank.ledger.partitions를 바꿔도 복원할 수 있습니다. 스냅샷에 없는 초기 계좌는 초기 잔액 그대로 남습니다.
+     *
+     * @param partitions 스냅샷의 스트라이프 배치 (파티션 수, 0이면 파티션별 배치 이전 형식)
+     * @param stripe     스트라이프 번호
+     * @param position   스냅샷 저널 위치
+     * @param keys       계좌 키
+     * @param balances   잔액
+     * @param size       계좌 수
+     */
+    public void restore(int partitions, int stripe, long position, long[] keys, long[] balances, int size) {
+        if (restoredPositions == null) {
+            restoredPartitions = partitions;
+            restoredPositions = new long[STRIPES];
+        } else if (restoredPartitions != partitions) {
+            throw new IllegalStateException("[LedgerEngine] 스트라이프 배치가 다른 스냅샷입니다: " + partitions);
+        }
+        restoredPositions[stripe] = position;
+
+        for (int i = 0; i < size; i++) stripeOf(keys[i]).put(keys[i], balances[i]);
+    }
+
+    public int getStripeCount() {
+        return STRIPES;
+    }
+
+    /**
+     * 스트라이프 배치 (요청 토픽 파티션 수)
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * 잔액 조회
+     *
+     * @param account 계좌 키
+     * @return 잔액, 계좌가 없으면 NOT_FOUND
+     */
+    public long balanceOf(long account) {
+        return stripeOf(account).balanceOf(account);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) size += stripe.size();
+        return size;
+    }
+
+    public long getDepositCount() {
+        return deposits.sum();
+    }
+
+    public long getWithdrawalCount() {
+        return withdrawals.sum();
+    }
+
+    /**
+     * 계좌 없음, 잔액 부족 등으로 적용하지 않은 요청 수
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    private Stripe stripeOf(long account) {
+        return stripes[stripeIndex(account, partitions)];
+    }
+
+    /**
+     * 계좌의 스트라이프 번호
+     * 파티션 p의 계좌는 p, p + partitions, p + 2 * partitions, ... 번 스트라이프에 나누어 배치합니다.
+     *
+     * @param account    계좌 키
+     * @param partitions 파티션 수 (0이면 파티션별 배치 이전 형식)
+     */
+    private static int stripeIndex(long account, int partitions) {
+        long h = RoutingKeys.mix(account);
+        if (partitions == 0) return (int) (h >>> 32) & (STRIPES - 1);
+
+        int partition = RoutingKeys.jump(h, partitions);
+        return partition + partitions * (int) ((h >>> 32) % (STRIPES / partitions));
+    }
+
+    // ---- 변환 ----
+
+    /**
+     * 계좌번호를 계좌 키로 변환합니다. (RoutingKeys.accountKey)
+     * 숫자 사이의 '-' 하나만 구분자로 허용하며, 서로 다른 계좌번호 문자열은 다른 키가 됩니다.
+     *
+     * @param accountNumber 계좌번호
+     * @return 계좌 키, 형식이 잘못되었거나 14자리를 넘으면 INVALID_ACCOUNT
+     */
+    public static long accountKey(String accountNumber) {
+        return RoutingKeys.accountKey(accountNumber);
+    }
+
+    /**
+     * 금액을 고정소수점 값으로 변환합니다.
+     *
+     * @param amount 금액
+     * @return 고정소수점 금액
+     * @throws ArithmeticException 소수점 2자리를 넘거나 범위를 벗어난 경우
+     */
+    public static long toUnits(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * 스트라이프
+     * 선형 탐사 테이블 (키 0은 빈 칸, 계좌 키는 1 이상)
+     * 계좌는 삭제하지 않으므로 tombstone이 없고, 사용률이 절반을 넘으면 두배로 늘립니다.
+     */
+    private static final class Stripe {
+        private long[] keys;
+        private long[] balances;
+        private int mask;
+        private int size;
+
+        Stripe(int capacity) {
+            int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.keys = new long[tableSize];
+            this.balances = new long[tableSize];
+            this.mask = tableSize - 1;
+        }
+
+        synchronized boolean open(long key, long units) {
+            int slot = slotOf(key);
+            if (keys[slot] == key) return false;
+
+            keys[slot] = key;
+            balances[slot] = units;
+            if (++size * 2 > keys.length) grow();
+            return true;
+        }
+
+        // 스냅샷 복원 (있으면 잔액을 덮어씀)
+        synchronized void put(long key, long units) {
+            int slot = slotOf(key);
+            if (keys[slot] == key) {
+                balances[slot] = units;
+                return;
+            }
+
+            keys[slot] = key;
+            balances[slot] = units;
+            if (++size * 2 > keys.length) grow();
+        }
+
+        synchronized long add(long key, long delta, boolean checkFunds, ChangeListener listener) {
+            int slot = slotOf(key);
+            if (keys[slot] != key) return NOT_FOUND;
+
+            long balance = balances[slot] + delta;
+            if (checkFunds && balance < 0) return INSUFFICIENT_FUNDS;
+            // 오버플로우 (delta > 0인데 음수가 된 경우)
+            if (balance < 0) return OVERFLOW;
+
+            balances[slot] = balance;
+            if (listener != null) {
+                try {
+                    listener.onApplied(key, delta, balance);
+                } catch (RuntimeException | Error e) {
+                    balances[slot] = balance - delta;
+                    throw e;
+                }
+            }
+            return balance;
+        }
+
+        synchronized boolean replay(long key, long delta) {
+            int slot = slotOf(key);
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                balances[slot] = delta;
+                if (++size * 2 > keys.length) grow();
+            } else {
+                balances[slot] += delta;
+            }
+            return true;
+        }
+
+        synchronized long balanceOf(long key) {
+            int slot = slotOf(key);
+            return keys[slot] == key ? balances[slot] : NOT_FOUND;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        // 키가 있는 칸 또는 키를 넣을 빈 칸
+        private int slotOf(long key) {
+            int slot = (int) RoutingKeys.mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldBalances = balances;
+
+            keys = new long[oldKeys.length * 2];
+            balances = new long[oldKeys.length * 2];
+            mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) continue;
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                balances[slot] = oldBalances[i];
+            }
+        }
+    }
+
+}
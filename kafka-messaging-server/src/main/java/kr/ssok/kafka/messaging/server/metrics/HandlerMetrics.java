@@ -0,0 +1,104 @@
+package kr.ssok.kafka.messaging.server.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import kr.ssok.kafka.messaging.server.dispatch.CommandDispatchListener;
+import kr.ssok.kafka.messaging.server.dispatch.CommandDispatcher;
+import kr.ssok.kafka.messaging.server.dispatch.CommandHandlerMethod;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @CommandHandler 메트릭
+ * 모든 빈이 생성된 뒤 등록된 핸들러마다 미터를 미리 만들고, 핸들러 번호(getId)로 바로 조회합니다.
+ *
+ * - bank.handler.duration : 핸들러 실행 시간 (cmd, handler)
+ * - bank.handler.queue : 프로듀서 전송 시각(레코드 timestamp)부터 핸들러 호출까지의 시간
+ * - bank.handler.errors : 핸들러 예외(type=exception), 실패 응답(type=failed) 수
+ * - bank.handler.expired : 처리 기한이 지나 처리하지 않고 버린 요청 수
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HandlerMetrics implements CommandDispatchListener, SmartInitializingSingleton {
+
+    private final MeterRegistry registry;
+
+    private final CommandDispatcher commandDispatcher;
+
+    private volatile HandlerMeters[] meters = new HandlerMeters[0];
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<CommandHandlerMethod> handlers = commandDispatcher.getHandlers();
+        HandlerMeters[] created = new HandlerMeters[handlers.size()];
+        for (CommandHandlerMethod handler : handlers) created[handler.getId()] = new HandlerMeters(registry, handler);
+        meters = created;
+
+        commandDispatcher.addListener(this);
+        log.info("HandlerMetrics registered for {} handlers", created.length);
+    }
+
+    @Override
+    public void onDispatched(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record,
+                             long startNanos, Object result, Throwable error) {
+        HandlerMeters[] meters = this.meters;
+        if (handler.getId() >= meters.length) return;
+
+        HandlerMeters m = meters[handler.getId()];
+        m.duration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (record.timestamp() > 0)
+            m.queue.record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+
+        if (error != null) m.exceptions.increment();
+        else if (result instanceof TransferResponse response && response.getStatus() == TransferStatus.FAILED)
+            m.failed.increment();
+    }
+
+    @Override
+    public void onExpired(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record) {
+        HandlerMeters[] meters = this.meters;
+        if (handler.getId() < meters.length) meters[handler.getId()].expired.increment();
+    }
+
+    private static final class HandlerMeters {
+        private final Timer duration;
+        private final Timer queue;
+        private final Counter exceptions;
+        private final Counter failed;
+        private final Counter expired;
+
+        HandlerMeters(MeterRegistry registry, CommandHandlerMethod handler) {
+            Tags tags = Tags.of("cmd", handler.getCommand().isEmpty() ? "fallback" : handler.getCommand(),
+                    "handler", handler.getMethodName());
+
+            this.duration = Timer.builder("bank.handler.duration")
+                    .description("핸들러 실행 시간")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.queue = Timer.builder("bank.handler.queue")
+                    .description("요청 전송 시각부터 핸들러 호출까지의 대기 시간")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.exceptions = Counter.builder("bank.handler.errors").tags(tags).tag("type", "exception").register(registry);
+            this.failed = Counter.builder("bank.handler.errors").tags(tags).tag("type", "failed").register(registry);
+            this.expired = Counter.builder("bank.handler.expired")
+                    .description("처리 기한이 지나 버린 요청 수")
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+}
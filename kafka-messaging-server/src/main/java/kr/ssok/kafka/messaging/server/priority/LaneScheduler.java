@@ -0,0 +1,209 @@
+package kr.ssok.kafka.messaging.server.priority;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.ssok.model.PriorityLane;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * 우선순위 레인 가중치 스케줄러
+ * 요청/단방향 리스너는 레인 토픽({topic}-high, {topic}, {topic}-low)을 함께 구독하며,
+ * 높은 레인에 처리 대기(컨슈머 lag + 처리중인 레코드)가 있으면 낮은 레인의 파티션을 가중치 비율만큼의 구간에만 읽도록 pause 합니다.
+ *
+ * - 높은 레인이 밀려 있는 동안 낮은 레인은 점검 구간마다 weight(낮은 레인) / weight(밀린 레인) 비율로만 resume
+ *   (high 8, normal 4, low 1이면 high가 밀려 있을 때 normal은 구간의 1/2, low는 1/8만 읽으므로 낮은 레인도 굶지 않음)
+ * - 높은 레인에 대기가 없으면 모든 레인을 제한 없이 읽음
+ * - 요청 토픽과 단방향 토픽은 대기와 몫을 따로 계산 (단방향 high가 밀려도 요청 normal/low는 제한하지 않음)
+ * - pause/resume은 AdmissionController가 부하 기준과 함께 적용 (점검 스레드에서만 호출)
+ * - 이미 poll한 레코드는 그대로 처리되므로 batch/async 모드는 reply-batch-size가 작을수록 빨리 반영됨
+ */
+@Slf4j
+@Component
+public class LaneScheduler {
+
+    // 컨슈머의 파티션별 lag 메트릭 (consumer-fetch-manager-metrics)
+    private static final String RECORDS_LAG = "records-lag";
+
+    private final boolean enabled;
+    private final String requestTopic;
+    private final String pushTopic;
+    private final int[] weights = new int[PriorityLane.values().length];
+
+    // 기존 토픽(요청/단방향)별 레인 상태
+    private final Map<String, Lanes> groups = new LinkedHashMap<>();
+
+    // 레인 토픽 (메트릭 태그는 토픽 이름의 '.'을 '_'로 바꿔서 사용)
+    private final Map<String, LaneTopic> topicLanes = new HashMap<>();
+    private final Map<String, LaneTopic> metricTopicLanes = new HashMap<>();
+
+    public LaneScheduler(MeterRegistry meterRegistry,
+                         @Value("${spring.kafka.request-topic}") String requestTopic,
+                         @Value("${spring.kafka.push-topic}") String pushTopic,
+                         @Value("${bank.priority.enabled:false}") boolean enabled,
+                         @Value("${bank.priority.weight.high:8}") int highWeight,
+                         @Value("${bank.priority.weight.normal:4}") int normalWeight,
+                         @Value("${bank.priority.weight.low:1}") int lowWeight) {
+        this.enabled = enabled;
+        this.requestTopic = requestTopic;
+        this.pushTopic = pushTopic;
+        weights[PriorityLane.HIGH.ordinal()] = highWeight;
+        weights[PriorityLane.NORMAL.ordinal()] = normalWeight;
+        weights[PriorityLane.LOW.ordinal()] = lowWeight;
+
+        for (PriorityLane lane : PriorityLane.values()) {
+            if (weights[lane.ordinal()] <= 0)
+                throw new IllegalArgumentException("[LaneScheduler] bank.priority.weight는 0보다 커야 합니다: " + lane);
+        }
+
+        for (String baseTopic : new String[]{requestTopic, pushTopic}) {
+            Lanes lanes = groups.computeIfAbsent(baseTopic, Lanes::new);
+            for (PriorityLane lane : PriorityLane.values()) {
+                String topic = lane.topic(baseTopic);
+                LaneTopic laneTopic = new LaneTopic(lanes, lane);
+                topicLanes.put(topic, laneTopic);
+                metricTopicLanes.put(topic.replace('.', '_'), laneTopic);
+
+                String tag = lane.name().toLowerCase(Locale.ROOT);
+                Gauge.builder("bank.priority.backlog", lanes.backlog, b -> b[lane.ordinal()])
+                        .tag("topic", baseTopic).tag("lane", tag).register(meterRegistry);
+                Gauge.builder("bank.priority.throttled", lanes.throttled, t -> t[lane.ordinal()] ? 1 : 0)
+                        .tag("topic", baseTopic).tag("lane", tag).register(meterRegistry);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 요청 리스너 구독 대상 (레인을 사용하지 않으면 기존 요청 토픽만)
+     */
+    public String[] getRequestTopics() {
+        return topicsOf(requestTopic);
+    }
+
+    /**
+     * 단방향 리스너 구독 대상 (레인을 사용하지 않으면 기존 단방향 토픽만)
+     */
+    public String[] getPushTopics() {
+        return topicsOf(pushTopic);
+    }
+
+    private String[] topicsOf(String baseTopic) {
+        if (!enabled) return new String[]{baseTopic};
+        return Arrays.stream(PriorityLane.values()).map(lane -> lane.topic(baseTopic)).toArray(String[]::new);
+    }
+
+    /**
+     * @param topic 토픽
+     * @return 레인, 레인 토픽이 아니면 null
+     */
+    public PriorityLane laneOf(String topic) {
+        LaneTopic laneTopic = topicLanes.get(topic);
+        return laneTopic == null ? null : laneTopic.lane();
+    }
+
+    /**
+     * 다음 점검까지 파티션을 읽지 않아야 하는지
+     */
+    public boolean isThrottled(TopicPartition tp) {
+        if (!enabled) return false;
+        LaneTopic laneTopic = topicLanes.get(tp.topic());
+        return laneTopic != null && laneTopic.lanes().throttled[laneTopic.lane().ordinal()];
+    }
+
+    /**
+     * 레인별 처리 대기를 집계하고 다음 구간에 pause 할 레인을 정합니다. (AdmissionController 점검 주기마다 호출)
+     *
+     * @param containers 레인 토픽을 구독하는 리스너 컨테이너
+     * @param inProcess  파티션별 처리중인 레코드 수 (async/parallel 모드에서 리스너 스레드가 넘긴 레코드)
+     */
+    public void update(Collection<MessageListenerContainer> containers, ToIntFunction<TopicPartition> inProcess) {
+        if (!enabled) return;
+
+        for (Lanes lanes : groups.values()) Arrays.fill(lanes.backlog, 0);
+        for (MessageListenerContainer container : containers) {
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned != null) {
+                for (TopicPartition tp : assigned) {
+                    LaneTopic laneTopic = topicLanes.get(tp.topic());
+                    if (laneTopic != null) laneTopic.lanes().backlog[laneTopic.lane().ordinal()] += inProcess.applyAsInt(tp);
+                }
+            }
+            addLag(container);
+        }
+        for (Lanes lanes : groups.values()) schedule(lanes);
+    }
+
+    // 아직 poll 하지 않은 레코드 수 (pause 중인 파티션은 마지막 값)
+    private void addLag(MessageListenerContainer container) {
+        for (Map<MetricName, ? extends Metric> metrics : container.metrics().values()) {
+            metrics.forEach((name, metric) -> {
+                if (!RECORDS_LAG.equals(name.name()) || !name.tags().containsKey("partition")) return;
+
+                LaneTopic laneTopic = metricTopicLanes.get(name.tags().get("topic"));
+                if (laneTopic != null && metric.metricValue() instanceof Double lag && lag > 0)
+                    laneTopic.lanes().backlog[laneTopic.lane().ordinal()] += lag.longValue();
+            });
+        }
+    }
+
+    // 대기가 있는 가장 높은 레인보다 낮은 레인은 가중치 비율만큼 쌓인 몫이 1이 될 때마다 한 구간씩 읽음
+    private void schedule(Lanes lanes) {
+        long[] backlog = lanes.backlog;
+        double[] credits = lanes.credits;
+        boolean[] throttled = lanes.throttled;
+
+        int busy = -1;
+        for (int i = 0; i < weights.length; i++) {
+            boolean throttle = false;
+            if (busy < 0) {
+                credits[i] = 0;
+            } else {
+                // 밀린 레인보다 가중치가 크면 매 구간 읽음 (몫은 1까지만 쌓음)
+                credits[i] = Math.min(1, credits[i] + (double) weights[i] / weights[busy]);
+                throttle = credits[i] < 1;
+                if (!throttle) credits[i] -= 1;
+            }
+
+            if (throttle != throttled[i])
+                log.debug("[LaneScheduler] {} {} {} (backlog: {})", lanes.baseTopic, PriorityLane.values()[i],
+                        throttle ? "throttle" : "release", Arrays.toString(backlog));
+            throttled[i] = throttle;
+            if (busy < 0 && backlog[i] > 0) busy = i;
+        }
+    }
+
+    /**
+     * 기존 토픽 하나의 레인별 상태 (PriorityLane 순서, 점검 스레드에서만 변경)
+     */
+    private final class Lanes {
+        private final String baseTopic;
+        private final long[] backlog = new long[weights.length];
+        private final double[] credits = new double[weights.length];
+        private final boolean[] throttled = new boolean[weights.length];
+
+        private Lanes(String baseTopic) {
+            this.baseTopic = baseTopic;
+        }
+    }
+
+    private record LaneTopic(Lanes lanes, PriorityLane lane) {
+    }
+
+}
@@ -0,0 +1,188 @@
+package kr.ssok.kafka.messaging.server.retry;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.ssok.kafka.messaging.server.dispatch.PayloadDecodeException;
+import kr.ssok.kafka.messaging.server.dispatch.ReplyRecords;
+import kr.ssok.model.MessageHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 재시도 토픽 라우터
+ * 처리에 실패한 요청을 원래 파티션에서 빼내 단계별 재시도 토픽으로 보내고, 마지막 단계까지 실패하면 DLT로 보냅니다.
+ * 실패한 요청이 파티션을 막지 않으므로 같은 파티션의 다른 요청은 계속 처리됩니다.
+ *
+ * - 재시도 토픽: {request-topic}-retry-{delay} (bank.retry.delays-ms 단계마다 하나, 처리 시각은 RETRY_DUE 헤더)
+ * - DLT: {request-topic}-dlt (BankService가 FAILED 응답을 보냄)
+ * - 원본 레코드의 키, value, 헤더(CMD, CORRELATION_ID, REPLY_TOPIC, REPLY_PARTITION, DEADLINE, CONTENT_TYPE)를 그대로 옮기므로
+ *   재시도/DLT 처리에서도 프로미스 요청자에게 응답할 수 있음
+ * - 페이로드를 해석할 수 없는 요청(PayloadDecodeException)은 재시도하지 않고 바로 DLT로 보냄
+ * - 전송이 끝난 뒤에 원본 오프셋이 커밋되도록 호출자는 반환된 Future를 기다려야 함
+ */
+@Slf4j
+@Component
+public class RetryRouter {
+
+    // 재시도 횟수 (4 bytes big-endian, 원본 토픽은 0)
+    public static final String RETRY_ATTEMPT = "RETRY_ATTEMPT";
+    // 재시도 처리 시각 (epoch millis, 8 bytes big-endian)
+    public static final String RETRY_DUE = "RETRY_DUE";
+    // 원본 레코드 위치 (topic-partition@offset)
+    public static final String RETRY_ORIGIN = "RETRY_ORIGIN";
+    // 마지막 실패 원인
+    public static final String RETRY_ERROR = "RETRY_ERROR";
+
+    private static final String RETRY_HEADER_PREFIX = "RETRY_";
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final KafkaTemplate<String, Object> replyTemplate;
+
+    private final boolean enabled;
+    private final long[] delays;
+    private final String[] retryTopics;
+    private final String deadLetterTopic;
+
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public RetryRouter(KafkaTemplate<String, Object> replyTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${spring.kafka.request-topic}") String requestTopic,
+                       @Value("${bank.retry.enabled:true}") boolean enabled,
+                       @Value("${bank.retry.delays-ms:1000,10000,60000}") long[] delays) {
+        if (enabled && delays.length == 0)
+            throw new IllegalArgumentException("[RetryRouter] bank.retry.delays-ms에 재시도 단계가 하나 이상 있어야 합니다.");
+        this.replyTemplate = replyTemplate;
+        this.enabled = enabled;
+        this.delays = delays.clone();
+        this.retryTopics = new String[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            if (delays[i] <= 0) throw new IllegalArgumentException("[RetryRouter] bank.retry.delays-ms는 0보다 커야 합니다: " + delays[i]);
+            retryTopics[i] = requestTopic + "-retry-" + delays[i];
+        }
+        this.deadLetterTopic = requestTopic + "-dlt";
+
+        FunctionCounter.builder("bank.retry.retried", retried, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("bank.retry.dead-lettered", deadLettered, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * 실패한 요청을 다음 재시도 토픽(마지막 단계 이후에는 DLT)으로 보냅니다.
+     *
+     * @param record 실패한 요청 레코드 (원본 또는 재시도 토픽의 레코드)
+     * @param error  실패 원인
+     * @return 전송 완료
+     */
+    public CompletableFuture<Void> route(ConsumerRecord<String, byte[]> record, Throwable error) {
+        int attempt = attemptOf(record);
+        boolean deadLetter = isFatal(error) || attempt >= retryTopics.length;
+        String topic = deadLetter ? deadLetterTopic : retryTopics[attempt];
+
+        ProducerRecord<String, Object> forward = new ProducerRecord<>(topic, null, record.key(), record.value());
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(RETRY_HEADER_PREFIX)) forward.headers().add(header);
+        }
+
+        byte[] origin = ReplyRecords.headerValue(record, RETRY_ORIGIN);
+        if (origin == null)
+            origin = (record.topic() + "-" + record.partition() + "@" + record.offset()).getBytes(StandardCharsets.UTF_8);
+        forward.headers().add(RETRY_ORIGIN, origin);
+        forward.headers().add(RETRY_ATTEMPT, ByteBuffer.allocate(Integer.BYTES).putInt(attempt + 1).array());
+        forward.headers().add(RETRY_ERROR, errorMessage(error).getBytes(StandardCharsets.UTF_8));
+        if (!deadLetter)
+            forward.headers().add(RETRY_DUE, MessageHeaders.toBytes(System.currentTimeMillis() + delays[attempt]));
+
+        if (deadLetter) {
+            deadLettered.increment();
+            log.error("[RetryRouter] DLT로 보냄 ({}회 시도): {}-{}@{}", attempt + 1,
+                    record.topic(), record.partition(), record.offset(), error);
+        } else {
+            retried.increment();
+            log.warn("[RetryRouter] {}ms 후 재시도 ({}회 실패): {}-{}@{} - {}", delays[attempt], attempt + 1,
+                    record.topic(), record.partition(), record.offset(), errorMessage(error));
+        }
+        return replyTemplate.send(forward).thenAccept(result -> { });
+    }
+
+    /**
+     * 재시도 레코드의 처리 시각까지 남은 시간
+     *
+     * @return 남은 시간 (ms), 이미 지났거나 RETRY_DUE 헤더가 없으면 0 이하
+     */
+    public static long remainingDelay(ConsumerRecord<?, ?> record) {
+        long due = MessageHeaders.toLong(ReplyRecords.headerValue(record, RETRY_DUE));
+        return due < 0 ? 0 : due - System.currentTimeMillis();
+    }
+
+    /**
+     * 재시도 횟수 (원본 토픽의 레코드는 0)
+     */
+    public static int attemptOf(ConsumerRecord<?, ?> record) {
+        byte[] attempt = ReplyRecords.headerValue(record, RETRY_ATTEMPT);
+        return attempt == null || attempt.length != Integer.BYTES ? 0 : ByteBuffer.wrap(attempt).getInt();
+    }
+
+    /**
+     * 마지막 실패 원인 (RETRY_ERROR 헤더)
+     */
+    public static String errorOf(ConsumerRecord<?, ?> record) {
+        byte[] error = ReplyRecords.headerValue(record, RETRY_ERROR);
+        return error == null ? null : new String(error, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 원본 레코드 위치 (RETRY_ORIGIN 헤더)
+     */
+    public static String originOf(ConsumerRecord<?, ?> record) {
+        byte[] origin = ReplyRecords.headerValue(record, RETRY_ORIGIN);
+        return origin == null ? null : new String(origin, StandardCharsets.UTF_8);
+    }
+
+    // 다시 처리해도 실패하는 요청
+    private static boolean isFatal(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PayloadDecodeException) return true;
+        }
+        return false;
+    }
+
+    private static String errorMessage(Throwable error) {
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 단계별 재시도 토픽 (재시도 리스너 구독 대상)
+     */
+    public String[] getRetryTopics() {
+        return retryTopics.clone();
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    public long getRetriedCount() {
+        return retried.sum();
+    }
+
+    public long getDeadLetteredCount() {
+        return deadLettered.sum();
+    }
+
+}
@@ -0,0 +1,111 @@
+package kr.ssok.kafka.messaging.server.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재시도 토픽 지연 처리
+ * 재시도 리스너가 받은 레코드 중 처리 시각(RETRY_DUE)이 된 레코드만 넘기고,
+ * 처리 시각 전인 레코드의 파티션은 그 레코드로 되돌린(seek) 뒤 처리 시각까지 pause 합니다.
+ *
+ * - 재시도 토픽은 단계마다 지연시간이 같으므로 파티션의 레코드는 처리 시각 순서, 맨 앞 레코드만 기다리면 됨
+ * - 컨슈머 스레드를 재우지 않으므로 다른 파티션/단계의 재시도와 원본 토픽의 처리는 계속 진행됨
+ * - pause 중에도 컨테이너는 poll을 계속하므로 컨슈머 그룹에서 빠지지 않음
+ * - 오프셋은 처리한 레코드까지만 직접 커밋 (AckMode.MANUAL, 되돌린 레코드는 커밋하지 않음)
+ */
+@Slf4j
+@Component
+public class RetryScheduler implements DisposableBean {
+
+    // 재시도 리스너 (BankService @KafkaListener id)
+    public static final String LISTENER_ID = "bankRetryListener";
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ScheduledExecutorService scheduler;
+
+    public RetryScheduler(KafkaListenerEndpointRegistry registry) {
+        this.registry = registry;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "retry-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 처리 시각이 된 레코드를 반환합니다. (컨슈머 스레드에서 호출)
+     * 처리 시각 전인 레코드를 만나면 그 파티션의 나머지 레코드는 건너뛰고 처리 시각에 다시 읽습니다.
+     *
+     * @param records  재시도 리스너가 받은 레코드
+     * @param consumer 재시도 리스너의 컨슈머
+     * @return 처리할 레코드 (파티션별 앞부분)
+     */
+    public List<ConsumerRecord<String, byte[]>> due(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        List<ConsumerRecord<String, byte[]>> due = new ArrayList<>(records.size());
+        Set<TopicPartition> deferred = new HashSet<>();
+
+        for (ConsumerRecord<String, byte[]> record : records) {
+            TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+            if (deferred.contains(tp)) continue;
+
+            long remaining = RetryRouter.remainingDelay(record);
+            if (remaining <= 0) {
+                due.add(record);
+                continue;
+            }
+
+            deferred.add(tp);
+            consumer.seek(tp, record.offset());
+            pause(tp, remaining);
+        }
+        return due;
+    }
+
+    /**
+     * 처리한 레코드의 오프셋을 커밋합니다. (컨슈머 스레드에서 호출)
+     *
+     * @param processed 처리한 레코드 (due의 반환값)
+     * @param consumer  재시도 리스너의 컨슈머
+     */
+    public void commit(List<ConsumerRecord<String, byte[]>> processed, Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (ConsumerRecord<String, byte[]> record : processed) {
+            offsets.merge(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1),
+                    (current, next) -> current.offset() >= next.offset() ? current : next);
+        }
+        if (!offsets.isEmpty()) consumer.commitSync(offsets);
+    }
+
+    // 다음 poll 전에 컨테이너가 파티션을 pause 하고, 처리 시각에 resume
+    private void pause(TopicPartition tp, long delayMillis) {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container == null) return;
+
+        container.pausePartition(tp);
+        scheduler.schedule(() -> container.resumePartition(tp), delayMillis, TimeUnit.MILLISECONDS);
+        log.debug("[RetryScheduler] {} {}ms 대기", tp, delayMillis);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+}
@@ -1,126 +1,505 @@
 package kr.ssok.kafka.messaging.server.service;
 
+import kr.ssok.kafka.messaging.server.admission.AdmissionController;
+import kr.ssok.kafka.messaging.server.dispatch.CommandDispatcher;
+import kr.ssok.kafka.messaging.server.dispatch.CommandHandler;
+import kr.ssok.kafka.messaging.server.dispatch.ReplyRecords;
+import kr.ssok.kafka.messaging.server.execution.KeyOrderedExecutor;
+import kr.ssok.kafka.messaging.server.execution.PartitionParallelProcessor;
+import kr.ssok.kafka.messaging.server.idempotency.IdempotencyStore;
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import kr.ssok.kafka.messaging.server.journal.JournalEntry;
+import kr.ssok.kafka.messaging.server.ledger.LedgerEngine;
+import kr.ssok.kafka.messaging.server.retry.RetryRouter;
+import kr.ssok.kafka.messaging.server.retry.RetryScheduler;
+import kr.ssok.kafka.messaging.server.snapshot.SnapshotManager;
 import kr.ssok.model.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class BankService {
+public class BankService implements ConsumerSeekAware {
+
+    private final KafkaTemplate<String, Object> replyTemplate;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final CommandDispatcher commandDispatcher;
+
+    private final KeyOrderedExecutor keyOrderedExecutor;
+
+    private final AdmissionController admissionController;
+
+    private final LedgerEngine ledgerEngine;
+
+    private final Journal journal;
+
+    private final SnapshotManager snapshotManager;
+
+    private final PartitionParallelProcessor parallelProcessor;
+
+    private final RetryRouter retryRouter;
+
+    private final RetryScheduler retryScheduler;
+
+    // record 모드에서 마지막으로 예약한 응답 (저널 커밋 스레드가 위치 순서대로 완료하므로 마지막 것만 기다리면 앞의 응답도 전송됨)
+    private volatile CompletableFuture<?> pendingReply = CompletableFuture.completedFuture(null);
+
+    // 원장 통화 (다른 통화의 요청은 처리하지 않음)
+    @Value("${bank.ledger.currency:KRW}")
+    private String currency;
+
+    // 등록되지 않은 계좌에 입금하면 잔액 0으로 개설한 뒤 입금 (개발/테스트용, 출금은 등록된 계좌만)
+    @Value("${bank.ledger.open-on-deposit:false}")
+    private boolean openOnDeposit;
 
     /**
      * 프로미스 요청에 대한 카프카 리스너
-     * 요청한 내용을 확인후 응답을 반환합니다.
+     * CMD 헤더에 해당하는 @CommandHandler(REQUEST) 핸들러의 반환값을 응답으로 보냅니다.
+     * 응답은 원장 변경이 저널에 내구화되면 저널 커밋 스레드에서 전송하므로, 컨슈머 스레드는 fsync를 기다리지 않고 다음 레코드를 처리합니다.
+     * (kafkaListenerReplyContainerFactory 사용)
+     *
+     * @param record 레코드
+     */
+    @KafkaListener(id = "bankRequestListener", topics = "#{@laneScheduler.requestTopics}", groupId = "request-server-group",
+            containerFactory = "kafkaListenerReplyContainerFactory", batch = "false",
+            autoStartup = "#{'${spring.kafka.reply-mode:record}' == 'record'}")
+    public void handleTransferRequest(ConsumerRecord<String, byte[]> record) {
+
+        log.debug("Received request in bank service: {}-{}@{}", record.topic(), record.partition(), record.offset());
+
+        // 응답은 replyTemplate의 PayloadSerializer에서 한번만 직렬화됨
+        Object response = dispatchRequest(record);
+        snapshotManager.consumed(record);
+        if (response == null) return;
+
+        // 응답 헤더(replyTopic, correlationId)는 지정된 요청만 응답
+        ProducerRecord<String, Object> reply = ReplyRecords.create(record, response);
+        if (reply == null) return;
+
+        // 원장 변경이 저널에 내구화된 뒤에 응답 (내구화 순서대로 완료되므로 응답 순서도 처리 순서와 같음)
+        // 오프셋은 응답 전송 전에 커밋될 수 있지만, 원장 변경은 저널에서 복구되고 클라이언트 재시도는 멱등성 저장소의 응답을 받음
+        pendingReply = journal.whenDurable(journal.position()).handle((result, throwable) -> {
+            if (throwable != null) {
+                log.error("[BankService] 저널 내구화 실패, 응답하지 않음: {}-{}@{}",
+                        record.topic(), record.partition(), record.offset(), throwable);
+                return null;
+            }
+            log.info("Request processed, sending response: {}", response);
+            try {
+                replyTemplate.send(reply);
+            } catch (RuntimeException e) {
+                log.error("[BankService] 응답 전송 실패: {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 프로미스 요청에 대한 카프카 배치 리스너
+     * spring.kafka.reply-mode=batch 일때 handleTransferRequest 대신 동작합니다.
+     * 배치 단위로 처리후 응답을 한번에 flush하고, 리스너가 반환되면 오프셋을 한번만 커밋합니다. (AckMode.BATCH)
+     * 배치의 원장 변경은 fsync 한번으로 내구화한 뒤에 응답합니다.
      * (kafkaListenerReplyContainerFactory 사용)
      *
-     * @param record        레코드
-     * @param replyTopic    응답을 보내는 토픽
-     * @param correlationId 상관 ID
-     * @param cmd           통신 프로토콜
-     * @return
-     */
-    @KafkaListener(topics = "${spring.kafka.request-topic}", groupId = "request-server-group", containerFactory = "kafkaListenerReplyContainerFactory")
-    @SendTo // 응답은 헤더에 지정된 replyTopic으로 전송됨
-    public String handleTransferRequest(ConsumerRecord<String, String> record,
-                                        @Header(KafkaHeaders.REPLY_TOPIC) String replyTopic,
-                                        @Header(KafkaHeaders.CORRELATION_ID) String correlationId,
-                                        @Header(value = "CMD", required = false) String cmd) {
-
-        log.info("Received TransferRequest in bank service: {}", record.value());
-        log.info("Received CMD: {}", cmd);
-        log.info("Correlation ID: {}", correlationId);
-        log.info("Reply topic: {}", replyTopic);
-
-        // 실제 은행 송금 처리 로직 구현 (여기서는 간단히 시뮬레이션)
-        // 레코드에서 record.value()를 DTO 타입으로 캐스팅하여 사용할 것
-        TransferRequest request = JsonUtil.fromJson(record.value(), TransferRequest.class);
-        TransferResponse response = processTransferInBank(request);
-
-        if (cmd == null) return JsonUtil.toJson(response);
-
-        switch (cmd)
-        {
-            case CommunicationProtocol.SEND_TEST_MESSAGE:
-                log.info("Called SEND_TEST_MESSAGE!");
-                break;
-            case CommunicationProtocol.REQUEST_DEPOSIT:
-                log.info("Called REQUEST_DEPOSIT!");
-                break;
-            case CommunicationProtocol.REQUEST_WITHDRAW:
-                log.info("Called REQUEST_WITHDRAW!");
-                break;
+     * @param records 레코드 목록
+     */
+    @KafkaListener(id = "bankRequestBatchListener", topics = "#{@laneScheduler.requestTopics}", groupId = "request-server-group",
+            containerFactory = "kafkaListenerReplyContainerFactory", batch = "true",
+            autoStartup = "#{'${spring.kafka.reply-mode:record}' == 'batch'}")
+    public void handleTransferRequestBatch(List<ConsumerRecord<String, byte[]>> records) {
+
+        log.info("Received request batch in bank service: {} records", records.size());
+
+        int replies = dispatchAndReply(records);
+        snapshotManager.consumed(records);
+
+        log.info("Request batch processed, sent {} responses", replies);
+    }
+
+    // 레코드를 차례로 처리하고, 원장 변경이 저널에 내구화된 뒤 응답을 한번에 전송 (전송이 끝날 때까지 대기)
+    private int dispatchAndReply(List<ConsumerRecord<String, byte[]>> records) {
+        List<ProducerRecord<String, Object>> replyRecords = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            Object response = dispatchRequest(record);
+            if (response == null) continue;
+
+            ProducerRecord<String, Object> reply = ReplyRecords.create(record, response);
+            if (reply != null) replyRecords.add(reply);
         }
 
-        log.info("Transfer processed, sending response: {}", response);
-        return JsonUtil.toJson(response);
+        // 배치의 원장 변경이 저널에 내구화된 뒤에 응답
+        if (!replyRecords.isEmpty()) journal.sync();
+
+        List<CompletableFuture<SendResult<String, Object>>> replies = new ArrayList<>(replyRecords.size());
+        for (ProducerRecord<String, Object> reply : replyRecords) replies.add(replyTemplate.send(reply));
+
+        // 배치의 응답을 한번에 전송하고, 모두 전송된 후에 오프셋이 커밋되도록 대기
+        replyTemplate.flush();
+        CompletableFuture.allOf(replies.toArray(CompletableFuture[]::new)).join();
+        return replies.size();
     }
 
     /**
-     * 단방향 메세지 요청에 대한 카프카 리스너
+     * 프로미스 요청에 대한 카프카 비동기 리스너
+     * spring.kafka.reply-mode=async 일때 동작합니다.
+     * 핸들러를 가상 스레드에서 실행하여 느린 은행 처리를 겹쳐서 수행합니다. (같은 메세지 키는 순서대로, 다른 키는 동시에)
+     * 처리가 끝난 요청부터 응답하고, 배치의 모든 처리와 응답 전송이 끝난 뒤에 오프셋을 커밋합니다. (AckMode.BATCH)
+     * 각 작업은 원장 변경이 저널에 내구화될 때까지 기다린 뒤에 응답하며, 동시에 기다리는 작업들은 fsync 한번에 함께 처리됩니다.
+     * (kafkaListenerReplyContainerFactory 사용)
+     *
+     * @param records 레코드 목록
+     */
+    @KafkaListener(id = "bankRequestAsyncListener", topics = "#{@laneScheduler.requestTopics}", groupId = "request-server-group",
+            containerFactory = "kafkaListenerReplyContainerFactory", batch = "true",
+            autoStartup = "#{'${spring.kafka.reply-mode:record}' == 'async'}")
+    public void handleTransferRequestAsync(List<ConsumerRecord<String, byte[]>> records) {
+
+        log.info("Received request batch in bank service (async): {} records", records.size());
+
+        List<CompletableFuture<?>> replies = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            // 파티션별 처리 대기 수를 AdmissionController에 알려 과부하시 해당 파티션의 수신을 멈추도록 함
+            admissionController.enter(record);
+            CompletableFuture<?> reply = keyOrderedExecutor
+                    .submit(record.key(), () -> {
+                        Object response = dispatchRequest(record);
+                        if (response != null) journal.sync();
+                        return response;
+                    })
+                    .thenCompose(response -> {
+                        ProducerRecord<String, Object> replyRecord = response == null ? null : ReplyRecords.create(record, response);
+                        if (replyRecord == null) return CompletableFuture.<Void>completedFuture(null);
+                        return replyTemplate.send(replyRecord).thenAccept(result -> { });
+                    })
+                    .whenComplete((result, throwable) -> admissionController.exit(record));
+            replies.add(reply);
+        }
+
+        // 모든 처리와 응답 전송이 끝난 뒤에 반환하여 오프셋이 커밋되도록 함
+        replyTemplate.flush();
+        CompletableFuture.allOf(replies.toArray(CompletableFuture[]::new)).join();
+        snapshotManager.consumed(records);
+
+        log.info("Request batch processed (async): {} records", records.size());
+    }
+
+    /**
+     * 프로미스 요청에 대한 카프카 병렬 리스너
+     * spring.kafka.reply-mode=parallel 일때 동작합니다.
+     * 레코드를 받는 즉시 PartitionParallelProcessor에 넘겨 같은 파티션의 레코드도 동시에 처리하고 (같은 메세지 키는 순서대로),
+     * 앞에서부터 끊김 없이 처리가 끝난 오프셋까지만 커밋합니다. (AckMode.MANUAL_IMMEDIATE)
+     * 응답은 원장 변경이 저널에 내구화된 뒤에 전송합니다.
+     * (kafkaListenerReplyContainerFactory 사용)
+     *
+     * @param record         레코드
+     * @param acknowledgment 레코드의 Acknowledgment (커밋 가능 오프셋까지 처리되면 PartitionParallelProcessor가 호출)
+     */
+    @KafkaListener(id = "bankRequestParallelListener", topics = "#{@laneScheduler.requestTopics}", groupId = "request-server-group",
+            containerFactory = "kafkaListenerReplyContainerFactory", batch = "false",
+            autoStartup = "#{'${spring.kafka.reply-mode:record}' == 'parallel'}")
+    public void handleTransferRequestParallel(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+
+        log.debug("Received request in bank service (parallel): {}-{}@{}", record.topic(), record.partition(), record.offset());
+
+        admissionController.enter(record);
+        parallelProcessor.submit(record, acknowledgment, () -> {
+                    Object response = dispatchRequest(record);
+                    if (response == null) return CompletableFuture.<Void>completedFuture(null);
+
+                    // 원장 변경이 내구화된 뒤에 응답하고 커밋
+                    journal.sync();
+                    ProducerRecord<String, Object> replyRecord = ReplyRecords.create(record, response);
+                    if (replyRecord == null) return CompletableFuture.<Void>completedFuture(null);
+                    return replyTemplate.send(replyRecord).thenAccept(result -> { });
+                })
+                .whenComplete((result, throwable) -> admissionController.exit(record));
+    }
+
+    /**
+     * 재시도 토픽 리스너
+     * 처리 시각(RETRY_DUE)이 된 요청을 다시 처리하고 응답합니다. 또 실패하면 다음 재시도 토픽(마지막 단계 이후에는 DLT)으로 보냅니다.
+     * 처리 시각 전인 파티션은 RetryScheduler가 pause 하므로 원본 토픽과 다른 파티션의 처리는 막히지 않습니다.
+     * (kafkaListenerRetryContainerFactory 사용)
+     *
+     * @param records  레코드 목록
+     * @param consumer 컨슈머 (처리 시각 전 레코드로 seek, 처리한 레코드까지 커밋)
+     */
+    @KafkaListener(id = RetryScheduler.LISTENER_ID, topics = "#{@retryRouter.retryTopics}", groupId = "request-server-retry-group",
+            containerFactory = "kafkaListenerRetryContainerFactory", batch = "true",
+            autoStartup = "${bank.retry.enabled:true}")
+    public void handleRetry(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        List<ConsumerRecord<String, byte[]>> due = retryScheduler.due(records, consumer);
+        if (due.isEmpty()) return;
+
+        int replies = dispatchAndReply(due);
+        retryScheduler.commit(due, consumer);
+
+        log.info("Retry batch processed: {} records, sent {} responses", due.size(), replies);
+    }
+
+    /**
+     * DLT 리스너
+     * 재시도를 모두 실패했거나 해석할 수 없는 요청에 FAILED 응답을 보내 프로미스 요청자가 타임아웃까지 기다리지 않도록 합니다.
+     * 처리 기한이 지난 요청과 봉투(항목별 응답이 필요)는 응답하지 않습니다. (레코드는 DLT에 남아 있으므로 원인 확인 후 재처리)
      * (kafkaListenerUnidirectionalContainerFactory 사용)
      *
-     * @param cmd    통신 프로토콜
      * @param record 레코드
      */
-    @KafkaListener(topics = "${spring.kafka.push-topic}", containerFactory = "kafkaListenerUnidirectionalContainerFactory")
-    public void receiveMessage(@Header(value = "CMD", required = false) String cmd,
-                               ConsumerRecord<String, String> record) {
-
-        log.info("Received unidirectional message in bank service: {}", record.value());
-        log.info("Received CMD: {}", cmd);
-
-        if (cmd == null) return;
-        switch (cmd) {
-            // 로그 확인
-            case CommunicationProtocol.SEND_TEST_MESSAGE:
-                log.info("Called SEND_TEST_MESSAGE!");
-                break;
-            case CommunicationProtocol.REQUEST_DEPOSIT:
-                log.info("Called REQUEST_DEPOSIT!");
-                break;
-            case CommunicationProtocol.REQUEST_WITHDRAW:
-                log.info("Called REQUEST_WITHDRAW!");
-                break;
+    @KafkaListener(id = "bankDeadLetterListener", topics = "#{@retryRouter.deadLetterTopic}", groupId = "request-server-dlt-group",
+            containerFactory = "kafkaListenerUnidirectionalContainerFactory",
+            autoStartup = "${bank.retry.enabled:true}")
+    public void handleDeadLetter(ConsumerRecord<String, byte[]> record) {
+        String error = RetryRouter.errorOf(record);
+        log.error("[BankService] 처리 실패 요청 (DLT): CMD={}, origin={}, attempts={}, error={}",
+                cmdOf(record), RetryRouter.originOf(record), RetryRouter.attemptOf(record), error);
+
+        if (CommandDispatcher.isExpired(record) || CommunicationProtocol.ENVELOPE.equals(cmdOf(record))) return;
+
+        ProducerRecord<String, Object> reply = ReplyRecords.create(record, TransferResponse.builder()
+                .requestId(requestIdOf(record))
+                .status(TransferStatus.FAILED)
+                .message("Request failed after " + RetryRouter.attemptOf(record) + " attempts: " + error)
+                .processedTime(LocalDateTime.now())
+                .build());
+        if (reply != null) replyTemplate.send(reply).join();
+    }
+
+    /**
+     * 요청을 핸들러에 전달합니다.
+     * 핸들러가 실패하면 재시도 토픽(마지막 단계 이후에는 DLT)으로 보내고 null을 반환합니다. (응답은 재시도/DLT 리스너가 보냄)
+     * 재시도 토픽 전송이 끝난 뒤에 반환하므로 이어서 커밋되어도 요청이 유실되지 않습니다.
+     *
+     * @param record 레코드
+     * @return 핸들러 반환값
+     */
+    private Object dispatchRequest(ConsumerRecord<String, byte[]> record) {
+        try {
+            return commandDispatcher.dispatch(CommandHandler.Channel.REQUEST, record);
+        } catch (RuntimeException e) {
+            if (!retryRouter.isEnabled()) throw e;
+            retryRouter.route(record, e).join();
+            return null;
         }
     }
 
-    // 실제 은행 시스템에서의 송금 처리 로직 (시뮬레이션)
-    private TransferResponse processTransferInBank(TransferRequest request) {
+    // 요청 페이로드의 requestId (해석할 수 없으면 null)
+    private static String requestIdOf(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) return null;
+        try {
+            return PayloadCodec.decode(record.value(), TransferRequest.class, PayloadCodec.isBinary(record.headers())).getRequestId();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 요청 파티션을 할당받으면 스냅샷/저널로 복구된 오프셋보다 앞선 파티션을 그 오프셋으로 이동합니다.
+     * (컨슈머 그룹 오프셋이 만료되어 토픽 처음부터 다시 읽는 경우 등)
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        snapshotManager.seekTargets(assignments)
+                .forEach((tp, offset) -> callback.seek(tp.topic(), tp.partition(), offset));
+        if (!assignments.isEmpty()) log.info("[BankService] 파티션 할당: {}", assignments.keySet());
+    }
+
+    /**
+     * 파티션 회수 (샤드 인계)
+     * 리스너는 받은 레코드(배치)의 처리와 응답을 끝낸 뒤 반환하므로 회수 시점에 처리중인 요청은 없고,
+     * 회수된 파티션의 원장 변경을 모두 내구화한 뒤 컨테이너가 오프셋을 커밋하고 파티션을 넘깁니다.
+     * record 모드는 내구화를 기다리던 응답까지 전송한 뒤 넘깁니다.
+     * 원장은 인스턴스 메모리에 있으므로 파티션은 같은 인스턴스의 다른 컨슈머 스레드에만 넘어가야 합니다. (SingleInstanceGuard)
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) return;
+        journal.sync();
+        pendingReply.join();
+        replyTemplate.flush();
+        log.info("[BankService] 파티션 회수: {}", partitions);
+    }
+
+    /**
+     * 단방향 메세지 요청에 대한 카프카 리스너
+     * CMD 헤더에 해당하는 @CommandHandler(PUSH) 핸들러를 호출합니다.
+     * 우선순위 레인을 사용하면 레인 토픽을 함께 구독하고, 높은 레인이 밀리면 낮은 레인은 LaneScheduler가 pause 합니다.
+     * (kafkaListenerUnidirectionalContainerFactory 사용)
+     *
+     * @param record 레코드
+     */
+    @KafkaListener(id = "bankPushListener", topics = "#{@laneScheduler.pushTopics}", groupId = "request-server-group",
+            containerFactory = "kafkaListenerUnidirectionalContainerFactory")
+    public void receiveMessage(ConsumerRecord<String, byte[]> record) {
+        commandDispatcher.dispatch(CommandHandler.Channel.PUSH, record);
+    }
+
+    /**
+     * 입금 요청
+     */
+    @CommandHandler(CommunicationProtocol.REQUEST_DEPOSIT)
+    public TransferResponse deposit(ConsumerRecord<String, byte[]> record, TransferRequest request) {
+        log.info("Called REQUEST_DEPOSIT!");
+        return processTransferInBank(record, request, false);
+    }
+
+    /**
+     * 출금 요청
+     */
+    @CommandHandler(CommunicationProtocol.REQUEST_WITHDRAW)
+    public TransferResponse withdraw(ConsumerRecord<String, byte[]> record, TransferRequest request) {
+        log.info("Called REQUEST_WITHDRAW!");
+        return processTransferInBank(record, request, true);
+    }
+
+    /**
+     * 처리할 수 없는 프로미스 요청 (CMD 헤더 없음, 미등록 프로토콜)
+     */
+    @CommandHandler
+    public TransferResponse unsupportedRequest(ConsumerRecord<String, byte[]> record) {
+        String cmd = cmdOf(record);
+        log.warn("Unsupported request CMD: {}", cmd);
+        return TransferResponse.builder()
+                .status(TransferStatus.FAILED)
+                .message("Unsupported command: " + cmd)
+                .processedTime(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 테스트 메세지 (단방향)
+     */
+    @CommandHandler(value = CommunicationProtocol.SEND_TEST_MESSAGE, channel = CommandHandler.Channel.PUSH)
+    public void receiveTestMessage(String message) {
+        log.info("Called SEND_TEST_MESSAGE! {}", message);
+    }
+
+    /**
+     * 그 외 단방향 메세지 (로그 확인)
+     */
+    @CommandHandler(channel = CommandHandler.Channel.PUSH)
+    public void receiveUnhandledMessage(ConsumerRecord<String, byte[]> record) {
+        log.info("Received unidirectional message in bank service: {}", new String(record.value(), StandardCharsets.UTF_8));
+        log.info("Received CMD: {}", cmdOf(record));
+    }
+
+    private static String cmdOf(ConsumerRecord<?, ?> record) {
+        byte[] cmd = ReplyRecords.headerValue(record, CommandDispatcher.CMD_HEADER);
+        return cmd == null ? null : new String(cmd, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 송금 처리
+     * 입금은 toAccount에, 출금은 fromAccount에 원장 반영하고 저널에 기록합니다. (출금은 잔액 확인)
+     * 저널 기록은 원장 스트라이프 락 안에서 수행하여 계좌별 저널 순서를 원장 반영 순서와 맞춥니다. (스냅샷 재생 기준)
+     * 저널 fsync는 기다리지 않으며, 리스너가 응답 전에 기다립니다.
+     *
+     * @param record   요청 레코드 (저널에 파티션/오프셋 기록)
+     * @param request  요청
+     * @param withdraw 출금 여부
+     * @return 응답
+     */
+    private TransferResponse processTransferInBank(ConsumerRecord<String, byte[]> record, TransferRequest request, boolean withdraw) {
+        // 이미 처리된 요청이면 재처리 없이 이전 응답을 반환 (클라이언트 재시도, 리밸런스 후 재전달)
+        TransferResponse cached = idempotencyStore.get(request.getRequestId());
+        if (cached != null) {
+            log.info("Duplicate request, returning cached response: {}", request.getRequestId());
+            return cached;
+        }
+
         try {
-            // 실제로는 여기서 은행 핵심 시스템과의 통합 로직이 들어갈 것임
-            // 계좌 유효성 검증, 잔액 확인, 송금 처리 등
-            // 송금 처리
-            return TransferResponse.builder()
-                    .requestId(request.getRequestId())
-                    .transactionId(UUID.randomUUID().toString())
-                    .status(TransferStatus.SUCCESS)
-                    .message("Transfer completed successfully")
-                    .processedTime(LocalDateTime.now())
-                    .build();
-
-        } catch (Exception e) {
+            // 같은 requestId의 요청이 동시에 들어와도 원장에는 한번만 반영됨
+            return idempotencyStore.getOrProcess(request.getRequestId(), () -> applyToLedger(record, request, withdraw));
+
+        } catch (RuntimeException e) {
+            // 재시도 토픽을 사용하면 리스너가 재시도 토픽으로 보냄 (일시적인 장애는 재시도에서 처리됨, 봉투 항목은 EnvelopeProcessor가 FAILED 응답)
+            if (retryRouter.isEnabled()) throw e;
             log.error("Error processing transfer in bank", e);
-            return TransferResponse.builder()
-                    .requestId(request.getRequestId())
-                    .status(TransferStatus.FAILED)
-                    .message("Bank system error: " + e.getMessage())
-                    .processedTime(LocalDateTime.now())
-                    .build();
+            return failedResponse(request, "Bank system error: " + e.getMessage());
+        }
+    }
+
+    private TransferResponse applyToLedger(ConsumerRecord<String, byte[]> record, TransferRequest request, boolean withdraw) {
+        String accountNumber = withdraw ? request.getFromAccount() : request.getToAccount();
+        long account = LedgerEngine.accountKey(accountNumber);
+        if (account == LedgerEngine.INVALID_ACCOUNT) return failedResponse(request, "Invalid account: " + accountNumber);
+
+        if (request.getCurrency() != null && !currency.equals(request.getCurrency()))
+            return failedResponse(request, "Unsupported currency: " + request.getCurrency());
+
+        long units;
+        try {
+            units = request.getAmount() == null ? 0 : LedgerEngine.toUnits(request.getAmount());
+        } catch (ArithmeticException e) {
+            units = 0;
         }
+        if (units <= 0) return failedResponse(request, "Invalid amount: " + request.getAmount());
+
+        UUID transactionId = UUID.randomUUID();
+        LedgerEngine.ChangeListener journalWriter = (key, delta, newBalance) -> journal.append(new JournalEntry(
+                System.currentTimeMillis(), record.partition(), record.offset(), key, delta, newBalance,
+                transactionId.getMostSignificantBits(), transactionId.getLeastSignificantBits(), request.getRequestId()));
+
+        // 개설 자체는 저널에 남기지 않음 (입금 항목을 재생할 때 없는 계좌는 개설됨)
+        if (!withdraw && openOnDeposit) ledgerEngine.open(account, 0);
+
+        long balance;
+        try {
+            balance = withdraw
+                    ? ledgerEngine.withdraw(account, units, journalWriter)
+                    : ledgerEngine.deposit(account, units, journalWriter);
+        } catch (RuntimeException e) {
+            // 저널에 남기지 못한 변경은 원장에서 되돌려짐 (멱등성 저장소에 저장되지 않으므로 재시도시 다시 처리됨)
+            log.error("Failed to append journal entry, reverted: {}", request.getRequestId(), e);
+            if (retryRouter.isEnabled()) throw new IllegalStateException("Journal unavailable", e);
+            return failedResponse(request, "Journal unavailable");
+        }
+        if (balance == LedgerEngine.NOT_FOUND) return failedResponse(request, "Account not found: " + accountNumber);
+        if (balance == LedgerEngine.INSUFFICIENT_FUNDS) return failedResponse(request, "Insufficient funds");
+        if (balance == LedgerEngine.OVERFLOW) return failedResponse(request, "Balance limit exceeded");
+
+        return TransferResponse.builder()
+                .requestId(request.getRequestId())
+                .transactionId(transactionId.toString())
+                .status(TransferStatus.SUCCESS)
+                .message("Transfer completed successfully")
+                .processedTime(LocalDateTime.now())
+                .build();
+    }
+
+    private static TransferResponse failedResponse(TransferRequest request, String message) {
+        return TransferResponse.builder()
+                .requestId(request.getRequestId())
+                .status(TransferStatus.FAILED)
+                .message(message)
+                .processedTime(LocalDateTime.now())
+                .build();
     }
 
-    private TransferResponse processTransferInBank2(TransferRequest request) {
-        return this.processTransferInBank(request);
+    private TransferResponse processTransferInBank2(ConsumerRecord<String, byte[]> record, TransferRequest request) {
+        return this.processTransferInBank(record, request, false);
     }
 
 }
@@ -0,0 +1,115 @@
+package kr.ssok.kafka.messaging.server.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.clients.admin.MemberDescription;
+import org.apache.kafka.common.errors.GroupIdNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 단일 인스턴스 보호
+ * 원장/멱등성 저장소는 인스턴스 메모리와 로컬 저널에만 있으므로, 다른 인스턴스에 요청 파티션이 넘어가면 그 인스턴스는 잔액을 모른 채 처리합니다.
+ * 파티션 상태를 인계하는 공유 저장소가 생기기 전까지는 요청 컨슈머 그룹에 다른 인스턴스가 있으면 기동하지 않습니다.
+ *
+ * - 리스너 컨테이너보다 먼저 시작하여 요청 컨슈머 그룹(request-server-group)의 멤버를 확인합니다.
+ * - 장애로 종료된 이전 프로세스의 멤버는 세션 타임아웃 후 제거되므로 wait-seconds 동안 그룹이 비기를 기다린 뒤 실패합니다.
+ * - 두 인스턴스가 동시에 기동하면 서로를 보지 못할 수 있습니다. (배포 도구에서 인스턴스 수를 1로 고정)
+ * - 브로커에 연결할 수 없으면 확인하지 못했다는 경고만 남기고 기동합니다. (컨테이너는 브로커가 뜰 때까지 재시도)
+ */
+@Slf4j
+@Component
+public class SingleInstanceGuard implements SmartLifecycle {
+
+    private static final String REQUEST_GROUP = "request-server-group";
+
+    private static final long POLL_MILLIS = 1000;
+
+    private final KafkaAdmin kafkaAdmin;
+    private final boolean enabled;
+    private final long waitMillis;
+
+    private volatile boolean running;
+
+    public SingleInstanceGuard(KafkaAdmin kafkaAdmin,
+                               @Value("${bank.ledger.single-instance.enabled:true}") boolean enabled,
+                               @Value("${bank.ledger.single-instance.wait-seconds:60}") long waitSeconds) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.enabled = enabled;
+        this.waitMillis = TimeUnit.SECONDS.toMillis(Math.max(0, waitSeconds));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) return;
+
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            long deadline = System.currentTimeMillis() + waitMillis;
+            Collection<MemberDescription> members = members(admin);
+            if (members == null) return;
+            while (!members.isEmpty() && System.currentTimeMillis() < deadline) {
+                log.warn("[SingleInstanceGuard] 요청 컨슈머 그룹에 다른 인스턴스가 있어 기다립니다: {}", hosts(members));
+                Thread.sleep(POLL_MILLIS);
+                members = members(admin);
+                if (members == null) return;
+            }
+
+            if (!members.isEmpty())
+                throw new IllegalStateException("[SingleInstanceGuard] 요청 컨슈머 그룹(" + REQUEST_GROUP + ")에 다른 인스턴스가 있습니다: "
+                        + hosts(members) + " (원장 상태를 인계하지 않으므로 서버는 하나만 실행해야 합니다)");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("[SingleInstanceGuard] 요청 컨슈머 그룹 확인 중 중단되었습니다.", e);
+        }
+    }
+
+    // 그룹 멤버, 확인할 수 없으면 null
+    private Collection<MemberDescription> members(AdminClient admin) throws InterruptedException {
+        try {
+            ConsumerGroupDescription group = admin.describeConsumerGroups(List.of(REQUEST_GROUP))
+                    .describedGroups().get(REQUEST_GROUP)
+                    .get(kafkaAdmin.getOperationTimeout(), TimeUnit.SECONDS);
+            return group.members();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GroupIdNotFoundException) return List.of();
+            log.warn("[SingleInstanceGuard] 요청 컨슈머 그룹을 확인할 수 없습니다: {}", e.getCause().toString());
+            return null;
+        } catch (TimeoutException e) {
+            log.warn("[SingleInstanceGuard] 요청 컨슈머 그룹을 확인할 수 없습니다. (시간 초과)");
+            return null;
+        }
+    }
+
+    private static List<String> hosts(Collection<MemberDescription> members) {
+        return members.stream().map(member -> member.host() + "/" + member.clientId()).distinct().toList();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 리스너 컨테이너(Integer.MAX_VALUE - 100)와 스냅샷(Integer.MAX_VALUE - 200)보다 먼저 시작
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 300;
+    }
+
+}
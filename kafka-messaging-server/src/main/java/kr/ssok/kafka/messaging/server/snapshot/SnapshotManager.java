@@ -0,0 +1,413 @@
+package kr.ssok.kafka.messaging.server.snapshot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import kr.ssok.kafka.messaging.server.ledger.LedgerEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 서버 상태 스냅샷
+ * 주기적으로(bank.snapshot.interval-seconds) 원장 잔액과 요청 토픽 파티션별 처리 완료 오프셋을 파일로 저장하고,
+ * 기동시 최신 스냅샷을 복원하여 저널은 스냅샷 이후 부분만 재생합니다.
+ *
+ * - 스냅샷은 처리를 멈추지 않고 원장 스트라이프 단위로 복사하며, 스트라이프마다 복사 시점의 저널 위치를 함께 저장합니다.
+ *   (저널 기록은 스트라이프 락 안에서 수행되므로 위치 이하의 항목은 스냅샷에 포함, 이후 항목은 재생 대상)
+ * - 스냅샷은 임시 파일에 쓰고 fsync 한 뒤 이름을 바꿔서 공개하므로, 쓰는 중에 장애가 나도 이전 스냅샷이 남습니다.
+ * - 오래된 스냅샷은 retain 개만 남기고 삭제하며, 저널은 남은 스냅샷과 멱등성 TTL 구간에 필요없는 앞쪽 세그먼트를 삭제합니다.
+ *   (멱등성 저장소는 스냅샷에 넣지 않고 TTL 구간의 저널로 복구)
+ * - 요청 리스너가 할당받은 파티션의 위치가 스냅샷 오프셋보다 앞이면(컨슈머 그룹 오프셋 만료 등) 스냅샷 오프셋으로 이동합니다.
+ *
+ * - 원장의 스트라이프 배치(bank.ledger.partitions)를 함께 저장하므로 배치를 바꾼 뒤에도 복원할 수 있습니다.
+ *
+ * - 처리 완료 오프셋은 토픽-파티션별로 저장합니다. (우선순위 레인 토픽 포함, VERSION 2 이전 파일은 요청 토픽의 파티션으로 읽음)
+ *
+ * 파일 형식 : [MAGIC][VERSION][시각][스트라이프 수][스트라이프 배치][파티션 수]([토픽][파티션][오프셋])*
+ *            ([저널 위치][계좌 수]([계좌 키][잔액])*)* [최소 저널 위치][최대 저널 위치][CRC32C]
+ */
+@Slf4j
+@Component
+public class SnapshotManager implements SmartLifecycle {
+
+    private static final int MAGIC = 0x53534E50; // "SSNP"
+    private static final int VERSION = 3;
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    // 최소/최대 저널 위치 + CRC
+    private static final int TRAILER_BYTES = 24;
+
+    // 스냅샷 파일의 오프셋 순서 (토픽, 파티션)
+    private static final Comparator<TopicPartition> OFFSET_ORDER =
+            Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+    private final LedgerEngine ledgerEngine;
+    private final Journal journal;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long intervalMillis;
+    private final int retain;
+    private final long ttlMillis;
+    private final String requestTopic;
+    private final Timer duration;
+
+    // 요청 토픽(레인 토픽 포함) 파티션별 처리 완료 오프셋 (다음에 읽을 오프셋)
+    private final ConcurrentMap<TopicPartition, Long> consumedOffsets = new ConcurrentHashMap<>();
+
+    // 스냅샷 시각별 최소 저널 위치 (멱등성 TTL 구간의 저널을 남기기 위해 사용)
+    private final ArrayDeque<long[]> positionHistory = new ArrayDeque<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public SnapshotManager(LedgerEngine ledgerEngine,
+                           Journal journal,
+                           MeterRegistry meterRegistry,
+                           @Value("${bank.snapshot.enabled:true}") boolean enabled,
+                           @Value("${bank.snapshot.dir:./data/snapshot}") String directory,
+                           @Value("${bank.snapshot.interval-seconds:60}") long intervalSeconds,
+                           @Value("${bank.snapshot.retain:2}") int retain,
+                           @Value("${bank.idempotency.ttl-seconds:600}") long ttlSeconds,
+                           @Value("${spring.kafka.request-topic}") String requestTopic) {
+        this.ledgerEngine = ledgerEngine;
+        this.journal = journal;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.intervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, intervalSeconds));
+        this.retain = Math.max(1, retain);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.requestTopic = requestTopic;
+        this.duration = Timer.builder("bank.snapshot.duration").register(meterRegistry);
+    }
+
+    /**
+     * 복원한 스냅샷의 저널 위치
+     *
+     * @param replayFrom      모든 스트라이프의 최소 위치 (이 위치부터 저널이 남아있어야 함)
+     * @param initialPosition 모든 스트라이프의 최대 위치 (저널은 최소 이 위치까지 기록되어 있어야 함)
+     */
+    public record Restored(long replayFrom, long initialPosition) {
+        static final Restored NONE = new Restored(0, 0);
+    }
+
+    // ---- 복원 ----
+
+    /**
+     * 최신 스냅샷을 원장에 복원합니다. 읽을 수 없는 스냅샷은 건너뛰고 그 이전 스냅샷을 사용합니다.
+     * (기동시 저널 재생 전에 한번만 호출)
+     *
+     * @return 복원한 스냅샷의 저널 위치, 스냅샷이 없으면 0
+     */
+    public Restored load() {
+        if (!enabled) return Restored.NONE;
+
+        List<Path> files;
+        try {
+            Files.createDirectories(directory);
+            files = snapshotFiles();
+        } catch (IOException e) {
+            throw new IllegalStateException("[SnapshotManager] 스냅샷 디렉토리를 읽을 수 없습니다: " + directory, e);
+        }
+
+        for (int i = files.size() - 1; i >= 0; i--) {
+            Path file = files.get(i);
+            try {
+                long start = System.nanoTime();
+                Restored restored = read(file);
+                log.info("Snapshot restored: {} ({} accounts, journal position {}~{}) in {} ms", file.getFileName(),
+                        ledgerEngine.size(), restored.replayFrom(), restored.initialPosition(),
+                        (System.nanoTime() - start) / 1_000_000);
+                return restored;
+            } catch (IOException | RuntimeException e) {
+                log.warn("[SnapshotManager] 스냅샷을 읽을 수 없어 이전 스냅샷을 사용합니다: {} ({})", file.getFileName(), e.toString());
+            }
+        }
+        return Restored.NONE;
+    }
+
+    private Restored read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int length = buffer.capacity();
+        if (length < 24 + TRAILER_BYTES) throw new IOException("too short");
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, length - 8);
+        if (crc.getValue() != buffer.getLong(length - 8)) throw new IOException("checksum mismatch");
+
+        if (buffer.getInt() != MAGIC) throw new IOException("unknown format");
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) throw new IOException("unknown version: " + version);
+        buffer.getLong(); // 시각
+        int stripes = buffer.getInt();
+        if (stripes != ledgerEngine.getStripeCount()) throw new IOException("stripe count mismatch: " + stripes);
+        // VERSION 1은 파티션별 배치 이전 형식
+        int layout = version >= 2 ? buffer.getInt() : 0;
+
+        // VERSION 2 이전은 요청 토픽의 파티션별 오프셋
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            String topic = version >= 3 ? readTopic(buffer) : requestTopic;
+            offsets.put(new TopicPartition(topic, buffer.getInt()), buffer.getLong());
+        }
+
+        // 검증이 끝난 파일이므로 바로 원장에 반영
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            long position = buffer.getLong();
+            int size = buffer.getInt();
+            long[] keys = new long[size];
+            long[] balances = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = buffer.getLong();
+                balances[i] = buffer.getLong();
+            }
+            ledgerEngine.restore(layout, stripe, position, keys, balances, size);
+        }
+        consumedOffsets.putAll(offsets);
+
+        return new Restored(buffer.getLong(), buffer.getLong());
+    }
+
+    // ---- 스냅샷 ----
+
+    /**
+     * 스냅샷을 저장하고 필요없는 스냅샷과 저널 세그먼트를 삭제합니다.
+     */
+    public synchronized void take() throws IOException {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+
+        // 오프셋을 먼저 읽어야 스냅샷 상태가 오프셋 이전의 처리를 모두 포함함
+        Map<TopicPartition, Long> offsets = new TreeMap<>(OFFSET_ORDER);
+        offsets.putAll(consumedOffsets);
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, now, SUFFIX));
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        long[] range = {Long.MAX_VALUE, Long.MIN_VALUE};
+        int[] accounts = {0};
+
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(now);
+            out.writeInt(ledgerEngine.getStripeCount());
+            out.writeInt(ledgerEngine.getPartitions());
+            out.writeInt(offsets.size());
+            for (Map.Entry<TopicPartition, Long> offset : offsets.entrySet()) {
+                byte[] topic = offset.getKey().topic().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(topic.length);
+                out.write(topic);
+                out.writeInt(offset.getKey().partition());
+                out.writeLong(offset.getValue());
+            }
+
+            ledgerEngine.snapshot(journal::position, (stripe, position, keys, balances, size) -> {
+                out.writeLong(position);
+                out.writeInt(size);
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] == 0) continue;
+                    out.writeLong(keys[i]);
+                    out.writeLong(balances[i]);
+                }
+                range[0] = Math.min(range[0], position);
+                range[1] = Math.max(range[1], position);
+                accounts[0] += size;
+            });
+
+            out.writeLong(range[0]);
+            out.writeLong(range[1]);
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+
+        // 스냅샷이 가리키는 저널 위치까지 내구화된 뒤에 공개
+        journal.awaitDurable(range[1]);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        long elapsed = System.nanoTime() - start;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Snapshot taken: {} ({} accounts, {} partitions) in {} ms",
+                file.getFileName(), accounts[0], offsets.size(), elapsed / 1_000_000);
+
+        positionHistory.addLast(new long[]{now, range[0]});
+        cleanUp(now);
+    }
+
+    // 오래된 스냅샷 삭제, 남은 스냅샷과 멱등성 TTL 구간에 필요없는 저널 세그먼트 삭제
+    private void cleanUp(long now) throws IOException {
+        List<Path> files = snapshotFiles();
+        for (int i = 0; i < files.size() - retain; i++) Files.deleteIfExists(files.get(i));
+
+        // 가장 오래 남은 스냅샷도 복원할 수 있도록 그 스냅샷의 최소 위치 이전까지만 삭제
+        long truncateBefore = Long.MAX_VALUE;
+        for (Path file : snapshotFiles()) truncateBefore = Math.min(truncateBefore, replayFromOf(file));
+
+        // TTL 이전에 찍은 스냅샷 중 가장 최근 것의 위치 (그 이후 저널은 멱등성 저장소 복구에 필요)
+        long[] ttlMark = null;
+        while (!positionHistory.isEmpty() && positionHistory.peekFirst()[0] <= now - ttlMillis) {
+            ttlMark = positionHistory.pollFirst();
+        }
+        // 기동 후 TTL이 지나기 전에는 저널을 삭제하지 않음
+        if (ttlMark == null) return;
+        positionHistory.addFirst(ttlMark);
+
+        journal.truncate(Math.min(truncateBefore, ttlMark[1]));
+    }
+
+    private static String readTopic(ByteBuffer buffer) {
+        byte[] topic = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(topic);
+        return new String(topic, StandardCharsets.UTF_8);
+    }
+
+    private static long replayFromOf(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            channel.read(trailer, channel.size() - TRAILER_BYTES);
+            return trailer.flip().getLong();
+        }
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // 파일 이름의 시각이 0으로 채워져 있으므로 이름순 = 시간순
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // ---- 오프셋 ----
+
+    /**
+     * 요청 레코드의 처리(저널 내구화 포함)가 끝났음을 기록합니다.
+     *
+     * @param record 요청 레코드
+     */
+    public void consumed(ConsumerRecord<?, ?> record) {
+        consumed(new TopicPartition(record.topic(), record.partition()), record.offset() + 1);
+    }
+
+    /**
+     * 요청 파티션의 nextOffset 이전 레코드 처리가 모두 끝났음을 기록합니다.
+     *
+     * @param partition  요청 토픽(레인 토픽 포함) 파티션
+     * @param nextOffset 다음에 처리할 오프셋
+     */
+    public void consumed(TopicPartition partition, long nextOffset) {
+        consumedOffsets.merge(partition, nextOffset, Math::max);
+    }
+
+    /**
+     * 요청 레코드 배치의 처리가 모두 끝났음을 기록합니다.
+     *
+     * @param records 요청 레코드 목록
+     */
+    public void consumed(List<? extends ConsumerRecord<?, ?>> records) {
+        for (ConsumerRecord<?, ?> record : records) consumed(record);
+    }
+
+    /**
+     * 할당받은 요청 토픽 파티션 중 현재 위치가 처리 완료 오프셋보다 앞인 파티션의 이동할 오프셋
+     * (스냅샷/저널로 이미 복구된 요청을 처음부터 다시 처리하지 않도록 함)
+     *
+     * @param assignments 할당받은 파티션과 현재 위치
+     * @return 이동할 파티션과 오프셋
+     */
+    public Map<TopicPartition, Long> seekTargets(Map<TopicPartition, Long> assignments) {
+        Map<TopicPartition, Long> targets = new HashMap<>();
+        // 처리 완료 오프셋은 요청 리스너만 기록하므로 재시도/단방향 토픽은 대상이 아님
+        assignments.forEach((tp, position) -> {
+            Long consumed = consumedOffsets.get(tp);
+            if (consumed != null && (position == null || position < consumed)) targets.put(tp, consumed);
+        });
+        if (!targets.isEmpty()) log.info("Seeking request partitions to snapshot offsets: {}", targets);
+        return targets;
+    }
+
+    // ---- 주기 실행 ----
+
+    private void scheduledTake() {
+        try {
+            take();
+        } catch (Exception e) {
+            log.error("[SnapshotManager] 스냅샷 저장 실패", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bank-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledTake, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("SnapshotManager started: dir={}, interval={}s, retain={}",
+                directory.toAbsolutePath(), intervalMillis / 1000, retain);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler == null) return;
+
+        scheduler.shutdownNow();
+        scheduler = null;
+        // 리스너 컨테이너가 멈춘 뒤에 마지막 스냅샷을 저장하여 다음 기동시 재생할 저널을 줄임
+        scheduledTake();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * 리스너 컨테이너(Integer.MAX_VALUE - 100)보다 먼저 시작하고 나중에 멈춤
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 200;
+    }
+
+}
@@ -0,0 +1,67 @@
+package kr.ssok.kafka.messaging.server.snapshot;
+
+import kr.ssok.kafka.messaging.server.idempotency.IdempotencyStore;
+import kr.ssok.kafka.messaging.server.journal.Journal;
+import kr.ssok.kafka.messaging.server.journal.JournalEntry;
+import kr.ssok.kafka.messaging.server.ledger.LedgerEngine;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * 서버 상태 복구
+ * 모든 빈이 생성된 뒤(리스너 컨테이너 시작 전) 최신 스냅샷을 원장에 복원하고, 남은 저널을 재생합니다.
+ *
+ * - 원장 : 스냅샷 이후의 항목만 반영 (스트라이프별 스냅샷 위치 기준)
+ * - 멱등성 저장소 : 남은 저널(멱등성 TTL 구간)의 성공 응답을 복원
+ *
+ * 스냅샷이 없으면 초기 계좌(bank.ledger.accounts)에 저널의 변경량을 순서대로 더해 복구하므로 초기 계좌 설정은 바꾸지 않아야 합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StateRecovery implements SmartInitializingSingleton {
+
+    private final SnapshotManager snapshotManager;
+
+    private final Journal journal;
+
+    private final LedgerEngine ledgerEngine;
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        SnapshotManager.Restored snapshot = snapshotManager.load();
+
+        long[] replayed = {0};
+        long count = journal.recover((position, entry) -> {
+            if (ledgerEngine.replay(position, entry.account(), entry.delta())) replayed[0]++;
+            restoreResponse(entry);
+        }, snapshot.replayFrom(), snapshot.initialPosition());
+
+        log.info("Server state recovered: {} journal entries ({} applied to ledger), {} accounts in {} ms",
+                count, replayed[0], ledgerEngine.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void restoreResponse(JournalEntry entry) {
+        TransferResponse response = TransferResponse.builder()
+                .requestId(entry.requestId())
+                .transactionId(new UUID(entry.txMsb(), entry.txLsb()).toString())
+                .status(TransferStatus.SUCCESS)
+                .message("Transfer completed successfully")
+                .processedTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp()), ZoneId.systemDefault()))
+                .build();
+        idempotencyStore.restore(entry.requestId(), response, entry.timestamp());
+    }
+
+}
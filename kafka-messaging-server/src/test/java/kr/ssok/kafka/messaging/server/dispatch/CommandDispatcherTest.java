@@ -0,0 +1,203 @@
+package kr.ssok.kafka.messaging.server.dispatch;
+
+import kr.ssok.model.CommunicationProtocol;
+import kr.ssok.model.MessageHeaders;
+import kr.ssok.model.PayloadCodec;
+import kr.ssok.model.TransferRequest;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 디스패처 테스트 (CMD 헤더 매칭, fallback, 채널 분리, 중복 등록, 처리 기한, 페이로드 변환, 리스너)
+ */
+class CommandDispatcherTest {
+
+    private final CommandDispatcher dispatcher = new CommandDispatcher();
+
+    @Test
+    void dispatchesByCmdHeader() {
+        dispatcher.postProcessAfterInitialization(new Handlers(), "handlers");
+
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, record(CommunicationProtocol.REQUEST_DEPOSIT, "100")))
+                .isEqualTo("deposit:100");
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, record(CommunicationProtocol.REQUEST_WITHDRAW, "200")))
+                .isEqualTo("withdraw:requests@7");
+
+        // 일치하는 CMD가 없거나 CMD 헤더가 없으면 fallback
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, record("unknown", "x"))).isEqualTo("fallback");
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, record(null, "x"))).isEqualTo("fallback");
+        assertThat(dispatcher.getHandlers()).hasSize(4);
+    }
+
+    @Test
+    void channelsAreSeparated() {
+        dispatcher.postProcessAfterInitialization(new Handlers(), "handlers");
+
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.PUSH, record("notice", "hi"))).isEqualTo("push:hi");
+        // PUSH 채널에는 fallback이 없음
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.PUSH, record(CommunicationProtocol.REQUEST_DEPOSIT, "100"))).isNull();
+        assertThat(dispatcher.fallback(CommandHandler.Channel.PUSH)).isNull();
+        assertThat(dispatcher.resolve(CommandHandler.Channel.REQUEST, "notice".getBytes(StandardCharsets.UTF_8)))
+                .isSameAs(dispatcher.fallback(CommandHandler.Channel.REQUEST));
+    }
+
+    @Test
+    void duplicateHandlerIsRejected() {
+        dispatcher.postProcessAfterInitialization(new Handlers(), "handlers");
+
+        assertThatThrownBy(() -> dispatcher.postProcessAfterInitialization(new Handlers(), "duplicate"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new CommandDispatcher().postProcessAfterInitialization(new TwoPayloads(), "twoPayloads"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void expiredRequestIsSkipped() {
+        Handlers handlers = new Handlers();
+        dispatcher.postProcessAfterInitialization(handlers, "handlers");
+        List<String> expired = new ArrayList<>();
+        dispatcher.addListener(new Recorder() {
+            @Override
+            public void onExpired(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record) {
+                expired.add(handler.getMethodName());
+            }
+        });
+
+        ConsumerRecord<String, byte[]> record = record(CommunicationProtocol.REQUEST_DEPOSIT, "100");
+        record.headers().add(MessageHeaders.DEADLINE, MessageHeaders.toBytes(System.currentTimeMillis() - 1));
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, record)).isNull();
+        assertThat(expired).containsExactly("deposit");
+        assertThat(handlers.invoked).isZero();
+
+        // 기한이 남아 있으면 처리
+        ConsumerRecord<String, byte[]> live = record(CommunicationProtocol.REQUEST_DEPOSIT, "100");
+        live.headers().add(MessageHeaders.DEADLINE, MessageHeaders.toBytes(System.currentTimeMillis() + 60_000));
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, live)).isEqualTo("deposit:100");
+    }
+
+    @Test
+    void payloadIsDecodedToDeclaredType() {
+        dispatcher.postProcessAfterInitialization(new Transfers(), "transfers");
+        TransferRequest request = TransferRequest.builder()
+                .requestId("req-1")
+                .fromAccount("098-765-432166")
+                .amount(new BigDecimal("1000"))
+                .build();
+
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST,
+                record(CommunicationProtocol.REQUEST_WITHDRAW, PayloadCodec.encode(request, false)))).isEqualTo(request);
+
+        ConsumerRecord<String, byte[]> binary = record(CommunicationProtocol.REQUEST_WITHDRAW, PayloadCodec.encode(request, true));
+        PayloadCodec.markBinary(binary.headers());
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, binary)).isEqualTo(request);
+
+        // 해석할 수 없는 페이로드는 재시도하지 않도록 PayloadDecodeException
+        assertThatThrownBy(() -> dispatcher.dispatch(CommandHandler.Channel.REQUEST, record(CommunicationProtocol.REQUEST_WITHDRAW, "not json")))
+                .isInstanceOf(PayloadDecodeException.class);
+    }
+
+    @Test
+    void listenersReceiveResultAndError() {
+        dispatcher.postProcessAfterInitialization(new Transfers(), "transfers");
+        List<Object> results = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        dispatcher.addListener(new Recorder() {
+            @Override
+            public void onDispatched(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record,
+                                     long startNanos, Object result, Throwable error) {
+                results.add(result);
+                errors.add(error);
+            }
+        });
+
+        assertThat(dispatcher.dispatch(CommandHandler.Channel.REQUEST, record(CommunicationProtocol.REQUEST_DEPOSIT, "ok")))
+                .isEqualTo("ok");
+
+        // 핸들러 예외는 InvocationTargetException으로 감싸지 않고 그대로 전달
+        assertThatThrownBy(() -> dispatcher.dispatch(CommandHandler.Channel.REQUEST, record(CommunicationProtocol.REQUEST_DEPOSIT, "fail")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0)).isEqualTo("ok");
+        assertThat(results.get(1)).isNull();
+        assertThat(errors.get(0)).isNull();
+        assertThat(errors.get(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String cmd, String payload) {
+        return record(cmd, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String cmd, byte[] payload) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("requests", 0, 7, "key", payload);
+        if (cmd != null) record.headers().add(CommandDispatcher.CMD_HEADER, cmd.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    static class Handlers {
+        int invoked;
+
+        @CommandHandler(CommunicationProtocol.REQUEST_DEPOSIT)
+        public String deposit(String amount) {
+            invoked++;
+            return "deposit:" + amount;
+        }
+
+        @CommandHandler(CommunicationProtocol.REQUEST_WITHDRAW)
+        public String withdraw(ConsumerRecord<String, byte[]> record, byte[] payload) {
+            invoked++;
+            return "withdraw:" + record.topic() + "@" + record.offset();
+        }
+
+        @CommandHandler
+        public String fallback() {
+            invoked++;
+            return "fallback";
+        }
+
+        @CommandHandler(value = "notice", channel = CommandHandler.Channel.PUSH)
+        public String notice(String message) {
+            invoked++;
+            return "push:" + message;
+        }
+    }
+
+    static class Transfers {
+        @CommandHandler(CommunicationProtocol.REQUEST_WITHDRAW)
+        public TransferRequest withdraw(TransferRequest request) {
+            return request;
+        }
+
+        @CommandHandler(CommunicationProtocol.REQUEST_DEPOSIT)
+        public String deposit(String message) {
+            if (message.equals("fail")) throw new IllegalArgumentException(message);
+            return message;
+        }
+    }
+
+    static class TwoPayloads {
+        @CommandHandler("two")
+        public void handle(String first, String second) {
+        }
+    }
+
+    private abstract static class Recorder implements CommandDispatchListener {
+        @Override
+        public void onDispatched(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record,
+                                 long startNanos, Object result, Throwable error) {
+        }
+
+        @Override
+        public void onExpired(CommandHandlerMethod handler, ConsumerRecord<String, byte[]> record) {
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package kr.ssok.kafka.messaging.server.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 오프셋 완료 추적기 테스트 (비트맵 링 버퍼, 64개 단위 이동, 용량 확장, 건너뛴 오프셋)
+ */
+class OffsetTrackerTest {
+
+    // (핸들, 커밋 가능 오프셋) 기록
+    private final List<String> commits = new ArrayList<>();
+    private final ObjLongConsumer<String> committer = (handle, offset) -> commits.add(handle + "@" + offset);
+
+    @Test
+    void commitsOnlyUpToFirstGap() {
+        OffsetTracker<String> tracker = new OffsetTracker<>(0, 64);
+        for (long offset = 0; offset < 3; offset++) tracker.track(offset, "h" + offset);
+
+        tracker.complete(2, committer);
+        tracker.complete(1, committer);
+        assertThat(commits).isEmpty();
+        assertThat(tracker.getCommittableOffset()).isZero();
+        assertThat(tracker.getUncommitted()).isEqualTo(3);
+
+        // 앞의 빈 자리가 채워지면 완료된 구간의 마지막 핸들로 한번만 커밋
+        tracker.complete(0, committer);
+        assertThat(commits).containsExactly("h2@3");
+        assertThat(tracker.getInFlight()).isZero();
+        assertThat(tracker.getUncommitted()).isZero();
+    }
+
+    @Test
+    void ringBufferWrapsAround() {
+        // 최소 용량 64 (비트맵 워드 1개)
+        OffsetTracker<String> tracker = new OffsetTracker<>(1_000, 1);
+
+        // 처리중 구간 40개를 유지하면서 링을 여러번 돌게 함
+        long next = 1_000;
+        for (; next < 1_040; next++) tracker.track(next, "h" + next);
+        for (long done = 1_000; done < 10_000; done++) {
+            tracker.complete(done, committer);
+            assertThat(commits).last().isEqualTo("h" + done + "@" + (done + 1));
+            tracker.track(next, "h" + next);
+            next++;
+            assertThat(tracker.getUncommitted()).isEqualTo(40);
+        }
+        assertThat(commits).hasSize(9_000);
+    }
+
+    @Test
+    void completedWordIsSkippedAtOnce() {
+        OffsetTracker<String> tracker = new OffsetTracker<>(0, 128);
+        for (long offset = 0; offset < 200; offset++) tracker.track(offset, "h" + offset);
+
+        // 0을 제외한 앞쪽 두 워드(0~127)와 128~149 완료
+        for (long offset = 1; offset < 150; offset++) tracker.complete(offset, committer);
+        assertThat(commits).isEmpty();
+
+        tracker.complete(0, committer);
+        assertThat(commits).containsExactly("h149@150");
+        assertThat(tracker.getCommittableOffset()).isEqualTo(150);
+        assertThat(tracker.getInFlight()).isEqualTo(50);
+
+        // 지나간 워드는 비워졌으므로 링을 다시 돌아와도 완료로 보이지 않음
+        for (long offset = 200; offset < 400; offset++) tracker.track(offset, "h" + offset);
+        for (long offset = 150; offset < 399; offset++) tracker.complete(offset, committer);
+        assertThat(commits).last().isEqualTo("h398@399");
+        assertThat(tracker.getCommittableOffset()).isEqualTo(399);
+    }
+
+    @Test
+    void skippedWordUsesLastHandleInWord() {
+        OffsetTracker<String> tracker = new OffsetTracker<>(0, 128);
+        // 0, 40, 64 만 전달되고 나머지는 건너뜀 (컴팩션)
+        tracker.track(0, "h0");
+        tracker.track(40, "h40");
+        tracker.track(64, "h64");
+
+        tracker.complete(40, committer);
+        assertThat(commits).isEmpty();
+
+        // 워드 0(0~63)을 한번에 지나갈 때 핸들이 있는 마지막 레코드(40)로 커밋
+        tracker.complete(0, committer);
+        assertThat(commits).containsExactly("h40@64");
+
+        tracker.complete(64, committer);
+        assertThat(commits).containsExactly("h40@64", "h64@65");
+        assertThat(tracker.getUncommitted()).isZero();
+    }
+
+    @Test
+    void growsWhenInFlightSpanExceedsCapacity() {
+        // 링이 한번 돈 상태(시작 오프셋 40)에서 확장해도 완료 비트와 핸들이 새 위치로 옮겨져야 함
+        OffsetTracker<String> tracker = new OffsetTracker<>(40, 64);
+        for (long offset = 40; offset < 100; offset++) tracker.track(offset, "h" + offset);
+        for (long offset = 50; offset < 100; offset++) tracker.complete(offset, committer);
+
+        // 처리중 구간이 64를 넘으므로 두배씩 늘림
+        for (long offset = 100; offset < 400; offset++) tracker.track(offset, "h" + offset);
+        assertThat(tracker.getInFlight()).isEqualTo(310);
+        assertThat(tracker.getUncommitted()).isEqualTo(360);
+
+        for (long offset = 49; offset >= 40; offset--) tracker.complete(offset, committer);
+        assertThat(commits).containsExactly("h99@100");
+
+        for (long offset = 399; offset >= 100; offset--) tracker.complete(offset, committer);
+        assertThat(commits).containsExactly("h99@100", "h399@400");
+        assertThat(tracker.getInFlight()).isZero();
+    }
+
+    @Test
+    void skippedOffsetsAreMarkedCompleted() {
+        OffsetTracker<String> tracker = new OffsetTracker<>(5, 64);
+        tracker.track(5, "h5");
+        // 6, 7은 전달되지 않음 (트랜잭션 마커 등)
+        tracker.track(8, "h8");
+        assertThat(tracker.getInFlight()).isEqualTo(2);
+
+        tracker.complete(5, committer);
+        assertThat(commits).containsExactly("h5@8");
+
+        tracker.complete(8, committer);
+        assertThat(commits).containsExactly("h5@8", "h8@9");
+    }
+
+    @Test
+    void jumpsWithoutMarkingWhenIdle() {
+        OffsetTracker<String> tracker = new OffsetTracker<>(0, 64);
+        tracker.track(0, "h0");
+        tracker.complete(0, committer);
+
+        // 처리중인 레코드가 없으면 건너뛴 구간을 비트맵에 표시하지 않고 바로 이동 (용량을 늘리지 않음)
+        tracker.track(1_000_000, "h1000000");
+        assertThat(tracker.getCommittableOffset()).isEqualTo(1_000_000);
+        assertThat(tracker.getUncommitted()).isEqualTo(1);
+
+        tracker.complete(1_000_000, committer);
+        assertThat(commits).containsExactly("h0@1", "h1000000@1000001");
+    }
+
+    @Test
+    void ignoresOffsetsOutsideTrackedRange() {
+        OffsetTracker<String> tracker = new OffsetTracker<>(10, 64);
+        tracker.track(10, "h10");
+        tracker.complete(10, committer);
+
+        // 이미 커밋된 오프셋 / 아직 등록되지 않은 오프셋
+        tracker.complete(10, committer);
+        tracker.complete(11, committer);
+        assertThat(commits).containsExactly("h10@11");
+        assertThat(tracker.getInFlight()).isZero();
+    }
+
+    @Test
+    void awaitIdleReturnsWhenAllCompleted() throws InterruptedException {
+        OffsetTracker<String> tracker = new OffsetTracker<>(0, 64);
+        tracker.track(0, "h0");
+        assertThat(tracker.awaitIdle(10)).isFalse();
+
+        Thread completer = new Thread(() -> tracker.complete(0, committer));
+        completer.start();
+        assertThat(tracker.awaitIdle(10_000)).isTrue();
+        completer.join();
+    }
+
+}
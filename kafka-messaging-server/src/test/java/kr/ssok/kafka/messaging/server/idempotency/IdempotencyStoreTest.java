@@ -0,0 +1,172 @@
+package kr.ssok.kafka.messaging.server.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.ssok.model.TransferResponse;
+import kr.ssok.model.TransferStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 멱등성 저장소 테스트 (중복 처리, 처리중 표시, TTL 만료, 용량 초과 제거, 같은 키 재저장, 메트릭)
+ */
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void duplicateRequestIsProcessedOnce() {
+        IdempotencyStore store = new IdempotencyStore(registry, 1024, 600);
+        AtomicInteger processed = new AtomicInteger();
+        String requestId = UUID.randomUUID().toString();
+
+        TransferResponse first = store.getOrProcess(requestId, () -> success(requestId, processed.incrementAndGet()));
+        TransferResponse second = store.getOrProcess(requestId, () -> success(requestId, processed.incrementAndGet()));
+
+        assertThat(processed).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(store.get(requestId)).isSameAs(first);
+        assertThat(count("bank.idempotency.hits")).isEqualTo(1);
+    }
+
+    @Test
+    void failedResponseIsNotStored() {
+        IdempotencyStore store = new IdempotencyStore(registry, 1024, 600);
+        AtomicInteger processed = new AtomicInteger();
+
+        // 실패 응답은 재시도로 다시 처리될 수 있어야 함
+        store.getOrProcess("req-1", () -> failed("req-1", processed.incrementAndGet()));
+        store.getOrProcess("req-1", () -> failed("req-1", processed.incrementAndGet()));
+
+        assertThat(processed).hasValue(2);
+        assertThat(store.get("req-1")).isNull();
+        assertThat(count("bank.idempotency.misses")).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsWithoutBlockingOtherRequests() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(registry, 1024, 600);
+        AtomicInteger processed = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String requestId = UUID.randomUUID().toString();
+
+        CompletableFuture<TransferResponse> first = CompletableFuture.supplyAsync(() -> store.getOrProcess(requestId, () -> {
+            started.countDown();
+            await(release);
+            return success(requestId, processed.incrementAndGet());
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<TransferResponse> duplicate = CompletableFuture.supplyAsync(() ->
+                store.getOrProcess(requestId, () -> success(requestId, processed.incrementAndGet())));
+
+        // 처리중인 요청이 있어도 다른 requestId는 (같은 스트라이프라도) 바로 처리됨
+        for (int i = 0; i < 256; i++) {
+            String other = "other-" + i;
+            assertThat(store.getOrProcess(other, () -> success(other, 0)).getStatus()).isEqualTo(TransferStatus.SUCCESS);
+        }
+        assertThat(duplicate).isNotDone();
+
+        release.countDown();
+        assertThat(duplicate.get(10, TimeUnit.SECONDS)).isSameAs(first.get(10, TimeUnit.SECONDS));
+        assertThat(processed).hasValue(1);
+    }
+
+    @Test
+    void expiredEntriesAreRemoved() throws InterruptedException {
+        // 스트라이프 64개 x 64개 (용량 초과 제거가 일어나지 않도록 넉넉하게)
+        IdempotencyStore store = new IdempotencyStore(registry, 4096, 1);
+        TransferResponse response = success(requestId(0), 0);
+
+        // 처리 시각을 과거로 복원하여 50ms 뒤에 만료되도록 함
+        long processed = System.currentTimeMillis() - 950;
+        store.restore(requestId(0), response, processed);
+        for (int i = 1; i < 500; i++) store.restore(requestId(i), success(requestId(i), i), processed);
+        assertThat(store.get(requestId(0))).isSameAs(response);
+
+        Thread.sleep(100);
+        assertThat(store.get(requestId(0))).isNull();
+
+        // 만료된 항목은 같은 스트라이프에 저장할 때 오래된 순서로 정리됨
+        for (int i = 500; i < 2_500; i++) store.put(requestId(i), success(requestId(i), i));
+        assertThat(count("bank.idempotency.expirations")).isEqualTo(500);
+        assertThat(count("bank.idempotency.evictions")).isZero();
+        assertThat(store.size()).isEqualTo(2_000);
+
+        // 이미 TTL이 지난 응답은 복원하지 않음
+        store.restore("req-old", success("req-old", 0), System.currentTimeMillis() - 2_000);
+        assertThat(store.get("req-old")).isNull();
+    }
+
+    @Test
+    void oldestEntriesAreEvictedWhenFull() {
+        // 스트라이프 64개 x 스트라이프당 최소 16개
+        IdempotencyStore store = new IdempotencyStore(registry, 1024, 600);
+        int total = 5_000;
+        for (int i = 0; i < total; i++) store.put(requestId(i), success(requestId(i), i));
+
+        assertThat(store.size()).isEqualTo(1024);
+        assertThat(count("bank.idempotency.evictions")).isEqualTo(total - 1024);
+        assertThat(registry.get("bank.idempotency.size").gauge().value()).isEqualTo(1024);
+
+        assertThat(store.get(requestId(0))).isNull();
+        assertThat(store.get(requestId(total - 1))).isNotNull();
+    }
+
+    @Test
+    void storingSameKeyRenewsExpiry() throws InterruptedException {
+        IdempotencyStore store = new IdempotencyStore(registry, 1024, 1);
+
+        // 곧 만료될 항목을 다시 저장하면 이전 자리는 비우고 새 만료 시각으로 링의 head에 기록됨
+        store.restore("req-1", success("req-1", 1), System.currentTimeMillis() - 950);
+        TransferResponse renewed = success("req-1", 2);
+        store.put("req-1", renewed);
+        assertThat(store.size()).isEqualTo(1);
+
+        // 이전 항목의 만료 시각이 지나도 다시 저장한 응답이 조회됨 (중복 요청이 다시 처리되지 않음)
+        Thread.sleep(100);
+        assertThat(store.get("req-1")).isSameAs(renewed);
+        assertThat(store.getOrProcess("req-1", () -> success("req-1", 3))).isSameAs(renewed);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    private double count(String name) {
+        return registry.get(name).functionCounter().count();
+    }
+
+    private static String requestId(int i) {
+        return UUID.nameUUIDFromBytes(("req-" + i).getBytes()).toString();
+    }
+
+    private static TransferResponse success(String requestId, int sequence) {
+        return TransferResponse.builder()
+                .requestId(requestId)
+                .transactionId("tx-" + sequence)
+                .status(TransferStatus.SUCCESS)
+                .build();
+    }
+
+    private static TransferResponse failed(String requestId, int sequence) {
+        return TransferResponse.builder()
+                .requestId(requestId)
+                .transactionId("tx-" + sequence)
+                .status(TransferStatus.FAILED)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
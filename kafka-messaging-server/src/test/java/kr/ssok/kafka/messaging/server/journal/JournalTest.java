@@ -0,0 +1,215 @@
+package kr.ssok.kafka.messaging.server.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 저널 복구 테스트 (잘린 마지막 항목, 세그먼트 교체, 앞쪽 세그먼트 삭제, 앞쪽 세그먼트 손상)
+ */
+class JournalTest {
+
+    // 세그먼트 최소 크기, 항목 약 47개마다 교체
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoverEmptyStartsAtInitialPosition() throws Exception {
+        Journal journal = open();
+        assertThat(journal.recover((position, entry) -> { }, 0, 0)).isZero();
+        assertThat(journal.position()).isZero();
+
+        long end = journal.append(entry(0));
+        journal.awaitDurable(end);
+        journal.destroy();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        Journal reopened = open();
+        assertThat(reopened.recover((position, entry) -> replayed.add(entry), 0, 0)).isEqualTo(1);
+        assertThat(replayed).containsExactly(entry(0));
+        assertThat(reopened.position()).isEqualTo(end);
+        reopened.destroy();
+    }
+
+    @Test
+    void tornTailIsDiscardedAndOverwritten() throws Exception {
+        Journal journal = open();
+        journal.recover((position, entry) -> { }, 0, 0);
+        long[] ends = new long[3];
+        for (int i = 0; i < ends.length; i++) ends[i] = journal.append(entry(i));
+        journal.destroy();
+
+        // 마지막 항목의 본문 일부만 기록된 상태 (CRC 불일치)
+        corrupt(segmentFile(0), ends[2] - 1);
+
+        List<Long> positions = new ArrayList<>();
+        Journal recovered = open();
+        assertThat(recovered.recover((position, entry) -> positions.add(position), 0, 0)).isEqualTo(2);
+        assertThat(positions).containsExactly(ends[0], ends[1]);
+        assertThat(recovered.position()).isEqualTo(ends[1]);
+
+        // 버린 항목 자리부터 이어서 기록
+        long end = recovered.append(entry(4));
+        assertThat(end).isEqualTo(ends[2]);
+        recovered.destroy();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        Journal reopened = open();
+        assertThat(reopened.recover((position, entry) -> replayed.add(entry), 0, 0)).isEqualTo(3);
+        assertThat(replayed).containsExactly(entry(0), entry(1), entry(4));
+        reopened.destroy();
+    }
+
+    @Test
+    void replaysAcrossRolledSegments() throws Exception {
+        Journal journal = open();
+        journal.recover((position, entry) -> { }, 0, 0);
+        long[] ends = appendAll(journal, 200);
+        journal.destroy();
+
+        assertThat(segmentBases()).hasSizeGreaterThan(2);
+        // 세그먼트 시작 위치 = 이전 세그먼트의 마지막 항목 끝 위치
+        for (long base : segmentBases().subList(1, segmentBases().size())) assertThat(ends).contains(base);
+
+        List<Long> positions = new ArrayList<>();
+        List<JournalEntry> replayed = new ArrayList<>();
+        Journal reopened = open();
+        assertThat(reopened.recover((position, entry) -> {
+            positions.add(position);
+            replayed.add(entry);
+        }, 0, 0)).isEqualTo(200);
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(positions.get(i)).isEqualTo(ends[i]);
+            assertThat(replayed.get(i)).isEqualTo(entry(i));
+        }
+        assertThat(reopened.position()).isEqualTo(ends[199]);
+        reopened.destroy();
+    }
+
+    @Test
+    void truncateDeletesOnlySegmentsEndingBeforePosition() throws Exception {
+        Journal journal = open();
+        journal.recover((position, entry) -> { }, 0, 0);
+        long[] ends = appendAll(journal, 200);
+
+        List<Long> bases = segmentBases();
+        long snapshot = ends[120];
+        // snapshot 위치 이전에 끝나는 세그먼트 = 다음 세그먼트 시작 위치가 snapshot 이하인 세그먼트
+        int expected = 0;
+        for (int i = 0; i + 1 < bases.size(); i++) if (bases.get(i + 1) <= snapshot) expected++;
+
+        assertThat(journal.truncate(snapshot)).isEqualTo(expected);
+        assertThat(segmentBases()).hasSize(bases.size() - expected);
+        assertThat(segmentBases().get(0)).isLessThanOrEqualTo(snapshot);
+
+        // 기록중인 세그먼트는 삭제하지 않음
+        int remaining = segmentBases().size();
+        assertThat(journal.truncate(Long.MAX_VALUE)).isEqualTo(remaining - 1);
+        assertThat(segmentBases()).containsExactly(bases.get(bases.size() - 1));
+        journal.destroy();
+    }
+
+    @Test
+    void recoverAfterTruncateReplaysFromSnapshot() throws Exception {
+        Journal journal = open();
+        journal.recover((position, entry) -> { }, 0, 0);
+        long[] ends = appendAll(journal, 200);
+        long snapshot = ends[120];
+        journal.truncate(snapshot);
+        journal.destroy();
+
+        long first = segmentBases().get(0);
+        List<Long> positions = new ArrayList<>();
+        Journal reopened = open();
+        reopened.recover((position, entry) -> positions.add(position), snapshot, snapshot);
+
+        // 남은 세그먼트의 항목만 재생하고, 스냅샷 이후 항목은 모두 포함
+        assertThat(positions.get(0)).isGreaterThan(first);
+        assertThat(positions).contains(ends[121]);
+        assertThat(positions.get(positions.size() - 1)).isEqualTo(ends[199]);
+        reopened.destroy();
+
+        // 스냅샷 이후의 세그먼트가 삭제된 경우
+        Journal missing = open();
+        assertThatThrownBy(() -> missing.recover((position, entry) -> { }, first - 1, first - 1))
+                .isInstanceOf(IllegalStateException.class);
+        missing.destroy();
+    }
+
+    @Test
+    void crcMismatchInEarlierSegmentFailsRecovery() throws Exception {
+        Journal journal = open();
+        journal.recover((position, entry) -> { }, 0, 0);
+        long[] ends = appendAll(journal, 200);
+        journal.destroy();
+
+        // 첫 세그먼트의 두번째 항목 손상 (마지막 세그먼트가 아니면 잘린 항목으로 보지 않음)
+        corrupt(segmentFile(0), ends[1] - 1);
+
+        Journal reopened = open();
+        assertThatThrownBy(() -> reopened.recover((position, entry) -> { }, 0, 0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("손상된 항목");
+        reopened.destroy();
+    }
+
+    private Journal open() {
+        return new Journal(new SimpleMeterRegistry(), true, directory.toString(), SEGMENT_BYTES, "always", 5);
+    }
+
+    private static long[] appendAll(Journal journal, int count) {
+        long[] ends = new long[count];
+        for (int i = 0; i < count; i++) ends[i] = journal.append(entry(i));
+        journal.sync();
+        return ends;
+    }
+
+    private static JournalEntry entry(int i) {
+        UUID tx = UUID.nameUUIDFromBytes(("tx-" + i).getBytes());
+        String requestId = i % 2 == 0 ? UUID.nameUUIDFromBytes(("req-" + i).getBytes()).toString() : "req-" + i;
+        return new JournalEntry(1_700_000_000_000L + i, i % 3, i, i % 7, 100, 100L * i,
+                tx.getMostSignificantBits(), tx.getLeastSignificantBits(), requestId);
+    }
+
+    // 세그먼트 파일의 한 바이트를 뒤집음
+    private static void corrupt(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, position);
+            buffer.put(0, (byte) (buffer.get(0) ^ 0xFF)).rewind();
+            channel.write(buffer, position);
+        }
+    }
+
+    private Path segmentFile(long base) {
+        return directory.resolve(String.format("%020d.journal", base));
+    }
+
+    private List<Long> segmentBases() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".journal"))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - ".journal".length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+}
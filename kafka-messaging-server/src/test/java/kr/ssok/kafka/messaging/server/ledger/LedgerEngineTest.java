@@ -0,0 +1,158 @@
+package kr.ssok.kafka.messaging.server.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 원장 테스트 (초기 계좌, 잔액 부족, 오버플로우, 리스너 실패시 되돌림, 재생, 스냅샷, 계좌 키)
+ */
+class LedgerEngineTest {
+
+    private static final String FROM = "098-765-432166";
+    private static final String TO = "098-765-43212";
+
+    private final LedgerEngine ledger = new LedgerEngine(16, 3, new String[]{FROM + ":1000000", TO + ":0"});
+
+    private final long from = LedgerEngine.accountKey(FROM);
+    private final long to = LedgerEngine.accountKey(TO);
+
+    @Test
+    void seedsAccounts() {
+        assertThat(ledger.size()).isEqualTo(2);
+        assertThat(ledger.balanceOf(from)).isEqualTo(LedgerEngine.toUnits(new BigDecimal("1000000")));
+        assertThat(ledger.balanceOf(to)).isZero();
+        assertThat(ledger.balanceOf(LedgerEngine.accountKey("098-765-43213"))).isEqualTo(LedgerEngine.NOT_FOUND);
+
+        assertThatThrownBy(() -> new LedgerEngine(16, 3, new String[]{"098 765:100"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LedgerEngine(16, 0, new String[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void depositAndWithdraw() {
+        assertThat(ledger.withdraw(from, 1_000_00)).isEqualTo(999_000_00);
+        assertThat(ledger.deposit(to, 1_000_00)).isEqualTo(1_000_00);
+
+        assertThat(ledger.deposit(LedgerEngine.accountKey("098-765-43213"), 100)).isEqualTo(LedgerEngine.NOT_FOUND);
+        assertThat(ledger.getDepositCount()).isEqualTo(1);
+        assertThat(ledger.getWithdrawalCount()).isEqualTo(1);
+        assertThat(ledger.getRejectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void insufficientFundsLeavesBalance() {
+        ledger.deposit(to, 500);
+
+        assertThat(ledger.withdraw(to, 501)).isEqualTo(LedgerEngine.INSUFFICIENT_FUNDS);
+        assertThat(ledger.balanceOf(to)).isEqualTo(500);
+
+        // 잔액 전부 출금은 허용
+        assertThat(ledger.withdraw(to, 500)).isZero();
+        assertThat(ledger.getRejectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void overflowIsRejected() {
+        long rich = LedgerEngine.accountKey("110-000-000001");
+        ledger.open(rich, Long.MAX_VALUE - 10);
+
+        assertThat(ledger.deposit(rich, 11)).isEqualTo(LedgerEngine.OVERFLOW);
+        assertThat(ledger.balanceOf(rich)).isEqualTo(Long.MAX_VALUE - 10);
+        assertThat(ledger.deposit(rich, 10)).isEqualTo(Long.MAX_VALUE);
+
+        // 고정소수점으로 나타낼 수 없는 금액
+        assertThatThrownBy(() -> LedgerEngine.toUnits(new BigDecimal("0.001"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> LedgerEngine.toUnits(new BigDecimal("1E+20"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void listenerFailureRollsBack() {
+        List<long[]> applied = new ArrayList<>();
+        assertThat(ledger.deposit(to, 300, (account, delta, balance) -> applied.add(new long[]{account, delta, balance})))
+                .isEqualTo(300);
+        assertThat(applied).hasSize(1);
+        assertThat(applied.get(0)).containsExactly(to, 300, 300);
+
+        // 저널 기록 실패 등으로 리스너가 예외를 던지면 잔액을 되돌리고 예외를 그대로 전달
+        LedgerEngine.ChangeListener failing = (account, delta, balance) -> {
+            throw new IllegalStateException("journal closed");
+        };
+        assertThatThrownBy(() -> ledger.deposit(to, 100, failing)).isInstanceOf(IllegalStateException.class);
+        assertThat(ledger.balanceOf(to)).isEqualTo(300);
+        assertThatThrownBy(() -> ledger.withdraw(to, 100, failing)).isInstanceOf(IllegalStateException.class);
+        assertThat(ledger.balanceOf(to)).isEqualTo(300);
+
+        // 거부된 요청은 리스너를 호출하지 않음
+        assertThat(ledger.withdraw(to, 301, failing)).isEqualTo(LedgerEngine.INSUFFICIENT_FUNDS);
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        for (int i = 0; i < 10_000; i++) ledger.open(LedgerEngine.accountKey(String.format("110-%06d", i)), i);
+
+        assertThat(ledger.size()).isEqualTo(10_002);
+        for (int i = 0; i < 10_000; i++) assertThat(ledger.balanceOf(LedgerEngine.accountKey(String.format("110-%06d", i)))).isEqualTo(i);
+        // 이미 있는 계좌는 다시 개설하지 않음
+        assertThat(ledger.open(from, 0)).isFalse();
+        assertThat(ledger.balanceOf(from)).isEqualTo(1_000_000_00);
+    }
+
+    @Test
+    void snapshotRestoreAndReplay() throws Exception {
+        ledger.deposit(to, 700);
+
+        // 스트라이프별 복사본을 다른 배치(파티션 수)의 원장에 복원
+        LedgerEngine restored = new LedgerEngine(16, 2, new String[0]);
+        Map<Integer, Long> positions = new HashMap<>();
+        ledger.snapshot(() -> 100, (stripe, position, keys, balances, size) -> {
+            positions.put(stripe, position);
+            long[] k = new long[size];
+            long[] b = new long[size];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == 0) continue;
+                k[n] = keys[i];
+                b[n++] = balances[i];
+            }
+            restored.restore(ledger.getPartitions(), stripe, position, k, b, size);
+        });
+        assertThat(positions).hasSize(ledger.getStripeCount());
+        assertThat(restored.balanceOf(to)).isEqualTo(700);
+        assertThat(restored.balanceOf(from)).isEqualTo(1_000_000_00);
+
+        // 스냅샷 위치 이하의 저널 항목은 이미 반영됨, 이후 항목만 재생 (없는 계좌는 개설)
+        assertThat(restored.replay(100, to, 700)).isFalse();
+        assertThat(restored.replay(101, to, -200)).isTrue();
+        assertThat(restored.balanceOf(to)).isEqualTo(500);
+
+        long opened = LedgerEngine.accountKey("098-765-43213");
+        assertThat(restored.replay(102, opened, 50)).isTrue();
+        assertThat(restored.balanceOf(opened)).isEqualTo(50);
+    }
+
+    @Test
+    void differentlyFormattedAccountsAreDifferentAccounts() {
+        // 숫자가 같아도 '-' 위치가 다르면 다른 계좌
+        long other = LedgerEngine.accountKey("0987-654-32166");
+        assertThat(other).isNotEqualTo(from);
+        assertThat(LedgerEngine.accountKey("098765432166")).isNotEqualTo(from).isNotEqualTo(other);
+        assertThat(ledger.balanceOf(other)).isEqualTo(LedgerEngine.NOT_FOUND);
+
+        // 공백, 앞뒤 또는 연속된 '-', 14자리 초과는 잘못된 계좌번호
+        for (String invalid : new String[]{"", "-", "098 765", "-098", "098-", "098--765", "098-765-4321a", "123456789012345"}) {
+            assertThat(LedgerEngine.accountKey(invalid)).as(invalid).isEqualTo(LedgerEngine.INVALID_ACCOUNT);
+        }
+        assertThat(LedgerEngine.accountKey(null)).isEqualTo(LedgerEngine.INVALID_ACCOUNT);
+        assertThat(LedgerEngine.accountKey("12345678901234")).isPositive();
+    }
+
+}